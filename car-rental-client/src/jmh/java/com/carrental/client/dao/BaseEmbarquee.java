@@ -0,0 +1,204 @@
+package com.carrental.client.dao;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base H2 en mémoire, en mode de compatibilité Oracle, pour les benchmarks.
+ *
+ * Le schéma est celui de l'application (schema.sql); les données d'exemple du script sont
+ * remplacées par un jeu généré de la taille demandée:
+ * <ul>
+ *     <li>voitures V00000, V00001...: une sur dix en panne, une sur trois louée, les autres disponibles;
+ *     nbloc égal au nombre de locations générées pour la voiture;</li>
+ *     <li>personnes d'identifiants 1 à nbPersonnes, de login client1, client2...;</li>
+ *     <li>locations réparties en tournant sur les voitures et les personnes, sans chevauchement pour
+ *     une même voiture; la dernière location de chaque voiture louée est EN_COURS.</li>
+ * </ul>
+ * Le générateur est déterministe: deux bases de même taille ont le même contenu.
+ */
+public final class BaseEmbarquee implements AutoCloseable {
+
+    private static final AtomicInteger NUMERO = new AtomicInteger();
+
+    private static final String[] MARQUES = {"Renault", "Peugeot", "Citroen", "Volkswagen", "Ford",
+            "Toyota", "Fiat", "Dacia", "Opel", "Kia"};
+
+    private static final int[] PLACES = {2, 4, 5, 5, 7};
+
+    /** Taille des lots d'insertion */
+    private static final int LOT = 5000;
+
+    private final HikariDataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int nbVoitures;
+
+    private final int nbPersonnes;
+
+    private final int nbLocations;
+
+    private BaseEmbarquee(int nbVoitures, int nbPersonnes, int nbLocations, int tailleBassin) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:benchmark" + NUMERO.incrementAndGet() + ";MODE=Oracle;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(tailleBassin);
+        this.dataSource = new HikariDataSource(config);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.nbVoitures = nbVoitures;
+        this.nbPersonnes = nbPersonnes;
+        this.nbLocations = nbLocations;
+    }
+
+    /**
+     * Crée et remplit une base.
+     *
+     * @param nbVoitures Nombre de voitures
+     * @param nbPersonnes Nombre de personnes
+     * @param nbLocations Nombre de locations
+     * @param tailleBassin Nombre maximal de connexions (nombre de threads du benchmark)
+     * @return Base prête
+     */
+    public static BaseEmbarquee creer(int nbVoitures, int nbPersonnes, int nbLocations, int tailleBassin) {
+        BaseEmbarquee base = new BaseEmbarquee(nbVoitures, nbPersonnes, nbLocations, tailleBassin);
+        base.charger();
+        return base;
+    }
+
+    private void charger() {
+        try (Connection connexion = dataSource.getConnection()) {
+            // Les DROP du script échouent sur une base vide: ignorés
+            ScriptUtils.executeSqlScript(connexion, new EncodedResource(new ClassPathResource("schema.sql"), "UTF-8"),
+                    false, true, ScriptUtils.DEFAULT_COMMENT_PREFIX, ScriptUtils.DEFAULT_STATEMENT_SEPARATOR,
+                    ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER, ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Chargement de schema.sql impossible", e);
+        }
+        jdbcTemplate.update("DELETE FROM location");
+        jdbcTemplate.update("DELETE FROM voiture_hold");
+        jdbcTemplate.update("DELETE FROM voiture");
+        jdbcTemplate.update("DELETE FROM personne");
+
+        inserer("INSERT INTO voiture (mat, marque, model, nbplace, disp, nbloc, prix) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                nbVoitures, (ps, i) -> {
+                    ps.setString(1, mat(i));
+                    // Marque par blocs de dix: indépendante de l'état (une voiture sur dix en panne)
+                    ps.setString(2, MARQUES[(i / 10) % MARQUES.length]);
+                    ps.setString(3, "Modele " + (i % 37));
+                    ps.setInt(4, PLACES[i % PLACES.length]);
+                    ps.setString(5, disp(i));
+                    ps.setInt(6, nbLocations / nbVoitures + (i < nbLocations % nbVoitures ? 1 : 0));
+                    ps.setInt(7, 30 + (i * 7) % 150);
+                });
+        inserer("INSERT INTO personne (id, cin, nom, prenom, numero, npermis, nbloc, login, passwd, role) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?, 'CLIENT')",
+                nbPersonnes, (ps, i) -> {
+                    ps.setLong(1, i + 1);
+                    ps.setString(2, "CIN" + i);
+                    ps.setString(3, "Nom" + i);
+                    ps.setString(4, "Prenom" + i);
+                    ps.setString(5, "06" + (10_000_000 + i));
+                    ps.setString(6, "PERMIS" + i);
+                    ps.setString(7, login(i + 1));
+                    ps.setString(8, "motdepasse");
+                });
+        LocalDate origine = LocalDate.of(2020, 1, 1);
+        inserer("INSERT INTO location (id_location, id_personne, mat, dteDeb, duree, cheque, etat) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                nbLocations, (ps, k) -> {
+                    int voiture = k % nbVoitures;
+                    boolean derniere = k >= nbLocations - nbVoitures;
+                    ps.setLong(1, k + 1);
+                    ps.setLong(2, k % nbPersonnes + 1);
+                    ps.setString(3, mat(voiture));
+                    ps.setDate(4, Date.valueOf(origine.plusDays((long) (k / nbVoitures) * 10)));
+                    ps.setInt(5, 1 + k % 7);
+                    ps.setString(6, "CHQ" + k);
+                    ps.setString(7, derniere && "LOUEE".equals(disp(voiture)) ? "EN_COURS" : "TERMINEE");
+                });
+    }
+
+    private void inserer(String sql, int nombre, Ligne ligne) {
+        for (int debut = 0; debut < nombre; debut += LOT) {
+            int fin = Math.min(nombre, debut + LOT);
+            int premier = debut;
+            jdbcTemplate.execute(sql, (PreparedStatement ps) -> {
+                for (int i = premier; i < fin; i++) {
+                    ligne.remplir(ps, i);
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            });
+        }
+    }
+
+    /**
+     * @return Immatriculation de la voiture numéro i
+     */
+    public static String mat(int i) {
+        return String.format("V%05d", i);
+    }
+
+    /**
+     * @return Login de la personne d'identifiant id
+     */
+    public static String login(long id) {
+        return "client" + id;
+    }
+
+    /**
+     * @return État de la voiture numéro i
+     */
+    public static String disp(int i) {
+        return i % 10 == 0 ? "PANNE" : i % 3 == 0 ? "LOUEE" : "DISPONIBLE";
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public int getNbVoitures() {
+        return nbVoitures;
+    }
+
+    public int getNbPersonnes() {
+        return nbPersonnes;
+    }
+
+    public VoitureDAO voitureDAO() {
+        return new VoitureDAO(jdbcTemplate);
+    }
+
+    public PersonneDAO personneDAO() {
+        return new PersonneDAO(jdbcTemplate);
+    }
+
+    public LocationDAO locationDAO() {
+        return new LocationDAO(jdbcTemplate, voitureDAO(), personneDAO());
+    }
+
+    @Override
+    public void close() {
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.close();
+    }
+
+    /**
+     * Remplissage des paramètres d'une ligne insérée.
+     */
+    @FunctionalInterface
+    private interface Ligne {
+        void remplir(PreparedStatement ps, int i) throws SQLException;
+    }
+}
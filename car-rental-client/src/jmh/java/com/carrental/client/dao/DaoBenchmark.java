@@ -0,0 +1,115 @@
+package com.carrental.client.dao;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requêtes principales des DAO sur une base H2 en mémoire (mode Oracle, voir BaseEmbarquee).
+ *
+ * Les durées ne sont pas celles d'Oracle (pas de réseau, autre optimiseur): le benchmark suit
+ * l'évolution du coût côté application (JdbcTemplate, conversion des lignes, allocations) d'une
+ * version à l'autre. Les requêtes par clé parcourent les voitures et les personnes à tour de rôle.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    @Param({"1000"})
+    public int nbVoitures;
+
+    @Param({"20000"})
+    public int nbLocations;
+
+    private BaseEmbarquee base;
+
+    private VoitureDAO voitureDAO;
+
+    private PersonneDAO personneDAO;
+
+    private LocationDAO locationDAO;
+
+    /** Prochaine clé interrogée */
+    private int curseur;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        base = BaseEmbarquee.creer(nbVoitures, nbVoitures, nbLocations, 1);
+        voitureDAO = base.voitureDAO();
+        personneDAO = base.personneDAO();
+        locationDAO = base.locationDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() {
+        base.close();
+    }
+
+    private int suivant() {
+        curseur = (curseur + 1) % nbVoitures;
+        return curseur;
+    }
+
+    @Benchmark
+    public List<?> voituresToutes() {
+        return voitureDAO.findAll();
+    }
+
+    @Benchmark
+    public List<?> voituresVisibles() {
+        return voitureDAO.findAllAvailable();
+    }
+
+    @Benchmark
+    public Optional<?> voitureParMat() {
+        return voitureDAO.findByMat(BaseEmbarquee.mat(suivant()));
+    }
+
+    @Benchmark
+    public List<?> voituresPlusLouees() {
+        return voitureDAO.findMostRented();
+    }
+
+    @Benchmark
+    public List<?> voituresParMarque() {
+        return voitureDAO.findByMarque("Ren");
+    }
+
+    @Benchmark
+    public Optional<?> personneParId() {
+        return personneDAO.findById((long) suivant() + 1);
+    }
+
+    @Benchmark
+    public Optional<?> personneParLogin() {
+        return personneDAO.findByLogin(BaseEmbarquee.login(suivant() + 1));
+    }
+
+    @Benchmark
+    public List<?> locationsParPersonne() {
+        return locationDAO.findByPersonneId((long) suivant() + 1);
+    }
+
+    @Benchmark
+    public boolean voitureLouee() {
+        return locationDAO.isVoitureLouee(BaseEmbarquee.mat(suivant()));
+    }
+}
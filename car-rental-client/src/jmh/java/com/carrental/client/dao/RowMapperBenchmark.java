@@ -0,0 +1,131 @@
+package com.carrental.client.dao;
+
+import com.carrental.client.model.Location;
+import com.carrental.client.model.Personne;
+import com.carrental.client.model.Voiture;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de conversion d'une ligne par les RowMapper des DAO, sans base de données.
+ *
+ * Les lignes sont lues dans des ResultSet en mémoire (SimpleResultSet de H2) de 1000 lignes: le
+ * score est le temps par ligne et, avec le profileur gc, les octets alloués par ligne
+ * (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final int LIGNES = 1000;
+
+    private final RowMapper<Voiture> voitureRowMapper = new VoitureDAO.VoitureRowMapper();
+
+    private final RowMapper<Personne> personneRowMapper = new PersonneDAO.PersonneRowMapper();
+
+    private final RowMapper<Location> locationRowMapper = new LocationDAO.LocationRowMapper();
+
+    private SimpleResultSet voitures;
+
+    private SimpleResultSet personnes;
+
+    private SimpleResultSet locations;
+
+    @Setup
+    public void preparer() {
+        voitures = new SimpleResultSet();
+        voitures.addColumn("mat", Types.VARCHAR, 20, 0);
+        voitures.addColumn("marque", Types.VARCHAR, 50, 0);
+        voitures.addColumn("model", Types.VARCHAR, 50, 0);
+        voitures.addColumn("nbplace", Types.INTEGER, 10, 0);
+        voitures.addColumn("disp", Types.VARCHAR, 20, 0);
+        voitures.addColumn("nbloc", Types.INTEGER, 10, 0);
+        voitures.addColumn("prix", Types.DOUBLE, 17, 0);
+        voitures.addColumn("image_path", Types.VARCHAR, 255, 0);
+        for (int i = 0; i < LIGNES; i++) {
+            voitures.addRow(BaseEmbarquee.mat(i), "Renault", "Clio", 5, BaseEmbarquee.disp(i), i % 40, 30.0 + i % 150,
+                    "default.jpg");
+        }
+
+        personnes = new SimpleResultSet();
+        personnes.addColumn("id", Types.BIGINT, 19, 0);
+        for (String colonne : new String[]{"cin", "nom", "prenom", "numero", "npermis"}) {
+            personnes.addColumn(colonne, Types.VARCHAR, 50, 0);
+        }
+        personnes.addColumn("nbloc", Types.INTEGER, 10, 0);
+        for (String colonne : new String[]{"login", "passwd", "role"}) {
+            personnes.addColumn(colonne, Types.VARCHAR, 100, 0);
+        }
+        for (int i = 0; i < LIGNES; i++) {
+            personnes.addRow((long) i + 1, "CIN" + i, "Nom" + i, "Prenom" + i, "0600000000", "PERMIS" + i, i % 12,
+                    BaseEmbarquee.login(i + 1), "motdepasse", "CLIENT");
+        }
+
+        locations = new SimpleResultSet();
+        locations.addColumn("id_location", Types.BIGINT, 19, 0);
+        locations.addColumn("id_personne", Types.BIGINT, 19, 0);
+        locations.addColumn("mat", Types.VARCHAR, 20, 0);
+        locations.addColumn("dteDeb", Types.DATE, 10, 0);
+        locations.addColumn("duree", Types.INTEGER, 10, 0);
+        locations.addColumn("cheque", Types.VARCHAR, 50, 0);
+        locations.addColumn("etat", Types.VARCHAR, 20, 0);
+        LocalDate origine = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < LIGNES; i++) {
+            locations.addRow((long) i + 1, (long) i % 100 + 1, BaseEmbarquee.mat(i % 50),
+                    Date.valueOf(origine.plusDays(i)), 1 + i % 7, "CHQ" + i, i % 20 == 0 ? "EN_COURS" : "TERMINEE");
+        }
+
+        // Relecture des mêmes lignes à chaque invocation
+        voitures.setAutoClose(false);
+        personnes.setAutoClose(false);
+        locations.setAutoClose(false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIGNES)
+    public void voiture(Blackhole blackhole) throws SQLException {
+        lire(voitures, voitureRowMapper, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIGNES)
+    public void personne(Blackhole blackhole) throws SQLException {
+        lire(personnes, personneRowMapper, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIGNES)
+    public void location(Blackhole blackhole) throws SQLException {
+        lire(locations, locationRowMapper, blackhole);
+    }
+
+    private static <T> void lire(SimpleResultSet resultSet, RowMapper<T> rowMapper, Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        int ligne = 0;
+        while (resultSet.next()) {
+            blackhole.consume(rowMapper.mapRow(resultSet, ligne++));
+        }
+    }
+}
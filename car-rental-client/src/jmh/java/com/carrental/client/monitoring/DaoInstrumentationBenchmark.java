@@ -0,0 +1,95 @@
+package com.carrental.client.monitoring;
+
+import com.carrental.client.dao.BaseEmbarquee;
+import com.carrental.client.dao.VoitureDAO;
+import com.carrental.client.model.Voiture;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Surcoût de l'instrumentation des DAO (DaoInstrumentation: timer, lignes, erreurs par méthode).
+ *
+ * Le même appel VoitureDAO.findByMat est mesuré sans proxy (instrumentation=false) et à travers le
+ * proxy d'instrumentation (true):
+ * <ul>
+ *     <li>stub: JdbcTemplate factice qui rend une voiture sans base de données, le score est
+ *     presque entièrement le coût du proxy et des métriques;</li>
+ *     <li>h2: requête réelle sur une base en mémoire, pour situer ce coût par rapport à une requête.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaoInstrumentationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean instrumentation;
+
+    private BaseEmbarquee base;
+
+    private VoitureDAO daoStub;
+
+    private VoitureDAO daoH2;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", new SimpleMeterRegistry());
+        DaoInstrumentation daoInstrumentation = new DaoInstrumentation(beanFactory.getBeanProvider(MeterRegistry.class),
+                instrumentation);
+
+        Voiture voiture = new Voiture();
+        voiture.setMat(BaseEmbarquee.mat(1));
+        List<Voiture> resultat = Collections.singletonList(voiture);
+        JdbcTemplate stub = new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+                return (List<T>) resultat;
+            }
+        };
+        daoStub = (VoitureDAO) daoInstrumentation.postProcessAfterInitialization(new VoitureDAO(stub), "voitureDAO");
+
+        base = BaseEmbarquee.creer(100, 1, 0, 1);
+        daoH2 = (VoitureDAO) daoInstrumentation.postProcessAfterInitialization(base.voitureDAO(), "voitureDAO");
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() {
+        base.close();
+    }
+
+    @Benchmark
+    public Optional<Voiture> stub() {
+        return daoStub.findByMat("V00001");
+    }
+
+    @Benchmark
+    public Optional<Voiture> h2() {
+        return daoH2.findByMat("V00001");
+    }
+}
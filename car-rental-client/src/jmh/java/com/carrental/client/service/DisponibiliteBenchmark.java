@@ -0,0 +1,91 @@
+package com.carrental.client.service;
+
+import com.carrental.client.dao.BaseEmbarquee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index de disponibilité par période (DisponibiliteService) sur une flotte de 10 000 voitures.
+ *
+ * - isLibre: une voiture sur une semaine située au milieu de l'historique (recherche dans l'index
+ *   de la voiture);
+ * - voituresLibres: toute la flotte sur la même semaine (page /voitures/periode);
+ * - reconstruire: construction complète de l'index depuis la base (démarrage, rechargement
+ *   périodique), en temps par construction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DisponibiliteBenchmark {
+
+    @Param({"10000"})
+    public int nbVoitures;
+
+    @Param({"100000", "1000000"})
+    public int nbLocations;
+
+    private BaseEmbarquee base;
+
+    private DisponibiliteService disponibiliteService;
+
+    /** Semaine au milieu de l'historique généré (les locations commencent le 1er janvier 2020) */
+    private LocalDate premierJour;
+
+    private LocalDate dernierJour;
+
+    private int curseur;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        base = BaseEmbarquee.creer(nbVoitures, 1000, nbLocations, 1);
+        disponibiliteService = new DisponibiliteService(base.locationDAO(), base.voitureDAO());
+        disponibiliteService.reconstruire();
+        long jours = (long) (nbLocations / nbVoitures) * 10;
+        premierJour = LocalDate.of(2020, 1, 1).plusDays(jours / 2);
+        dernierJour = premierJour.plusDays(6);
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() {
+        base.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean isLibre() {
+        curseur = (curseur + 1) % nbVoitures;
+        return disponibiliteService.isLibre(BaseEmbarquee.mat(curseur), premierJour, dernierJour);
+    }
+
+    @Benchmark
+    public List<String> voituresLibres() {
+        return disponibiliteService.getVoituresLibres(premierJour, dernierJour);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void reconstruire() {
+        disponibiliteService.reconstruire();
+    }
+}
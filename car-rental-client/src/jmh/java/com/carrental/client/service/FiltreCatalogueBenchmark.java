@@ -0,0 +1,87 @@
+package com.carrental.client.service;
+
+import com.carrental.client.dao.BaseEmbarquee;
+import com.carrental.client.dao.VoitureDAO;
+import com.carrental.client.model.Voiture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtres du catalogue: copie en colonnes et bitmaps (FiltreCatalogueService) face aux requêtes
+ * SQL du DAO, sur une flotte de 10 000 voitures.
+ *
+ * - bitmapMarque / sqlMarque: filtre sur la marque seule;
+ * - bitmapCombine: marque, places, prix et état, en un seul passage sur les bitmaps;
+ * - recharger: reconstruction du catalogue et de sa copie en colonnes (rechargement périodique).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FiltreCatalogueBenchmark {
+
+    @Param({"10000"})
+    public int nbVoitures;
+
+    private BaseEmbarquee base;
+
+    private VoitureDAO voitureDAO;
+
+    private CatalogueService catalogueService;
+
+    private FiltreCatalogueService filtreCatalogueService;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        base = BaseEmbarquee.creer(nbVoitures, 1, 0, 1);
+        voitureDAO = base.voitureDAO();
+        CatalogueColumnaireService catalogueColumnaireService = new CatalogueColumnaireService("50,80,120");
+        catalogueService = new CatalogueService(voitureDAO,
+                Collections.<CatalogueListener>singletonList(catalogueColumnaireService));
+        catalogueService.recharger();
+        filtreCatalogueService = new FiltreCatalogueService(catalogueColumnaireService, catalogueService);
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() {
+        base.close();
+    }
+
+    @Benchmark
+    public List<Voiture> bitmapMarque() {
+        return filtreCatalogueService.filtrer("Ren", 0, 0, null);
+    }
+
+    @Benchmark
+    public List<Voiture> sqlMarque() {
+        return voitureDAO.findByMarque("Ren");
+    }
+
+    @Benchmark
+    public List<Voiture> bitmapCombine() {
+        return filtreCatalogueService.filtrer("o", 5, 120, "DISPONIBLE");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void recharger() {
+        catalogueService.recharger();
+    }
+}
@@ -0,0 +1,98 @@
+package com.carrental.client.service;
+
+import com.carrental.client.dao.BaseEmbarquee;
+import com.carrental.client.dao.VoitureHoldDAO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocages temporaires de voiture (VoitureHoldService) sous 4 threads, sur une base H2 en mémoire.
+ *
+ * Chaque thread joue un client qui ouvre le formulaire d'une voiture tirée au hasard parmi 200
+ * (placer) puis l'abandonne (liberer). Les compteurs auxiliaires donnent la part de blocages posés
+ * et refusés parce qu'un autre client détenait la voiture.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoitureHoldBenchmark {
+
+    private static final int NB_VOITURES = 200;
+
+    private BaseEmbarquee base;
+
+    private VoitureHoldService voitureHoldService;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        base = BaseEmbarquee.creer(NB_VOITURES, 4, 0, 4);
+        voitureHoldService = new VoitureHoldService(new VoitureHoldDAO(base.getJdbcTemplate()), 10, 1000,
+                new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() {
+        voitureHoldService.arreter();
+        base.close();
+    }
+
+    /**
+     * Client joué par un thread du benchmark.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Client {
+
+        private static int suivant;
+
+        public long poses;
+
+        public long refus;
+
+        private Long id_personne;
+
+        @Setup(Level.Trial)
+        public void preparer() {
+            synchronized (Client.class) {
+                id_personne = (long) ++suivant;
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void remettreAZero() {
+            poses = 0;
+            refus = 0;
+        }
+    }
+
+    @Benchmark
+    public void placerPuisLiberer(Client client) {
+        String mat = BaseEmbarquee.mat(ThreadLocalRandom.current().nextInt(NB_VOITURES));
+        if (voitureHoldService.placer(mat, client.id_personne)) {
+            client.poses++;
+            voitureHoldService.liberer(mat, client.id_personne);
+        } else {
+            client.refus++;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.carrental.client.service;
+
+import com.carrental.client.dao.BaseEmbarquee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention des verrous par voiture (VoitureLockManager) sous 8 threads.
+ *
+ * Chaque opération prend le verrou d'une voiture tirée au hasard parmi 1000 et y simule la section
+ * critique d'une réservation (travail CPU, sans base de données). stripes=1 correspond à un verrou
+ * global, stripes=64 à la configuration par défaut.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoitureLockManagerBenchmark {
+
+    private static final int NB_VOITURES = 1000;
+
+    @Param({"1", "64"})
+    public int stripes;
+
+    /** Travail dans la section critique, en unités de Blackhole.consumeCPU */
+    @Param({"100"})
+    public int travail;
+
+    private VoitureLockManager lockManager;
+
+    private String[] mats;
+
+    @Setup
+    public void preparer() {
+        lockManager = new VoitureLockManager(stripes);
+        mats = new String[NB_VOITURES];
+        for (int i = 0; i < NB_VOITURES; i++) {
+            mats[i] = BaseEmbarquee.mat(i);
+        }
+    }
+
+    @Benchmark
+    public Boolean reservation() {
+        String mat = mats[ThreadLocalRandom.current().nextInt(NB_VOITURES)];
+        return lockManager.executeWithLock(mat, () -> {
+            Blackhole.consumeCPU(travail);
+            return Boolean.TRUE;
+        });
+    }
+}
@@ -1,5 +1,7 @@
 package com.carrental.client.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
@@ -13,6 +15,8 @@ import java.sql.SQLException;
 @Configuration
 public class DatabaseConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(DatabaseConfig.class);
+
     @Autowired
     private DataSource dataSource;
 
@@ -21,15 +25,10 @@ public class DatabaseConfig {
     public CommandLineRunner testDatabaseConnection() {
         return args -> {
             try (Connection connection = dataSource.getConnection()) {
-                System.out.println("=====================================================");
-                System.out.println("Base de données connectée avec succès !");
-                System.out.println("URL: " + connection.getMetaData().getURL());
-                System.out.println("Utilisateur: " + connection.getMetaData().getUserName());
-                System.out.println("=====================================================");
+                log.info("Base de données connectée avec succès ! URL: {}, utilisateur: {}",
+                        connection.getMetaData().getURL(), connection.getMetaData().getUserName());
             } catch (SQLException e) {
-                System.err.println("Erreur de connexion à la base de données:");
-                System.err.println(e.getMessage());
-                e.printStackTrace();
+                log.error("Erreur de connexion à la base de données", e);
             }
         };
     }
@@ -41,11 +40,10 @@ public class DatabaseConfig {
             try {
                 // Vérifier si la table personne existe
                 Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM personne", Integer.class);
-                System.out.println("Nombre de personnes dans la base de données: " + count);
+                log.info("Nombre de personnes dans la base de données: {}", count);
             } catch (Exception e) {
-                System.err.println("Erreur lors de l'exécution de la requête SQL:");
-                System.err.println(e.getMessage());
-                System.err.println("Assurez-vous que les tables sont créées en exécutant le script schema_and_data.sql");
+                log.error("Erreur lors de l'exécution de la requête SQL: {}. Assurez-vous que les tables sont créées "
+                        + "en exécutant le script schema_and_data.sql", e.getMessage());
             }
         };
     }
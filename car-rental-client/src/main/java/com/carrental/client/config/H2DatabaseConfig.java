@@ -0,0 +1,42 @@
+package com.carrental.client.config;
+
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+/**
+ * Base embarquée du profil h2 (voir application-h2.properties): base H2 en mémoire en mode de
+ * compatibilité Oracle, créée au démarrage par le script de l'application (schema.sql, données
+ * d'exemple comprises). Les séquences, "FROM dual" et "FETCH FIRST" des DAO y fonctionnent sans
+ * modification: l'application tourne sans serveur Oracle (tests locaux, mesures de performance).
+ *
+ * Le script commence par des DROP sans "IF EXISTS" (syntaxe absente d'Oracle): ils échouent sur
+ * une base vide et sont ignorés. Toute autre erreur du script arrête le démarrage.
+ */
+@Configuration
+@Profile("h2")
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class H2DatabaseConfig {
+
+    /**
+     * Remplace l'initialisation par script de Spring Boot (mêmes propriétés spring.sql.init), qui ne
+     * sait pas ignorer les seuls DROP en échec. Spring Boot initialise ce bean avant ceux qui
+     * utilisent la base (DAO, chargement des caches au démarrage).
+     */
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer h2ScriptDatabaseInitializer(DataSource dataSource,
+                                                                             SqlInitializationProperties properties) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties) {
+            @Override
+            protected void customize(ResourceDatabasePopulator populator) {
+                populator.setIgnoreFailedDrops(true);
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.carrental.client.config;
+
+import com.carrental.client.monitoring.TraceVueInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration Spring MVC: intercepteurs de l'application.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * Span de trace du rendu des vues
+     */
+    private final TraceVueInterceptor traceVueInterceptor;
+
+    /**
+     * Constructeur avec injection des intercepteurs.
+     *
+     * @param traceVueInterceptor Span de trace du rendu des vues
+     */
+    @Autowired
+    public WebConfig(TraceVueInterceptor traceVueInterceptor) {
+        this.traceVueInterceptor = traceVueInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(traceVueInterceptor);
+    }
+}
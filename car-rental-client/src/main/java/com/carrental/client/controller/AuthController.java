@@ -1,7 +1,11 @@
 package com.carrental.client.controller;
 
 import com.carrental.client.model.Personne;
+import com.carrental.client.monitoring.CompteursMetier;
+import com.carrental.client.service.LoginThrottleService;
 import com.carrental.client.service.PersonneService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -11,6 +15,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 import java.util.Optional;
 
@@ -29,20 +34,37 @@ import java.util.Optional;
 @Controller
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     /**
      * Service de gestion des personnes pour les opérations d'authentification,
      * d'inscription et de mise à jour du profil.
      */
     private final PersonneService personneService;
 
+    /**
+     * Limiteur des tentatives de connexion (par login et par adresse IP)
+     */
+    private final LoginThrottleService loginThrottleService;
+
+    /**
+     * Compteurs d'activité métier (connexions)
+     */
+    private final CompteursMetier compteursMetier;
+
     /**
      * Constructeur avec injection de dépendance
      * 
      * @param personneService Service pour la gestion des utilisateurs
+     * @param loginThrottleService Limiteur des tentatives de connexion
+     * @param compteursMetier Compteurs d'activité métier
      */
     @Autowired
-    public AuthController(PersonneService personneService) {
+    public AuthController(PersonneService personneService, LoginThrottleService loginThrottleService,
+                          CompteursMetier compteursMetier) {
         this.personneService = personneService;
+        this.loginThrottleService = loginThrottleService;
+        this.compteursMetier = compteursMetier;
     }
 
     /**
@@ -68,18 +90,30 @@ public class AuthController {
     /**
      * Traite la soumission du formulaire de connexion.
      * Authentifie l'utilisateur avec ses identifiants et crée une session.
+     * Les tentatives trop nombreuses (par login ou par adresse IP) sont rejetées
+     * avant toute requête vers la base de données.
      * 
      * @param login Identifiant de l'utilisateur
      * @param passwd Mot de passe de l'utilisateur
      * @param session Session HTTP pour stocker les informations de l'utilisateur
+     * @param request Requête HTTP (pour l'adresse IP du client)
      * @param redirectAttributes Pour ajouter des messages flash (affichés après redirection)
      * @return Redirection vers la page d'accueil si authentification réussie, sinon retour à login
      */
     @PostMapping("/login")
     public String processLogin(@RequestParam String login, @RequestParam String passwd, 
-                               HttpSession session, RedirectAttributes redirectAttributes) {
+                               HttpSession session, HttpServletRequest request,
+                               RedirectAttributes redirectAttributes) {
+        
+        log.debug("Tentative de connexion avec login: {}", login);
         
-        System.out.println("Tentative de connexion avec login: " + login);
+        // Limitation des tentatives: rejet avant toute requête vers la base de données
+        if (!loginThrottleService.tryAcquire(login, request.getRemoteAddr())) {
+            log.warn("Tentative de connexion limitée pour login: {}", login);
+            compteursMetier.incrementer(CompteursMetier.Operation.CONNEXION_ECHOUEE);
+            redirectAttributes.addFlashAttribute("error", "Trop de tentatives de connexion. Veuillez réessayer dans quelques instants.");
+            return "redirect:/login";
+        }
         
         // Tentative d'authentification via le service
         Optional<Personne> personneOpt = personneService.authentifier(login, passwd);
@@ -87,17 +121,18 @@ public class AuthController {
         if (personneOpt.isPresent()) {
             // Authentification réussie
             Personne personne = personneOpt.get();
-            System.out.println("Authentification réussie pour: " + personne.getPrenom() + " " + personne.getNom() + ", rôle: " + personne.getRole());
+            log.info("Authentification réussie pour l'utilisateur {}, rôle: {}", personne.getId(), personne.getRole());
             
             // Stockage de l'utilisateur dans la session pour la durée de sa visite
             session.setAttribute("user", personne);
-            System.out.println("Utilisateur stocké en session: " + personne.getId());
+            compteursMetier.incrementer(CompteursMetier.Operation.CONNEXION);
             
             // Redirection vers la page d'accueil
             return "redirect:/";
         } else {
             // Authentification échouée - préparer un message d'erreur
-            System.out.println("Échec d'authentification pour login: " + login);
+            log.info("Échec d'authentification pour login: {}", login);
+            compteursMetier.incrementer(CompteursMetier.Operation.CONNEXION_ECHOUEE);
             redirectAttributes.addFlashAttribute("error", "Login ou mot de passe incorrect");
             return "redirect:/login";
         }
@@ -5,6 +5,8 @@ import com.carrental.client.model.Personne;
 import com.carrental.client.model.Voiture;
 import com.carrental.client.service.LocationService;
 import com.carrental.client.service.VoitureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -27,6 +29,8 @@ import java.util.List;
 @Controller
 public class HomeController {
 
+    private static final Logger log = LoggerFactory.getLogger(HomeController.class);
+
     /**
      * Service de gestion des voitures
      */
@@ -65,25 +69,24 @@ public class HomeController {
     public String home(Model model, HttpSession session) {
         // Vérifier si l'utilisateur est connecté (sécurité)
         if (session.getAttribute("user") == null) {
-            System.out.println("Utilisateur non connecté, redirection vers login");
+            log.debug("Utilisateur non connecté, redirection vers login");
             return "redirect:/login";
         }
         
         try {
             // Récupérer l'utilisateur connecté depuis la session
             Personne personne = (Personne) session.getAttribute("user");
-            System.out.println("Accès à la page d'accueil pour: " + personne.getPrenom() + " " + personne.getNom());
+            log.debug("Accès à la page d'accueil pour l'utilisateur {}", personne.getId());
             model.addAttribute("personne", personne);
             
             // SECTION 1: Récupération des voitures disponibles
             List<Voiture> voituresDisponibles;
             try {
                 voituresDisponibles = voitureService.getVoituresDisponibles();
-                System.out.println("Nombre de voitures disponibles: " + voituresDisponibles.size());
+                log.debug("Nombre de voitures disponibles: {}", voituresDisponibles.size());
             } catch (Exception e) {
                 // Gestion des erreurs robuste: en cas d'échec, utiliser une liste vide
-                System.err.println("Erreur lors de la récupération des voitures disponibles: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Erreur lors de la récupération des voitures disponibles", e);
                 voituresDisponibles = new ArrayList<>();
             }
             model.addAttribute("voituresDisponibles", voituresDisponibles);
@@ -92,10 +95,9 @@ public class HomeController {
             List<Voiture> voituresPopulaires;
             try {
                 voituresPopulaires = voitureService.getMostRentedVoitures();
-                System.out.println("Nombre de voitures populaires: " + voituresPopulaires.size());
+                log.debug("Nombre de voitures populaires: {}", voituresPopulaires.size());
             } catch (Exception e) {
-                System.err.println("Erreur lors de la récupération des voitures populaires: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Erreur lors de la récupération des voitures populaires", e);
                 // En cas d'erreur, utiliser une liste vide pour éviter les NullPointerException
                 voituresPopulaires = new ArrayList<>();
             }
@@ -105,22 +107,19 @@ public class HomeController {
             List<Location> locationsActives;
             try {
                 locationsActives = locationService.getActiveLocationsByPersonne(personne.getId());
-                System.out.println("Nombre de locations actives: " + locationsActives.size());
+                log.debug("Nombre de locations actives: {}", locationsActives.size());
             } catch (Exception e) {
-                System.err.println("Erreur lors de la récupération des locations actives: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Erreur lors de la récupération des locations actives", e);
                 // En cas d'erreur, utiliser une liste vide
                 locationsActives = new ArrayList<>();
             }
             model.addAttribute("locationsActives", locationsActives);
             
             // Rendu du template home.html avec toutes les données préparées
-            System.out.println("Rendu de la page home.html");
             return "home";
         } catch (Exception e) {
             // Gestion des erreurs globale
-            System.err.println("Erreur dans la page d'accueil: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Erreur dans la page d'accueil", e);
             
             // En cas d'erreur critique, invalider la session et rediriger vers login
             session.invalidate();
@@ -4,6 +4,7 @@ import com.carrental.client.model.Location;
 import com.carrental.client.model.Personne;
 import com.carrental.client.model.Voiture;
 import com.carrental.client.service.LocationService;
+import com.carrental.client.service.VoitureHoldService;
 import com.carrental.client.service.VoitureService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -43,16 +44,24 @@ public class LocationController {
      */
     private final VoitureService voitureService;
 
+    /**
+     * Service des blocages temporaires posés à l'ouverture du formulaire
+     */
+    private final VoitureHoldService voitureHoldService;
+
     /**
      * Constructeur avec injection des dépendances
      * 
      * @param locationService Service pour les opérations liées aux locations
      * @param voitureService Service pour les opérations liées aux voitures
+     * @param voitureHoldService Service des blocages temporaires de voitures
      */
     @Autowired
-    public LocationController(LocationService locationService, VoitureService voitureService) {
+    public LocationController(LocationService locationService, VoitureService voitureService,
+                              VoitureHoldService voitureHoldService) {
         this.locationService = locationService;
         this.voitureService = voitureService;
+        this.voitureHoldService = voitureHoldService;
     }
 
     /**
@@ -175,15 +184,18 @@ public class LocationController {
 
     /**
      * Affiche le formulaire de création d'une nouvelle location pour une voiture spécifique.
-     * Vérifie d'abord que la voiture existe et est disponible.
+     * Vérifie d'abord que la voiture existe et est disponible, puis la bloque
+     * pour l'utilisateur pendant la saisie du formulaire.
      * 
      * @param mat Immatriculation de la voiture à louer
      * @param model Le modèle Spring MVC
      * @param session La session HTTP
+     * @param redirectAttributes Pour passer des messages lors de la redirection
      * @return Nom de la vue à afficher ou redirection
      */
     @GetMapping("/new/{mat}")
-    public String showLocationForm(@PathVariable String mat, Model model, HttpSession session) {
+    public String showLocationForm(@PathVariable String mat, Model model, HttpSession session,
+                                   RedirectAttributes redirectAttributes) {
         // Vérification de sécurité: l'utilisateur doit être connecté
         if (session.getAttribute("user") == null) {
             return "redirect:/login";
@@ -201,8 +213,16 @@ public class LocationController {
                 return "redirect:/voitures";
             }
             
+            // Bloquer la voiture pour cet utilisateur pendant la saisie du formulaire
+            Personne personne = (Personne) session.getAttribute("user");
+            if (!voitureHoldService.placer(mat, personne.getId())) {
+                redirectAttributes.addFlashAttribute("error", "Cette voiture est en cours de réservation par un autre client");
+                return "redirect:/voitures";
+            }
+            
             // Préparer les données pour le formulaire
             model.addAttribute("voiture", voiture);
+            model.addAttribute("dureeBlocage", voitureHoldService.getDureeMinutes());
             model.addAttribute("location", new Location());  // Objet vide pour binding du formulaire
             
             return "locations/form";
@@ -1,19 +1,43 @@
 package com.carrental.client.controller;
 
+import com.carrental.client.model.CalendrierVoiture;
 import com.carrental.client.model.Personne;
+import com.carrental.client.model.RetourPrevu;
+import com.carrental.client.model.Suggestion;
 import com.carrental.client.model.Voiture;
+import com.carrental.client.service.AutocompletionService;
+import com.carrental.client.service.CatalogueService;
+import com.carrental.client.service.CatalogueTriService;
+import com.carrental.client.service.DisponibiliteService;
+import com.carrental.client.service.FacetteService;
+import com.carrental.client.service.FiltreCatalogueService;
+import com.carrental.client.service.RechercheService;
+import com.carrental.client.service.RecommandationService;
+import com.carrental.client.service.RetourPrevuService;
 import com.carrental.client.service.VoitureService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 import javax.servlet.http.HttpSession;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * Contrôleur gérant l'affichage et le filtrage des voitures.
@@ -36,33 +60,108 @@ public class VoitureController {
     private final VoitureService voitureService;
 
     /**
-     * Constructeur avec injection de dépendance
+     * Moteur de disponibilité par période
+     */
+    private final DisponibiliteService disponibiliteService;
+
+    /**
+     * Copie en mémoire du catalogue
+     */
+    private final CatalogueService catalogueService;
+
+    /**
+     * Recherche globale (index inversé en mémoire)
+     */
+    private final RechercheService rechercheService;
+
+    /**
+     * Compteurs de la barre de filtres (facettes)
+     */
+    private final FacetteService facetteService;
+
+    /**
+     * Autocomplétion des marques et modèles (trie en mémoire)
+     */
+    private final AutocompletionService autocompletionService;
+
+    /**
+     * Vues triées du catalogue (prix, popularité, places)
+     */
+    private final CatalogueTriService catalogueTriService;
+
+    /**
+     * Recommandations de voitures similaires (table précalculée)
+     */
+    private final RecommandationService recommandationService;
+
+    /**
+     * File des retours prévus des locations en cours
+     */
+    private final RetourPrevuService retourPrevuService;
+
+    /**
+     * Filtrage multicritère sur la copie en colonnes du catalogue
+     */
+    private final FiltreCatalogueService filtreCatalogueService;
+
+    /**
+     * Constructeur avec injection des dépendances
      * 
      * @param voitureService Service pour accéder aux données des voitures
+     * @param disponibiliteService Moteur de disponibilité par période
+     * @param catalogueService Copie en mémoire du catalogue
+     * @param rechercheService Service de recherche globale
+     * @param facetteService Service de calcul des facettes
+     * @param autocompletionService Service d'autocomplétion des marques et modèles
+     * @param catalogueTriService Vues triées du catalogue
+     * @param recommandationService Service de recommandation de voitures similaires
+     * @param retourPrevuService File des retours prévus
+     * @param filtreCatalogueService Service de filtrage multicritère
      */
     @Autowired
-    public VoitureController(VoitureService voitureService) {
+    public VoitureController(VoitureService voitureService, DisponibiliteService disponibiliteService,
+                             CatalogueService catalogueService, RechercheService rechercheService,
+                             FacetteService facetteService, AutocompletionService autocompletionService,
+                             CatalogueTriService catalogueTriService, RecommandationService recommandationService,
+                             RetourPrevuService retourPrevuService, FiltreCatalogueService filtreCatalogueService) {
         this.voitureService = voitureService;
+        this.disponibiliteService = disponibiliteService;
+        this.catalogueService = catalogueService;
+        this.rechercheService = rechercheService;
+        this.facetteService = facetteService;
+        this.autocompletionService = autocompletionService;
+        this.catalogueTriService = catalogueTriService;
+        this.recommandationService = recommandationService;
+        this.retourPrevuService = retourPrevuService;
+        this.filtreCatalogueService = filtreCatalogueService;
     }
 
     /**
      * Affiche la liste de toutes les voitures disponibles et louées
      * (exclut automatiquement les voitures en panne).
      * 
+     * @param tri Tri demandé: prix, prix-desc, popularite ou places (optionnel)
      * @param model Le modèle Spring MVC
      * @param session La session HTTP
      * @return Nom de la vue à afficher
      */
     @GetMapping
-    public String getAllVoitures(Model model, HttpSession session) {
+    public String getAllVoitures(@RequestParam(required = false) String tri, Model model, HttpSession session) {
         // Vérification de sécurité: l'utilisateur doit être connecté
         if (session.getAttribute("user") == null) {
             return "redirect:/login";
         }
         
-        // Récupérer toutes les voitures disponibles (pas en panne)
-        List<Voiture> voitures = voitureService.getAllAvailableVoitures();
+        // Récupérer toutes les voitures disponibles (pas en panne), triées depuis les vues en mémoire si demandé
+        List<Voiture> voitures = trier(tri, v -> true);
+        if (voitures == null) {
+            voitures = voitureService.getAllAvailableVoitures();
+        }
         model.addAttribute("voitures", voitures);
+        model.addAttribute("tri", tri);
+        
+        // Compteurs de la barre de filtres, calculés en mémoire
+        model.addAttribute("facettes", facetteService.calculer(null, 0, 0, null));
         
         return "voitures/list";
     }
@@ -111,6 +210,35 @@ public class VoitureController {
         return "voitures/list";
     }
 
+    /**
+     * Affiche les voitures louées qui seront bientôt rendues, de la plus proche
+     * à la plus lointaine date de retour prévue. La liste est lue dans la file
+     * des retours prévus en mémoire, sans parcourir la table location.
+     * 
+     * @param model Le modèle Spring MVC
+     * @param session La session HTTP
+     * @return Nom de la vue à afficher
+     */
+    @GetMapping("/bientot-disponibles")
+    public String getVoituresBientotDisponibles(Model model, HttpSession session) {
+        // Vérification de sécurité: l'utilisateur doit être connecté
+        if (session.getAttribute("user") == null) {
+            return "redirect:/login";
+        }
+        
+        List<Voiture> voitures = new ArrayList<>();
+        Map<String, RetourPrevu> retoursPrevus = new LinkedHashMap<>();
+        for (RetourPrevu retour : retourPrevuService.getProchainsRetours(30)) {
+            voitures.add(retour.getVoiture());
+            retoursPrevus.put(retour.getVoiture().getMat(), retour);
+        }
+        model.addAttribute("voitures", voitures);
+        model.addAttribute("retoursPrevus", retoursPrevus);
+        model.addAttribute("filtreActif", "bientot");
+        
+        return "voitures/list";
+    }
+
     /**
      * Affiche les voitures les plus populaires/demandées.
      * 
@@ -134,14 +262,22 @@ public class VoitureController {
     }
 
     /**
-     * Permet de filtrer les voitures selon différents critères:
+     * Permet de filtrer les voitures selon différents critères, combinés entre eux:
      * - Par marque (recherche partielle)
      * - Par nombre de places
      * - Par prix maximum
+     * - Par état (disponible ou louée)
+     * 
+     * Les critères sont combinés par des ET entre les bitmaps de la copie en colonnes
+     * du catalogue (FiltreCatalogueService). Tant que le catalogue n'est pas chargé,
+     * un seul critère est appliqué en base (priorité: marque > nbplace > prixMax),
+     * puis l'état sur la liste retournée.
      * 
      * @param marque Marque à rechercher (optionnel)
      * @param nbplace Nombre de places (optionnel)
      * @param prixMax Prix maximum (optionnel)
+     * @param disp État de la voiture: DISPONIBLE ou LOUEE (optionnel)
+     * @param tri Tri demandé: prix, prix-desc, popularite ou places (optionnel)
      * @param model Le modèle Spring MVC
      * @param session La session HTTP
      * @return Nom de la vue à afficher
@@ -151,6 +287,8 @@ public class VoitureController {
             @RequestParam(required = false) String marque, 
             @RequestParam(required = false, defaultValue = "0") int nbplace,
             @RequestParam(required = false, defaultValue = "0") double prixMax,
+            @RequestParam(required = false) String disp,
+            @RequestParam(required = false) String tri,
             Model model, HttpSession session) {
         
         // Vérification de sécurité: l'utilisateur doit être connecté
@@ -158,34 +296,226 @@ public class VoitureController {
             return "redirect:/login";
         }
         
-        List<Voiture> voitures;
-        
-        // Application sélective des filtres en fonction des paramètres fournis
-        // Priorité: marque > nbplace > prixMax
+        // Filtre affiché dans la vue: le premier critère fourni (priorité: marque > nbplace > prixMax)
         if (marque != null && !marque.isEmpty()) {
-            // Filtrage par marque (recherche partielle)
-            voitures = voitureService.filterByMarque(marque);
             model.addAttribute("filtreActif", "marque");
             model.addAttribute("filtreValeur", marque);
         } else if (nbplace > 0) {
-            // Filtrage par nombre de places
-            voitures = voitureService.filterByNbPlace(nbplace);
             model.addAttribute("filtreActif", "nbplace");
             model.addAttribute("filtreValeur", nbplace);
         } else if (prixMax > 0) {
-            // Filtrage par prix maximum
-            voitures = voitureService.filterByPrixMax(prixMax);
             model.addAttribute("filtreActif", "prixMax");
             model.addAttribute("filtreValeur", prixMax);
+        }
+        
+        List<Voiture> voitures;
+        boolean enMemoire = filtreCatalogueService.isPret();
+        if (enMemoire) {
+            // Tous les critères combinés en mémoire, sans requête vers la base de données
+            voitures = filtreCatalogueService.filtrer(marque, nbplace, prixMax, disp);
+            
+            // Tri demandé: la liste est relue depuis les vues triées en mémoire
+            Set<String> retenues = voitures.stream().map(Voiture::getMat).collect(Collectors.toSet());
+            List<Voiture> triees = trier(tri, v -> retenues.contains(v.getMat()));
+            if (triees != null) {
+                voitures = triees;
+            }
+        } else if (marque != null && !marque.isEmpty()) {
+            // Filtrage par marque (recherche partielle)
+            voitures = voitureService.filterByMarque(marque);
+        } else if (nbplace > 0) {
+            // Filtrage par nombre de places
+            voitures = voitureService.filterByNbPlace(nbplace);
+        } else if (prixMax > 0) {
+            // Filtrage par prix maximum
+            voitures = voitureService.filterByPrixMax(prixMax);
+        } else if ("DISPONIBLE".equals(disp)) {
+            voitures = voitureService.getVoituresDisponibles();
+        } else if ("LOUEE".equals(disp)) {
+            voitures = voitureService.getVoituresLouees();
         } else {
             // Si aucun filtre n'est spécifié, afficher toutes les voitures
             voitures = voitureService.getAllAvailableVoitures();
         }
+        if (!enMemoire && disp != null && !disp.isEmpty()) {
+            // L'état s'ajoute au critère appliqué en base
+            voitures = voitures.stream().filter(v -> disp.equals(v.getDisp())).collect(Collectors.toList());
+        }
         
         model.addAttribute("voitures", voitures);
+        model.addAttribute("facettes", facetteService.calculer(marque, nbplace, prixMax, disp));
+        model.addAttribute("tri", tri);
         return "voitures/list";
     }
 
+    /**
+     * Lit le catalogue trié depuis les vues en mémoire.
+     * 
+     * @param tri Tri demandé: prix, prix-desc, popularite ou places
+     * @param filtre Voitures à garder (les voitures en panne sont toujours exclues)
+     * @return Voitures triées, ou null si aucun tri reconnu n'est demandé ou si le catalogue
+     *         n'est pas encore chargé (vues vides: l'appelant garde sa liste lue en base)
+     */
+    private List<Voiture> trier(String tri, Predicate<Voiture> filtre) {
+        if (tri == null || !catalogueService.isCharge()) {
+            return null;
+        }
+        Predicate<Voiture> visibles = filtre.and(v -> !"PANNE".equals(v.getDisp()));
+        switch (tri) {
+            case "prix":
+                return catalogueTriService.getPage(CatalogueTriService.CleTri.PRIX, true, visibles, 0, Integer.MAX_VALUE);
+            case "prix-desc":
+                return catalogueTriService.getPage(CatalogueTriService.CleTri.PRIX, false, visibles, 0, Integer.MAX_VALUE);
+            case "popularite":
+                return catalogueTriService.getPage(CatalogueTriService.CleTri.POPULARITE, false, visibles, 0, Integer.MAX_VALUE);
+            case "places":
+                return catalogueTriService.getPage(CatalogueTriService.CleTri.PLACES, false, visibles, 0, Integer.MAX_VALUE);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Recherche globale dans le catalogue (marque, modèle, places, immatriculation).
+     * Les résultats sont classés par pertinence puis par popularité et servis
+     * depuis l'index en mémoire, sans requête vers la base de données.
+     * 
+     * @param q Texte de la recherche (plusieurs mots et débuts de mots acceptés)
+     * @param model Le modèle Spring MVC
+     * @param session La session HTTP
+     * @return Nom de la vue à afficher
+     */
+    @GetMapping("/recherche")
+    public String rechercher(@RequestParam(required = false, defaultValue = "") String q,
+                             Model model, HttpSession session) {
+        
+        // Vérification de sécurité: l'utilisateur doit être connecté
+        if (session.getAttribute("user") == null) {
+            return "redirect:/login";
+        }
+        
+        List<Voiture> voitures = new ArrayList<>();
+        for (String mat : rechercheService.rechercher(q, 100)) {
+            catalogueService.findByMat(mat).ifPresent(voitures::add);
+        }
+        
+        model.addAttribute("voitures", voitures);
+        model.addAttribute("filtreActif", "recherche");
+        model.addAttribute("filtreValeur", q);
+        return "voitures/list";
+    }
+
+    /**
+     * Retourne (en JSON) les suggestions de marques et modèles pour une saisie partielle.
+     * Appelée à chaque frappe dans le filtre par marque: les suggestions sont servies
+     * par le trie en mémoire et tolèrent une faute de frappe.
+     * 
+     * @param q Texte saisi
+     * @param limite Nombre maximal de suggestions (8 par défaut)
+     * @param session La session HTTP
+     * @return Suggestions, ou 401 si l'utilisateur n'est pas connecté
+     */
+    @GetMapping("/autocompletion")
+    @ResponseBody
+    public ResponseEntity<List<Suggestion>> autocompleter(
+            @RequestParam(required = false, defaultValue = "") String q,
+            @RequestParam(required = false, defaultValue = "8") int limite,
+            HttpSession session) {
+        
+        // Vérification de sécurité: l'utilisateur doit être connecté
+        if (session.getAttribute("user") == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        return ResponseEntity.ok(autocompletionService.suggerer(q, limite));
+    }
+
+    /**
+     * Affiche les voitures libres sur toute une période (par exemple du 10 au 17).
+     * La disponibilité est calculée par l'index en mémoire des périodes réservées.
+     * Période incohérente ou index pas encore construit: message d'erreur et liste vide.
+     * 
+     * @param debut Premier jour de la période
+     * @param fin Dernier jour de la période (inclus)
+     * @param model Le modèle Spring MVC
+     * @param session La session HTTP
+     * @return Nom de la vue à afficher
+     */
+    @GetMapping("/periode")
+    public String getVoituresLibresSurPeriode(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate debut,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate fin,
+            Model model, HttpSession session) {
+        
+        // Vérification de sécurité: l'utilisateur doit être connecté
+        if (session.getAttribute("user") == null) {
+            return "redirect:/login";
+        }
+        
+        // Jamais de repli sur la liste complète: elle présenterait des voitures réservées comme libres
+        List<Voiture> voitures = new ArrayList<>();
+        if (fin.isBefore(debut)) {
+            model.addAttribute("error", "La date de fin doit être égale ou postérieure à la date de début");
+        } else if (!disponibiliteService.isPret() || !catalogueService.isCharge()) {
+            model.addAttribute("error", "La recherche par période est en préparation, veuillez réessayer dans quelques instants");
+        } else {
+            // Voitures sans location chevauchant la période, lues dans la copie en mémoire du catalogue
+            for (String mat : disponibiliteService.getVoituresLibres(debut, fin)) {
+                catalogueService.findByMat(mat)
+                        .filter(v -> !"PANNE".equals(v.getDisp()))
+                        .ifPresent(voitures::add);
+            }
+        }
+        
+        model.addAttribute("voitures", voitures);
+        model.addAttribute("filtreActif", "periode");
+        model.addAttribute("filtreValeur", debut + " → " + fin);
+        return "voitures/list";
+    }
+
+    /**
+     * Retourne (en JSON) le calendrier de réservation d'une voiture: pour chaque jour de la
+     * fenêtre, s'il est réservé ou libre. Calculé à partir de l'index en mémoire des périodes
+     * de location, sans requête vers la base de données.
+     * 
+     * @param mat Immatriculation de la voiture
+     * @param mois Premier mois de la fenêtre (format yyyy-MM, mois courant par défaut)
+     * @param nbMois Nombre de mois de la fenêtre (entre 1 et 6, 1 par défaut)
+     * @param session La session HTTP
+     * @return Calendrier de la voiture, 401 si l'utilisateur n'est pas connecté, 404 si la voiture
+     *         n'existe pas, ou 503 tant que l'index de disponibilité est en construction
+     */
+    @GetMapping("/{mat}/calendrier")
+    @ResponseBody
+    public ResponseEntity<CalendrierVoiture> getCalendrier(
+            @PathVariable String mat,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth mois,
+            @RequestParam(required = false, defaultValue = "1") int nbMois,
+            HttpSession session) {
+        
+        // Vérification de sécurité: l'utilisateur doit être connecté
+        if (session.getAttribute("user") == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        // Index pas encore construit: tous les jours paraîtraient libres
+        if (!disponibiliteService.isPret()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        
+        // Voiture inconnue (depuis le catalogue en mémoire, ou la base s'il n'est pas encore chargé)
+        Optional<Voiture> voiture = catalogueService.isCharge()
+                ? catalogueService.findByMat(mat)
+                : voitureService.findByMat(mat);
+        if (voiture.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        YearMonth premierMois = mois != null ? mois : YearMonth.now();
+        int fenetre = Math.max(1, Math.min(6, nbMois));
+        return ResponseEntity.ok(disponibiliteService.getCalendrier(mat, premierMois.atDay(1), fenetre));
+    }
+
     /**
      * Affiche les détails d'une voiture spécifique identifiée par son immatriculation.
      * Vérifie également que la voiture n'est pas en panne avant d'afficher ses détails.
@@ -220,6 +550,9 @@ public class VoitureController {
             // (utilisé dans la vue pour afficher ou non le bouton de location)
             model.addAttribute("disponible", "DISPONIBLE".equals(voiture.getDisp()));
             
+            // Voitures similaires, lues dans la table précalculée en mémoire
+            model.addAttribute("similaires", recommandationService.getSimilaires(mat, 3));
+            
             return "voitures/details";
         } else {
             // Si la voiture n'existe pas, rediriger vers la liste complète
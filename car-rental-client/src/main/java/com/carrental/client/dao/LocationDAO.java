@@ -1,11 +1,14 @@
 package com.carrental.client.dao;
 
 import com.carrental.client.model.Location;
+import com.carrental.client.monitoring.EtapeLocationEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
@@ -46,8 +49,9 @@ public class LocationDAO {
     /**
      * RowMapper pour convertir les résultats SQL en objets Location.
      * Mappe chaque colonne de la table location aux propriétés de l'objet Location.
+     * Visible dans le package pour les benchmarks (RowMapperBenchmark).
      */
-    private static final class LocationRowMapper implements RowMapper<Location> {
+    static final class LocationRowMapper implements RowMapper<Location> {
         @Override
         public Location mapRow(ResultSet rs, int rowNum) throws SQLException {
             Location location = new Location();
@@ -132,11 +136,25 @@ public class LocationDAO {
     /**
      * Crée une nouvelle location dans la base de données.
      * Met également à jour l'état de la voiture associée.
+     * La voiture est d'abord réservée par une mise à jour conditionnelle
+     * (DISPONIBLE → LOUEE), ce qui protège contre les réservations concurrentes
+     * venant d'autres nœuds de l'application.
      * 
      * @param location Objet Location à enregistrer
      * @return ID généré pour la nouvelle location
+     * @throws IllegalArgumentException si la voiture n'est plus disponible
      */
     public Long save(Location location) {
+        // Garde base de données: réserver la voiture seulement si elle est encore disponible
+        EtapeLocationEvent etape = EtapeLocationEvent.debut(EtapeLocationEvent.CREATION, "statut-voiture", location.getMat());
+        boolean reservee = voitureDAO.updateDispIfCurrent(location.getMat(), "DISPONIBLE", "LOUEE");
+        etape.terminer(reservee);
+        if (!reservee) {
+            throw new IllegalArgumentException("Cette voiture n'est pas disponible");
+        }
+
+        etape = EtapeLocationEvent.debut(EtapeLocationEvent.CREATION, "insertion", location.getMat());
+
         // Requête SQL d'insertion avec séquence Oracle pour l'ID
         String sql = "INSERT INTO location (id_location, id_personne, mat, dteDeb, duree, cheque, etat) " +
                      "VALUES (seq_location.NEXTVAL, ?, ?, ?, ?, ?, ?)";
@@ -150,31 +168,80 @@ public class LocationDAO {
                 location.getCheque(),
                 location.getEtat());
         
-        // Effet secondaire: mise à jour de l'état de la voiture à LOUEE
-        voitureDAO.updateDisp(location.getMat(), "LOUEE");
-        
         // Récupération de l'ID généré par la séquence Oracle
         String idSql = "SELECT seq_location.CURRVAL FROM dual";
-        return jdbcTemplate.queryForObject(idSql, Long.class);
+        Long id = jdbcTemplate.queryForObject(idSql, Long.class);
+        etape.terminer();
+        return id;
     }
 
     /**
      * Termine une location existante (change son état à TERMINEE).
      * Met également à jour l'état de la voiture associée à DISPONIBLE.
+     * Une location qui n'est plus EN_COURS n'est pas modifiée, et la voiture non plus
+     * (elle a pu être relouée depuis).
      * 
      * @param id_location ID de la location à terminer
+     * @return true si la location a été terminée, false si elle n'était plus en cours
      */
-    public void terminerLocation(Long id_location) {
+    public boolean terminerLocation(Long id_location) {
         // 1. Récupération de l'immatriculation de la voiture associée à la location
+        EtapeLocationEvent etape = EtapeLocationEvent.debut(EtapeLocationEvent.RETOUR, "cloture", null);
         String sql = "SELECT mat FROM location WHERE id_location = ?";
         String mat = jdbcTemplate.queryForObject(sql, String.class, id_location);
+        etape.setMat(mat);
         
-        // 2. Mise à jour de l'état de la location à TERMINEE
-        String updateSql = "UPDATE location SET etat = 'TERMINEE' WHERE id_location = ?";
-        jdbcTemplate.update(updateSql, id_location);
+        // 2. Mise à jour de l'état de la location à TERMINEE (seulement si elle est encore en cours)
+        String updateSql = "UPDATE location SET etat = 'TERMINEE' WHERE id_location = ? AND etat = 'EN_COURS'";
+        boolean terminee = jdbcTemplate.update(updateSql, id_location) == 1;
+        etape.terminer(terminee);
+        if (!terminee) {
+            return false;
+        }
         
         // 3. Mise à jour de l'état de la voiture à DISPONIBLE
+        etape = EtapeLocationEvent.debut(EtapeLocationEvent.RETOUR, "statut-voiture", mat);
         voitureDAO.updateDisp(mat, "DISPONIBLE");
+        etape.terminer();
+        return true;
+    }
+
+    /**
+     * Parcourt les périodes de toutes les locations (actives et terminées) sans créer
+     * d'objets Location. Utilisée pour construire les index de disponibilité en mémoire;
+     * les lignes sont lues par paquets pour supporter de gros historiques.
+     * 
+     * @param handler Appelé pour chaque location avec sa voiture, sa date de début, sa durée et son état
+     */
+    public void forEachPeriode(PeriodeHandler handler) {
+        parcourirPeriodes("SELECT mat, dteDeb, duree, etat FROM location", handler);
+    }
+
+    /**
+     * Parcourt les périodes des seules locations EN_COURS (index idx_location_etat), sans
+     * lire l'historique des locations terminées.
+     * 
+     * @param handler Appelé pour chaque location en cours avec sa voiture, sa date de début, sa durée et son état
+     */
+    public void forEachPeriodeEnCours(PeriodeHandler handler) {
+        parcourirPeriodes("SELECT mat, dteDeb, duree, etat FROM location WHERE etat = 'EN_COURS'", handler);
+    }
+
+    private void parcourirPeriodes(String sql, PeriodeHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(1000);
+            return ps;
+        }, (RowCallbackHandler) rs -> handler.handle(
+                rs.getString(1), rs.getDate(2), rs.getInt(3), rs.getString(4)));
+    }
+
+    /**
+     * Traitement d'une période de location lue par forEachPeriode.
+     */
+    @FunctionalInterface
+    public interface PeriodeHandler {
+        void handle(String mat, java.sql.Date dteDeb, int duree, String etat);
     }
 
     /**
@@ -2,13 +2,17 @@ package com.carrental.client.dao;
 
 import com.carrental.client.model.Personne;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.BatchUpdateException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -43,8 +47,9 @@ public class PersonneDAO {
      * Classe interne qui implémente RowMapper pour convertir les résultats SQL en objets Personne.
      * Cette classe est utilisée par JdbcTemplate pour transformer chaque ligne retournée
      * par une requête SQL en un objet Java Personne.
+     * Visible dans le package pour les benchmarks (RowMapperBenchmark).
      */
-    private static final class PersonneRowMapper implements RowMapper<Personne> {
+    static final class PersonneRowMapper implements RowMapper<Personne> {
         @Override
         public Personne mapRow(ResultSet rs, int rowNum) throws SQLException {
             // Création d'un nouvel objet Personne
@@ -168,6 +173,42 @@ public class PersonneDAO {
                  personne.getId());
     }
 
+    /**
+     * Incrémente de façon atomique le compteur de locations d'un utilisateur.
+     * Seule la colonne nbloc est écrite, sans relire la personne.
+     * 
+     * @param id Identifiant de l'utilisateur
+     * @param delta Nombre de locations à ajouter
+     */
+    public void incrementNbloc(Long id, int delta) {
+        String sql = "UPDATE personne SET nbloc = nbloc + ? WHERE id = ?";
+        jdbcTemplate.update(sql, delta, id);
+    }
+
+    /**
+     * Applique en un seul aller-retour (batch JDBC) plusieurs incréments du compteur de locations.
+     * Les commandes du batch suivent l'ordre d'itération de la table. En cas d'échec, la
+     * BatchUpdateException est conservée comme cause de l'exception levée: ses compteurs de mise
+     * à jour indiquent les incréments écrits (la traduction habituelle de Spring ne les garde pas).
+     * 
+     * @param deltas Incréments à appliquer, indexés par identifiant d'utilisateur
+     */
+    public void incrementNblocBatch(Map<Long, Integer> deltas) {
+        String sql = "UPDATE personne SET nbloc = nbloc + ? WHERE id = ?";
+        jdbcTemplate.execute(sql, (PreparedStatementCallback<int[]>) ps -> {
+            for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+                ps.setInt(1, entry.getValue());
+                ps.setLong(2, entry.getKey());
+                ps.addBatch();
+            }
+            try {
+                return ps.executeBatch();
+            } catch (BatchUpdateException e) {
+                throw new UncategorizedSQLException("incrementNblocBatch", sql, e);
+            }
+        });
+    }
+
     /**
      * Vérifie si un login est déjà utilisé par un autre utilisateur.
      * 
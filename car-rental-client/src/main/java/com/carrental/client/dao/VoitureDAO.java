@@ -2,13 +2,17 @@ package com.carrental.client.dao;
 
 import com.carrental.client.model.Voiture;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.BatchUpdateException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -37,8 +41,9 @@ public class VoitureDAO {
     /**
      * RowMapper pour convertir les résultats de requêtes SQL en objets Voiture.
      * Mappe chaque colonne de la table voiture aux propriétés de l'objet Voiture.
+     * Visible dans le package pour les benchmarks (RowMapperBenchmark).
      */
-    private static final class VoitureRowMapper implements RowMapper<Voiture> {
+    static final class VoitureRowMapper implements RowMapper<Voiture> {
         @Override
         public Voiture mapRow(ResultSet rs, int rowNum) throws SQLException {
             // Création et hydratation d'un nouvel objet Voiture
@@ -55,6 +60,17 @@ public class VoitureDAO {
         }
     }
 
+    /**
+     * Récupère toutes les voitures, y compris celles en panne.
+     * Utilisée pour construire la copie en mémoire du catalogue.
+     * 
+     * @return Liste de toutes les voitures
+     */
+    public List<Voiture> findAll() {
+        String sql = "SELECT * FROM voiture";
+        return jdbcTemplate.query(sql, new VoitureRowMapper());
+    }
+
     /**
      * Récupère toutes les voitures qui ne sont pas en panne.
      * Utilisée pour afficher les voitures aux clients (qui ne devraient pas voir les voitures en panne).
@@ -112,6 +128,56 @@ public class VoitureDAO {
         jdbcTemplate.update(sql, disp, mat);
     }
 
+    /**
+     * Met à jour l'état d'une voiture uniquement si elle est encore dans l'état attendu.
+     * Sert de garde au niveau base de données: si deux nœuds tentent de louer la même
+     * voiture, une seule mise à jour affecte une ligne.
+     * 
+     * @param mat Immatriculation de la voiture à mettre à jour
+     * @param dispAttendu État attendu avant la mise à jour (ex: DISPONIBLE)
+     * @param nouvelleDisp Nouvel état (ex: LOUEE)
+     * @return true si la voiture était dans l'état attendu et a été mise à jour, false sinon
+     */
+    public boolean updateDispIfCurrent(String mat, String dispAttendu, String nouvelleDisp) {
+        String sql = "UPDATE voiture SET disp = ? WHERE mat = ? AND disp = ?";
+        return jdbcTemplate.update(sql, nouvelleDisp, mat, dispAttendu) == 1;
+    }
+
+    /**
+     * Incrémente de façon atomique le nombre de locations d'une voiture.
+     * 
+     * @param mat Immatriculation de la voiture
+     * @param delta Nombre de locations à ajouter
+     */
+    public void incrementNbloc(String mat, int delta) {
+        String sql = "UPDATE voiture SET nbloc = nbloc + ? WHERE mat = ?";
+        jdbcTemplate.update(sql, delta, mat);
+    }
+
+    /**
+     * Applique en un seul aller-retour (batch JDBC) plusieurs incréments du nombre de locations.
+     * Les commandes du batch suivent l'ordre d'itération de la table. En cas d'échec, la
+     * BatchUpdateException est conservée comme cause de l'exception levée: ses compteurs de mise
+     * à jour indiquent les incréments écrits (la traduction habituelle de Spring ne les garde pas).
+     * 
+     * @param deltas Incréments à appliquer, indexés par immatriculation
+     */
+    public void incrementNblocBatch(Map<String, Integer> deltas) {
+        String sql = "UPDATE voiture SET nbloc = nbloc + ? WHERE mat = ?";
+        jdbcTemplate.execute(sql, (PreparedStatementCallback<int[]>) ps -> {
+            for (Map.Entry<String, Integer> entry : deltas.entrySet()) {
+                ps.setInt(1, entry.getValue());
+                ps.setString(2, entry.getKey());
+                ps.addBatch();
+            }
+            try {
+                return ps.executeBatch();
+            } catch (BatchUpdateException e) {
+                throw new UncategorizedSQLException("incrementNblocBatch", sql, e);
+            }
+        });
+    }
+
     /**
      * Recherche les trois voitures les plus louées.
      * Utilise une requête SQL complexe avec jointure pour calculer le nombre
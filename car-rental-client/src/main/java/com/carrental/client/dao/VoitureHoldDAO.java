@@ -0,0 +1,104 @@
+package com.carrental.client.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+
+/**
+ * Classe d'accès aux données pour les blocages temporaires de voitures (table voiture_hold).
+ * Un blocage est posé lorsqu'un client ouvre le formulaire de location: la voiture
+ * lui est réservée pendant quelques minutes. Une seule ligne par voiture (clé primaire mat),
+ * ce qui rend le blocage sûr entre plusieurs nœuds de l'application.
+ */
+@Repository
+public class VoitureHoldDAO {
+
+    /** JdbcTemplate pour l'exécution des requêtes SQL */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructeur avec injection de dépendance de JdbcTemplate.
+     *
+     * @param jdbcTemplate Instance de JdbcTemplate configurée par Spring
+     */
+    @Autowired
+    public VoitureHoldDAO(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Pose ou prolonge le blocage d'une voiture pour une personne.
+     * Réussit si la voiture n'est pas bloquée, si le blocage existant a expiré
+     * ou s'il appartient déjà à cette personne.
+     *
+     * @param mat Immatriculation de la voiture
+     * @param id_personne ID de la personne qui bloque la voiture
+     * @param maintenant Instant courant
+     * @param expireLe Instant d'expiration du blocage
+     * @return true si le blocage est acquis, false si un autre client détient déjà la voiture
+     */
+    public boolean acquire(String mat, Long id_personne, Timestamp maintenant, Timestamp expireLe) {
+        // 1. Reprise d'un blocage existant (expiré ou appartenant déjà à la personne)
+        String updateSql = "UPDATE voiture_hold SET id_personne = ?, expire_le = ? " +
+                           "WHERE mat = ? AND (id_personne = ? OR expire_le <= ?)";
+        if (jdbcTemplate.update(updateSql, id_personne, expireLe, mat, id_personne, maintenant) == 1) {
+            return true;
+        }
+
+        // 2. Aucun blocage: création de la ligne (la clé primaire arbitre entre les nœuds)
+        String insertSql = "INSERT INTO voiture_hold (mat, id_personne, expire_le) VALUES (?, ?, ?)";
+        try {
+            jdbcTemplate.update(insertSql, mat, id_personne, expireLe);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Un autre client a bloqué la voiture entre-temps
+            return false;
+        }
+    }
+
+    /**
+     * Vérifie si une voiture est bloquée par un autre client que la personne donnée.
+     *
+     * @param mat Immatriculation de la voiture
+     * @param id_personne ID de la personne (null: tout blocage actif compte)
+     * @param maintenant Instant courant
+     * @return true si un blocage actif appartient à un autre client
+     */
+    public boolean isHeldByOther(String mat, Long id_personne, Timestamp maintenant) {
+        Integer count;
+        if (id_personne == null) {
+            String sql = "SELECT COUNT(*) FROM voiture_hold WHERE mat = ? AND expire_le > ?";
+            count = jdbcTemplate.queryForObject(sql, Integer.class, mat, maintenant);
+        } else {
+            String sql = "SELECT COUNT(*) FROM voiture_hold WHERE mat = ? AND expire_le > ? AND id_personne <> ?";
+            count = jdbcTemplate.queryForObject(sql, Integer.class, mat, maintenant, id_personne);
+        }
+        return count != null && count > 0;
+    }
+
+    /**
+     * Supprime le blocage d'une voiture s'il appartient à la personne donnée.
+     *
+     * @param mat Immatriculation de la voiture
+     * @param id_personne ID de la personne qui détient le blocage
+     */
+    public void release(String mat, Long id_personne) {
+        String sql = "DELETE FROM voiture_hold WHERE mat = ? AND id_personne = ?";
+        jdbcTemplate.update(sql, mat, id_personne);
+    }
+
+    /**
+     * Supprime les blocages d'une personne sur toutes les autres voitures
+     * (un client ne détient qu'un seul blocage à la fois).
+     *
+     * @param id_personne ID de la personne
+     * @param mat Immatriculation de la voiture dont le blocage est conservé
+     */
+    public void releaseOthers(Long id_personne, String mat) {
+        String sql = "DELETE FROM voiture_hold WHERE id_personne = ? AND mat <> ?";
+        jdbcTemplate.update(sql, id_personne, mat);
+    }
+}
@@ -0,0 +1,71 @@
+package com.carrental.client.model;
+
+import java.time.LocalDate;
+
+/**
+ * Calendrier de réservation d'une voiture sur une fenêtre de jours consécutifs.
+ * reserves[i] indique si le jour premierJour + i est couvert par une location.
+ */
+public class CalendrierVoiture {
+    private String mat;
+    private LocalDate premierJour;
+    private LocalDate dernierJour;
+    private boolean[] reserves;
+
+    // Constructeurs
+    public CalendrierVoiture() {
+    }
+
+    public CalendrierVoiture(String mat, LocalDate premierJour, LocalDate dernierJour, boolean[] reserves) {
+        this.mat = mat;
+        this.premierJour = premierJour;
+        this.dernierJour = dernierJour;
+        this.reserves = reserves;
+    }
+
+    // Getters et Setters
+    public String getMat() {
+        return mat;
+    }
+
+    public void setMat(String mat) {
+        this.mat = mat;
+    }
+
+    public LocalDate getPremierJour() {
+        return premierJour;
+    }
+
+    public void setPremierJour(LocalDate premierJour) {
+        this.premierJour = premierJour;
+    }
+
+    public LocalDate getDernierJour() {
+        return dernierJour;
+    }
+
+    public void setDernierJour(LocalDate dernierJour) {
+        this.dernierJour = dernierJour;
+    }
+
+    public boolean[] getReserves() {
+        return reserves;
+    }
+
+    public void setReserves(boolean[] reserves) {
+        this.reserves = reserves;
+    }
+
+    // Nombre de jours réservés dans la fenêtre
+    public int getNbJoursReserves() {
+        int nb = 0;
+        if (reserves != null) {
+            for (boolean reserve : reserves) {
+                if (reserve) {
+                    nb++;
+                }
+            }
+        }
+        return nb;
+    }
+}
@@ -0,0 +1,52 @@
+package com.carrental.client.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Nombre de voitures correspondant à chaque valeur des filtres (marque, places, tranche de prix)
+ * pour le filtre courant. Affiché dans la barre latérale de la liste des voitures.
+ */
+public class Facettes {
+    private Map<String, Integer> marques = new LinkedHashMap<>();
+    private Map<Integer, Integer> places = new LinkedHashMap<>();
+    private Map<String, Integer> tranchesPrix = new LinkedHashMap<>();
+    private int total;
+
+    // Constructeurs
+    public Facettes() {
+    }
+
+    // Getters et Setters
+    public Map<String, Integer> getMarques() {
+        return marques;
+    }
+
+    public void setMarques(Map<String, Integer> marques) {
+        this.marques = marques;
+    }
+
+    public Map<Integer, Integer> getPlaces() {
+        return places;
+    }
+
+    public void setPlaces(Map<Integer, Integer> places) {
+        this.places = places;
+    }
+
+    public Map<String, Integer> getTranchesPrix() {
+        return tranchesPrix;
+    }
+
+    public void setTranchesPrix(Map<String, Integer> tranchesPrix) {
+        this.tranchesPrix = tranchesPrix;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,43 @@
+package com.carrental.client.model;
+
+import java.time.LocalDate;
+
+/**
+ * Voiture actuellement louée avec la date de retour prévue de sa location en cours
+ * (dteDeb + duree). Utilisé pour la liste "Bientôt disponibles".
+ */
+public class RetourPrevu {
+    private Voiture voiture;
+    private LocalDate dateRetour;
+
+    // Constructeurs
+    public RetourPrevu() {
+    }
+
+    public RetourPrevu(Voiture voiture, LocalDate dateRetour) {
+        this.voiture = voiture;
+        this.dateRetour = dateRetour;
+    }
+
+    // Getters et Setters
+    public Voiture getVoiture() {
+        return voiture;
+    }
+
+    public void setVoiture(Voiture voiture) {
+        this.voiture = voiture;
+    }
+
+    public LocalDate getDateRetour() {
+        return dateRetour;
+    }
+
+    public void setDateRetour(LocalDate dateRetour) {
+        this.dateRetour = dateRetour;
+    }
+
+    // Retour prévu dépassé: la voiture n'a pas encore été rendue
+    public boolean isEnRetard() {
+        return dateRetour != null && dateRetour.isBefore(LocalDate.now());
+    }
+}
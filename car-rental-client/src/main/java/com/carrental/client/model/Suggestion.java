@@ -0,0 +1,46 @@
+package com.carrental.client.model;
+
+/**
+ * Suggestion d'autocomplétion: une marque ("Renault") ou un modèle ("Renault Clio").
+ * La marque sert à remplir le filtre par marque de la liste des voitures.
+ */
+public class Suggestion {
+    private String libelle;
+    private String marque;
+    private String type;  // MARQUE, MODELE
+
+    // Constructeurs
+    public Suggestion() {
+    }
+
+    public Suggestion(String libelle, String marque, String type) {
+        this.libelle = libelle;
+        this.marque = marque;
+        this.type = type;
+    }
+
+    // Getters et Setters
+    public String getLibelle() {
+        return libelle;
+    }
+
+    public void setLibelle(String libelle) {
+        this.libelle = libelle;
+    }
+
+    public String getMarque() {
+        return marque;
+    }
+
+    public void setMarque(String marque) {
+        this.marque = marque;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+}
@@ -0,0 +1,37 @@
+package com.carrental.client.monitoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/activite: activité métier en direct (locations, refus, retours, connexions,
+ * inscriptions) sur la dernière minute et les cinq dernières minutes.
+ */
+@Component
+@Endpoint(id = "activite")
+public class ActiviteEndpoint {
+
+    /**
+     * Compteurs d'activité métier
+     */
+    private final CompteursMetier compteursMetier;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param compteursMetier Compteurs d'activité métier
+     */
+    @Autowired
+    public ActiviteEndpoint(CompteursMetier compteursMetier) {
+        this.compteursMetier = compteursMetier;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> activite() {
+        return compteursMetier.getActivite();
+    }
+}
@@ -0,0 +1,194 @@
+package com.carrental.client.monitoring;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Santé "baseDeDonnees": latence de la base mesurée en tâche de fond et état du pool de connexions.
+ *
+ * Une sonde exécute "SELECT 1 FROM dual" toutes les carrental.health.db.probe-millis sur son propre
+ * aller-retour (délai d'attente carrental.health.db.timeout-seconds). Les appels de /actuator/health
+ * ne font que lire le dernier résultat: un répartiteur de charge qui interroge souvent ne charge pas
+ * la base, et une base lente ne bloque pas la réponse de santé.
+ *
+ * État:
+ * <ul>
+ *     <li>OUT_OF_SERVICE avant la première sonde ou tant que le pool n'est pas démarré;</li>
+ *     <li>DOWN si la dernière sonde a échoué, si sa latence dépasse carrental.health.db.max-latency-millis,
+ *     ou si aucune sonde n'a abouti depuis trois périodes (base qui ne répond plus);</li>
+ *     <li>UP sinon.</li>
+ * </ul>
+ * La latence des sondes est aussi publiée en histogramme (carrental.db.probe).
+ */
+@Component
+public class BaseDeDonneesHealthIndicator implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(BaseDeDonneesHealthIndicator.class);
+
+    /**
+     * DataSource de l'application (pour l'état du pool)
+     */
+    private final DataSource dataSource;
+
+    /**
+     * Accès à la base réservé à la sonde (avec délai d'attente)
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Période de la sonde en millisecondes
+     */
+    private final long periodeMillis;
+
+    /**
+     * Latence au-delà de laquelle la base est considérée en panne, en millisecondes
+     */
+    private final long latenceMaxMillis;
+
+    private final Timer latence;
+
+    /**
+     * Résultat de la dernière sonde, null avant la première
+     */
+    private volatile Sonde derniere;
+
+    /**
+     * Constructeur avec injection des dépendances et de la configuration.
+     *
+     * @param dataSource DataSource de l'application
+     * @param periodeMillis Période de la sonde en millisecondes
+     * @param delaiSecondes Délai d'attente de la requête de la sonde en secondes
+     * @param latenceMaxMillis Latence au-delà de laquelle la base est considérée en panne, en millisecondes
+     * @param meterRegistry Registre des métriques
+     */
+    @Autowired
+    public BaseDeDonneesHealthIndicator(DataSource dataSource,
+                                        @Value("${carrental.health.db.probe-millis:10000}") long periodeMillis,
+                                        @Value("${carrental.health.db.timeout-seconds:2}") int delaiSecondes,
+                                        @Value("${carrental.health.db.max-latency-millis:1000}") long latenceMaxMillis,
+                                        MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout(delaiSecondes);
+        this.periodeMillis = periodeMillis;
+        this.latenceMaxMillis = latenceMaxMillis;
+        this.latence = Timer.builder("carrental.db.probe")
+                .description("Latence d'un aller-retour vers la base (sonde de santé)")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mesure un aller-retour vers la base (obtention de la connexion comprise).
+     */
+    @Scheduled(fixedDelayString = "${carrental.health.db.probe-millis:10000}")
+    public void sonder() {
+        long debut = System.nanoTime();
+        String erreur = null;
+        try {
+            jdbcTemplate.queryForObject("SELECT 1 FROM dual", Integer.class);
+        } catch (RuntimeException e) {
+            erreur = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        long dureeNanos = System.nanoTime() - debut;
+        latence.record(dureeNanos, TimeUnit.NANOSECONDS);
+        Sonde precedente = derniere;
+        derniere = new Sonde(Instant.now(), dureeNanos, erreur);
+        if (erreur != null && (precedente == null || precedente.erreur == null)) {
+            log.warn("Sonde de la base de données en échec: {}", erreur);
+        } else if (erreur == null && precedente != null && precedente.erreur != null) {
+            log.info("Base de données de nouveau joignable ({} ms)", TimeUnit.NANOSECONDS.toMillis(dureeNanos));
+        }
+    }
+
+    @Override
+    public Health health() {
+        Sonde sonde = derniere;
+        if (sonde == null) {
+            return Health.outOfService().withDetail("sonde", "aucune sonde effectuée").build();
+        }
+        long latenceMillis = TimeUnit.NANOSECONDS.toMillis(sonde.dureeNanos);
+        long ageMillis = Duration.between(sonde.date, Instant.now()).toMillis();
+        HikariPoolMXBean pool = pool();
+
+        Health.Builder sante;
+        if (sonde.erreur != null) {
+            sante = Health.down().withDetail("erreur", sonde.erreur);
+        } else if (ageMillis > 3 * periodeMillis) {
+            sante = Health.down().withDetail("erreur", "aucune sonde aboutie depuis " + ageMillis + " ms");
+        } else if (latenceMillis > latenceMaxMillis) {
+            sante = Health.down().withDetail("erreur", "latence supérieure à " + latenceMaxMillis + " ms");
+        } else if (pool == null && estHikari()) {
+            sante = Health.outOfService().withDetail("erreur", "pool de connexions non démarré");
+        } else {
+            sante = Health.up();
+        }
+        sante.withDetail("latenceMs", latenceMillis)
+                .withDetail("derniereSonde", sonde.date.toString());
+        if (pool != null) {
+            sante.withDetail("connexionsActives", pool.getActiveConnections())
+                    .withDetail("connexionsInactives", pool.getIdleConnections())
+                    .withDetail("threadsEnAttente", pool.getThreadsAwaitingConnection());
+        }
+        return sante.build();
+    }
+
+    private boolean estHikari() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return Compteurs du pool Hikari, null si le pool n'est pas Hikari ou pas encore démarré
+     */
+    private HikariPoolMXBean pool() {
+        try {
+            // Le DataSource est instrumenté (JdbcInstrumentation): le pool est obtenu par unwrap
+            return dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean() : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Résultat d'une sonde.
+     */
+    private static final class Sonde {
+
+        private final Instant date;
+
+        private final long dureeNanos;
+
+        /** Erreur de la sonde, null si elle a réussi */
+        private final String erreur;
+
+        Sonde(Instant date, long dureeNanos, String erreur) {
+            this.date = date;
+            this.dureeNanos = dureeNanos;
+            this.erreur = erreur;
+        }
+    }
+}
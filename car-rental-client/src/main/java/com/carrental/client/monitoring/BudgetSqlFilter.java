@@ -0,0 +1,186 @@
+package com.carrental.client.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Budget de requêtes SQL par requête HTTP et détection des N+1.
+ *
+ * À la fin de chaque requête, le nombre de requêtes SQL relevé par l'instrumentation JDBC
+ * (RequeteStats) est comparé au budget de l'endpoint:
+ * - en mode "warn" (production), un dépassement est signalé dans les logs et compté
+ *   (carrental.sql.budget.exceeded)
+ * - en mode "fail" (tests), un dépassement lève une IllegalStateException: le test qui
+ *   appelle l'endpoint échoue
+ *
+ * Indépendamment du budget, un même texte SQL exécuté au moins carrental.sql.n-plus-one.threshold
+ * fois avec des paramètres différents est signalé comme N+1 probable (une boucle qui exécute une
+ * requête par élément, comme l'enrichissement de LocationDAO.findByPersonneId). Le même texte
+ * répété avec les mêmes paramètres est signalé comme requête dupliquée.
+ *
+ * En développement (carrental.sql.budget.header=true), le nombre de requêtes SQL est ajouté à la
+ * réponse dans l'en-tête X-Requetes-Sql. La réponse est alors mise en tampon pour que l'en-tête
+ * puisse être ajouté après le rendu de la page.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class BudgetSqlFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetSqlFilter.class);
+
+    /** En-tête de réponse portant le nombre de requêtes SQL (mode développement) */
+    public static final String ENTETE_REQUETES_SQL = "X-Requetes-Sql";
+
+    /**
+     * Budget des endpoints sans budget spécifique
+     */
+    private final int budgetParDefaut;
+
+    /**
+     * Budgets spécifiques, indexés par motif d'endpoint (ex: /locations, /voitures/{mat})
+     */
+    private final Map<String, Integer> budgets = new HashMap<>();
+
+    /**
+     * true pour lever une exception en cas de dépassement (tests), false pour le signaler (production)
+     */
+    private final boolean echec;
+
+    /**
+     * Nombre d'exécutions d'un même texte SQL à partir duquel il est signalé
+     */
+    private final int seuilRepetitions;
+
+    /**
+     * true pour ajouter l'en-tête X-Requetes-Sql aux réponses
+     */
+    private final boolean entete;
+
+    /**
+     * Registre des métriques
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructeur avec la configuration des budgets.
+     *
+     * @param budgetParDefaut Budget des endpoints sans budget spécifique
+     * @param budgets Budgets spécifiques, au format motif=budget (ex: /locations=5)
+     * @param mode "fail" pour lever une exception en cas de dépassement, "warn" pour le signaler
+     * @param seuilRepetitions Nombre d'exécutions d'un même texte SQL à partir duquel il est signalé
+     * @param entete true pour ajouter l'en-tête X-Requetes-Sql aux réponses
+     * @param meterRegistry Registre des métriques
+     */
+    @Autowired
+    public BudgetSqlFilter(@Value("${carrental.sql.budget.default:30}") int budgetParDefaut,
+                           @Value("${carrental.sql.budget.endpoints:}") String[] budgets,
+                           @Value("${carrental.sql.budget.mode:warn}") String mode,
+                           @Value("${carrental.sql.n-plus-one.threshold:5}") int seuilRepetitions,
+                           @Value("${carrental.sql.budget.header:false}") boolean entete,
+                           MeterRegistry meterRegistry) {
+        this.budgetParDefaut = budgetParDefaut;
+        for (String budget : budgets) {
+            int separateur = budget.lastIndexOf('=');
+            if (separateur <= 0) {
+                throw new IllegalArgumentException("Budget SQL invalide (attendu motif=budget): " + budget);
+            }
+            this.budgets.put(budget.substring(0, separateur).trim(), Integer.parseInt(budget.substring(separateur + 1).trim()));
+        }
+        if (!"warn".equals(mode) && !"fail".equals(mode)) {
+            throw new IllegalArgumentException("Mode de budget SQL invalide (warn ou fail): " + mode);
+        }
+        this.echec = "fail".equals(mode);
+        this.seuilRepetitions = seuilRepetitions;
+        this.entete = entete;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return RequeteLogFilter.estRessourceStatique(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequeteStats stats = RequeteStats.courantes();
+        if (stats == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!entete) {
+            chain.doFilter(request, response);
+            verifier(request, stats);
+            return;
+        }
+        ContentCachingResponseWrapper tampon = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, tampon);
+        } finally {
+            if (!response.isCommitted()) {
+                response.setIntHeader(ENTETE_REQUETES_SQL, stats.getNbRequetesSql());
+            }
+            tampon.copyBodyToResponse();
+        }
+        verifier(request, stats);
+    }
+
+    /**
+     * Signale les N+1 et compare le nombre de requêtes SQL au budget de l'endpoint.
+     */
+    private void verifier(HttpServletRequest request, RequeteStats stats) {
+        String endpoint = RequeteLogFilter.endpoint(request);
+        for (Map.Entry<String, RequeteStats.Repetition> entry : stats.getRepetitions().entrySet()) {
+            RequeteStats.Repetition repetition = entry.getValue();
+            if (repetition.getNombre() < seuilRepetitions) {
+                continue;
+            }
+            if (repetition.isParametresDifferents()) {
+                log.warn("N+1 probable sur {} {}: {} exécutions de \"{}\" avec des paramètres différents",
+                        request.getMethod(), endpoint, repetition.getNombre(), entry.getKey());
+                Counter.builder("carrental.sql.n-plus-one")
+                        .description("Requêtes HTTP où un même texte SQL est exécuté en boucle")
+                        .tag("endpoint", endpoint)
+                        .register(meterRegistry)
+                        .increment();
+            } else {
+                log.warn("Requête dupliquée sur {} {}: {} exécutions de \"{}\" avec les mêmes paramètres",
+                        request.getMethod(), endpoint, repetition.getNombre(), entry.getKey());
+            }
+        }
+
+        int budget = budgets.getOrDefault(endpoint, budgetParDefaut);
+        int nbRequetes = stats.getNbRequetesSql();
+        if (nbRequetes <= budget) {
+            return;
+        }
+        Counter.builder("carrental.sql.budget.exceeded")
+                .description("Requêtes HTTP qui dépassent leur budget de requêtes SQL")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+        String message = String.format("Budget SQL dépassé sur %s %s: %d requêtes pour un budget de %d",
+                request.getMethod(), endpoint, nbRequetes, budget);
+        if (echec) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+}
@@ -0,0 +1,55 @@
+package com.carrental.client.monitoring;
+
+import com.carrental.client.service.CatalogueService;
+import com.carrental.client.service.DisponibiliteService;
+import com.carrental.client.service.RetourPrevuService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Santé "caches": les copies en mémoire chargées au démarrage sont prêtes.
+ *
+ * Tant que le catalogue, l'index de disponibilité et la file des retours prévus n'ont pas été
+ * construits une première fois, le nœud répond avec des listes vides: il est signalé
+ * OUT_OF_SERVICE et reste hors de la répartition de charge (groupe readiness). Un rechargement
+ * périodique en échec ne change pas l'état: la copie précédente reste servie.
+ */
+@Component
+public class CachesHealthIndicator implements HealthIndicator {
+
+    private final CatalogueService catalogueService;
+
+    private final DisponibiliteService disponibiliteService;
+
+    private final RetourPrevuService retourPrevuService;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param catalogueService Copie en mémoire du catalogue
+     * @param disponibiliteService Index de disponibilité par période
+     * @param retourPrevuService File des retours prévus
+     */
+    @Autowired
+    public CachesHealthIndicator(CatalogueService catalogueService, DisponibiliteService disponibiliteService,
+                                 RetourPrevuService retourPrevuService) {
+        this.catalogueService = catalogueService;
+        this.disponibiliteService = disponibiliteService;
+        this.retourPrevuService = retourPrevuService;
+    }
+
+    @Override
+    public Health health() {
+        boolean catalogue = catalogueService.isCharge();
+        boolean disponibilite = disponibiliteService.isPret();
+        boolean retoursPrevus = retourPrevuService.isPret();
+        Health.Builder sante = catalogue && disponibilite && retoursPrevus ? Health.up() : Health.outOfService();
+        return sante.withDetail("catalogue", catalogue)
+                .withDetail("voitures", catalogueService.getVoitures().size())
+                .withDetail("disponibilite", disponibilite)
+                .withDetail("retoursPrevus", retoursPrevus)
+                .build();
+    }
+}
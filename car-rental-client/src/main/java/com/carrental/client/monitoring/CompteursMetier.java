@@ -0,0 +1,113 @@
+package com.carrental.client.monitoring;
+
+import com.carrental.client.util.CompteurFenetre;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compteurs d'activité métier: locations, locations refusées, retours, connexions et inscriptions.
+ *
+ * Chaque opération a un compteur sur fenêtre glissante (CompteurFenetre) qui donne le total et
+ * le nombre d'opérations de la dernière minute et des cinq dernières minutes. Les compteurs sont
+ * répartis par thread (LongAdder) et ne prennent aucun verrou: les incrémenter depuis le chemin
+ * de réservation n'ajoute pas de contention entre les clients.
+ *
+ * Métriques: total par opération (carrental.business.operations) et débit par seconde sur une
+ * et cinq minutes (carrental.business.rate). Le détail est aussi exposé par /actuator/activite.
+ */
+@Component
+public class CompteursMetier {
+
+    /** Durée de la fenêtre courte, en secondes */
+    private static final int UNE_MINUTE = 60;
+
+    /** Durée de la fenêtre longue, en secondes */
+    private static final int CINQ_MINUTES = 300;
+
+    /**
+     * Opérations comptées.
+     */
+    public enum Operation {
+        /** Location créée */
+        LOCATION,
+        /** Location refusée car la voiture n'était pas disponible */
+        LOCATION_REFUSEE,
+        /** Voiture rendue (location terminée) */
+        RETOUR,
+        /** Connexion réussie */
+        CONNEXION,
+        /** Connexion échouée (identifiants incorrects ou tentatives limitées) */
+        CONNEXION_ECHOUEE,
+        /** Inscription d'un nouveau client */
+        INSCRIPTION
+    }
+
+    /**
+     * Compteur de chaque opération
+     */
+    private final EnumMap<Operation, CompteurFenetre> compteurs = new EnumMap<>(Operation.class);
+
+    /**
+     * Constructeur avec publication des métriques.
+     *
+     * @param meterRegistry Registre des métriques
+     */
+    @Autowired
+    public CompteursMetier(MeterRegistry meterRegistry) {
+        for (Operation operation : Operation.values()) {
+            CompteurFenetre compteur = new CompteurFenetre(CINQ_MINUTES);
+            compteurs.put(operation, compteur);
+            String nom = operation.name().toLowerCase();
+            FunctionCounter.builder("carrental.business.operations", compteur, CompteurFenetre::getTotal)
+                    .description("Opérations métier depuis le démarrage")
+                    .tag("operation", nom)
+                    .register(meterRegistry);
+            Gauge.builder("carrental.business.rate", compteur, c -> c.debit(UNE_MINUTE))
+                    .description("Opérations métier par seconde, moyenne sur la fenêtre")
+                    .tag("operation", nom)
+                    .tag("fenetre", "1m")
+                    .register(meterRegistry);
+            Gauge.builder("carrental.business.rate", compteur, c -> c.debit(CINQ_MINUTES))
+                    .description("Opérations métier par seconde, moyenne sur la fenêtre")
+                    .tag("operation", nom)
+                    .tag("fenetre", "5m")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Compte une opération.
+     *
+     * @param operation Opération effectuée
+     */
+    public void incrementer(Operation operation) {
+        compteurs.get(operation).incrementer();
+    }
+
+    /**
+     * Activité de chaque opération: total, nombre et débit sur une et cinq minutes.
+     *
+     * @return Activité par opération
+     */
+    public Map<String, Map<String, Object>> getActivite() {
+        Map<String, Map<String, Object>> activite = new LinkedHashMap<>();
+        for (Map.Entry<Operation, CompteurFenetre> entry : compteurs.entrySet()) {
+            CompteurFenetre compteur = entry.getValue();
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("total", compteur.getTotal());
+            detail.put("derniereMinute", compteur.somme(UNE_MINUTE));
+            detail.put("cinqDernieresMinutes", compteur.somme(CINQ_MINUTES));
+            detail.put("parSeconde1m", compteur.debit(UNE_MINUTE));
+            detail.put("parSeconde5m", compteur.debit(CINQ_MINUTES));
+            activite.put(entry.getKey().name().toLowerCase(), detail);
+        }
+        return activite;
+    }
+}
@@ -0,0 +1,36 @@
+package com.carrental.client.monitoring;
+
+import java.sql.Connection;
+
+/**
+ * Observateur des emprunts de connexions au pool.
+ *
+ * Les beans qui implémentent cette interface sont notifiés par JdbcInstrumentation, sur le
+ * thread qui emprunte ou rend la connexion: le traitement doit donc rester court.
+ */
+public interface ConnexionListener {
+
+    /**
+     * Appelée quand une connexion est obtenue du DataSource.
+     *
+     * @param connexion Connexion empruntée (instrumentée: la même instance est passée à rendue)
+     * @param attenteNanos Temps d'obtention de la connexion en nanosecondes (attente d'une connexion libre comprise)
+     */
+    void empruntee(Connection connexion, long attenteNanos);
+
+    /**
+     * Appelée quand aucune connexion n'a pu être obtenue (pool épuisé jusqu'au délai d'attente, base indisponible).
+     *
+     * @param attenteNanos Temps passé à attendre la connexion en nanosecondes
+     * @param erreur Erreur levée par le DataSource
+     */
+    default void refusee(long attenteNanos, Throwable erreur) {
+    }
+
+    /**
+     * Appelée quand une connexion est rendue au pool (close).
+     *
+     * @param connexion Connexion rendue
+     */
+    void rendue(Connection connexion);
+}
@@ -0,0 +1,185 @@
+package com.carrental.client.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Repository;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métriques des méthodes des DAO (VoitureDAO, PersonneDAO, LocationDAO...).
+ *
+ * Chaque bean @Repository du package dao est enveloppé dans un proxy qui mesure, pour chaque
+ * méthode publique:
+ * - la latence, en histogramme (carrental.dao, exporté en carrental_dao_seconds_bucket
+ *   sur /actuator/prometheus)
+ * - le nombre de lignes retournées (carrental.dao.rows): taille de la liste, 0 ou 1 pour
+ *   un Optional
+ * - le nombre d'erreurs, par type d'exception (carrental.dao.errors)
+ *
+ * Les métriques sont étiquetées par DAO et par méthode: on voit directement quelle requête
+ * ralentit une page. Les meters d'une méthode sont créés au premier appel puis réutilisés.
+ *
+ * Désactivée (carrental.metrics.dao.enabled=false), l'instrumentation ne crée aucun proxy:
+ * les DAO sont appelés directement, sans aucun surcoût.
+ */
+@Component
+public class DaoInstrumentation implements BeanPostProcessor {
+
+    /** Package des DAO instrumentés */
+    private static final String PACKAGE_DAO = "com.carrental.client.dao.";
+
+    /**
+     * Registre des métriques (résolu au premier appel: un BeanPostProcessor est créé avant les autres beans)
+     */
+    private final ObjectProvider<MeterRegistry> fournisseurRegistre;
+
+    /**
+     * true si les DAO sont instrumentés
+     */
+    private final boolean active;
+
+    /**
+     * Constructeur avec la configuration de l'instrumentation.
+     *
+     * @param fournisseurRegistre Registre des métriques
+     * @param active true pour instrumenter les DAO
+     */
+    public DaoInstrumentation(ObjectProvider<MeterRegistry> fournisseurRegistre,
+                              @Value("${carrental.metrics.dao.enabled:true}") boolean active) {
+        this.fournisseurRegistre = fournisseurRegistre;
+        this.active = active;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!active) {
+            return bean;
+        }
+        Class<?> type = AopUtils.getTargetClass(bean);
+        if (!type.isAnnotationPresent(Repository.class) || !type.getName().startsWith(PACKAGE_DAO)) {
+            return bean;
+        }
+        Mesure mesure = new Mesure(type.getSimpleName());
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            // Bean déjà enveloppé par Spring: la mesure s'ajoute en tête des intercepteurs existants
+            ((Advised) bean).addAdvice(0, mesure);
+            return bean;
+        }
+        // Les DAO sont des classes sans interface: proxy par sous-classe
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(mesure);
+        return proxyFactory.getProxy(type.getClassLoader());
+    }
+
+    /**
+     * Intercepteur des méthodes d'un DAO.
+     */
+    private final class Mesure implements MethodInterceptor {
+
+        /** Nom du DAO (étiquette dao) */
+        private final String dao;
+
+        /** Meters de chaque méthode, créés au premier appel */
+        private final ConcurrentHashMap<Method, Meters> meters = new ConcurrentHashMap<>();
+
+        Mesure(String dao) {
+            this.dao = dao;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            Meters m = meters.computeIfAbsent(method, this::creer);
+            long debut = System.nanoTime();
+            try {
+                Object resultat = invocation.proceed();
+                long lignes = lignes(resultat);
+                if (lignes >= 0) {
+                    m.lignes.record(lignes);
+                }
+                return resultat;
+            } catch (Throwable e) {
+                // Chemin rare: le compteur est recherché dans le registre à chaque erreur
+                Counter.builder("carrental.dao.errors")
+                        .description("Erreurs des méthodes des DAO")
+                        .tag("dao", dao)
+                        .tag("methode", method.getName())
+                        .tag("exception", e.getClass().getSimpleName())
+                        .register(fournisseurRegistre.getObject())
+                        .increment();
+                throw e;
+            } finally {
+                m.latence.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private Meters creer(Method method) {
+            MeterRegistry registre = fournisseurRegistre.getObject();
+            Timer latence = Timer.builder("carrental.dao")
+                    .description("Latence des méthodes des DAO")
+                    .tag("dao", dao)
+                    .tag("methode", method.getName())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registre);
+            DistributionSummary lignes = DistributionSummary.builder("carrental.dao.rows")
+                    .description("Lignes retournées par les méthodes des DAO")
+                    .tag("dao", dao)
+                    .tag("methode", method.getName())
+                    .register(registre);
+            return new Meters(latence, lignes);
+        }
+    }
+
+    /**
+     * Nombre de lignes d'un résultat de DAO: taille d'une liste, 0 ou 1 pour un Optional.
+     *
+     * @return Nombre de lignes, -1 si le résultat n'est pas un ensemble de lignes (void, id, booléen)
+     */
+    static long lignes(Object resultat) {
+        if (resultat instanceof Collection) {
+            return ((Collection<?>) resultat).size();
+        }
+        if (resultat instanceof Optional) {
+            return ((Optional<?>) resultat).isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Meters d'une méthode de DAO.
+     */
+    private static final class Meters {
+
+        private final Timer latence;
+
+        private final DistributionSummary lignes;
+
+        Meters(Timer latence, DistributionSummary lignes) {
+            this.latence = latence;
+            this.lignes = lignes;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.carrental.client.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Événement Java Flight Recorder: durée d'une étape de la création ou du retour d'une location.
+ *
+ * Étapes de la création: disponibilite, personne, statut-voiture, insertion, compteurs (et total,
+ * verrou de la voiture compris). Étapes du retour: location, cloture, statut-voiture, index (et total).
+ *
+ * Hors enregistrement JFR, begin et commit ne font presque rien: l'événement peut rester en
+ * production. Les événements sont visibles dans JDK Mission Control (catégorie Car rental) ou avec
+ * "jfr print --events carrental.EtapeLocation" sur un fichier produit par /actuator/jfr.
+ */
+@Name("carrental.EtapeLocation")
+@Label("Étape de location")
+@Description("Durée d'une étape de la création ou du retour d'une location")
+@Category({"Car rental", "Locations"})
+@StackTrace(false)
+public final class EtapeLocationEvent extends Event {
+
+    /** Opération de création d'une location */
+    public static final String CREATION = "creation";
+
+    /** Opération de retour d'une voiture */
+    public static final String RETOUR = "retour";
+
+    @Label("Opération")
+    private String operation;
+
+    @Label("Étape")
+    private String etape;
+
+    @Label("Immatriculation")
+    private String mat;
+
+    @Label("Succès")
+    private boolean succes;
+
+    /**
+     * Démarre la mesure d'une étape.
+     *
+     * @param operation Opération (CREATION ou RETOUR)
+     * @param etape Nom de l'étape
+     * @param mat Immatriculation de la voiture (null si encore inconnue)
+     * @return Événement démarré, à terminer par terminer()
+     */
+    public static EtapeLocationEvent debut(String operation, String etape, String mat) {
+        EtapeLocationEvent evenement = new EtapeLocationEvent();
+        evenement.operation = operation;
+        evenement.etape = etape;
+        evenement.mat = mat;
+        evenement.begin();
+        return evenement;
+    }
+
+    /**
+     * Termine l'étape, réussie.
+     */
+    public void terminer() {
+        terminer(true);
+    }
+
+    /**
+     * Termine l'étape et l'enregistre si un enregistrement JFR est en cours.
+     *
+     * @param succes false si l'étape a échoué (voiture indisponible, personne inconnue...; une étape
+     *               interrompue par une exception n'est pas enregistrée, seule l'étape total l'est)
+     */
+    public void terminer(boolean succes) {
+        end();
+        if (shouldCommit()) {
+            this.succes = succes;
+            commit();
+        }
+    }
+
+    /**
+     * @param mat Immatriculation de la voiture, connue en cours d'étape
+     */
+    public void setMat(String mat) {
+        this.mat = mat;
+    }
+}
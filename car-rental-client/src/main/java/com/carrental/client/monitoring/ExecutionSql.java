@@ -0,0 +1,52 @@
+package com.carrental.client.monitoring;
+
+import java.util.List;
+
+/**
+ * Exécution d'une requête SQL observée par l'instrumentation JDBC.
+ */
+public final class ExecutionSql {
+
+    /** Texte SQL de la requête */
+    private final String sql;
+
+    /** Paramètres liés au statement préparé, dans l'ordre (vide pour un statement simple) */
+    private final List<Object> parametres;
+
+    /** Durée d'exécution en nanosecondes (lecture des lignes comprise pour une requête) */
+    private final long dureeNanos;
+
+    /** Lignes lues (requête) ou modifiées (mise à jour), -1 si inconnu */
+    private final long lignes;
+
+    /** Erreur levée par le pilote JDBC, null si la requête a réussi */
+    private final Throwable erreur;
+
+    ExecutionSql(String sql, List<Object> parametres, long dureeNanos, long lignes, Throwable erreur) {
+        this.sql = sql;
+        this.parametres = parametres;
+        this.dureeNanos = dureeNanos;
+        this.lignes = lignes;
+        this.erreur = erreur;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<Object> getParametres() {
+        return parametres;
+    }
+
+    public long getDureeNanos() {
+        return dureeNanos;
+    }
+
+    public long getLignes() {
+        return lignes;
+    }
+
+    public Throwable getErreur() {
+        return erreur;
+    }
+}
@@ -0,0 +1,18 @@
+package com.carrental.client.monitoring;
+
+/**
+ * Observateur des requêtes SQL exécutées par l'application.
+ *
+ * Les beans qui implémentent cette interface sont notifiés par JdbcInstrumentation
+ * après chaque exécution, sur le thread qui a exécuté la requête: le traitement
+ * doit donc rester court.
+ */
+public interface ExecutionSqlListener {
+
+    /**
+     * Appelée après l'exécution d'une requête SQL (réussie ou non).
+     *
+     * @param execution Requête exécutée
+     */
+    void executee(ExecutionSql execution);
+}
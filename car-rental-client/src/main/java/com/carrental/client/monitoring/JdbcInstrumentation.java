@@ -0,0 +1,365 @@
+package com.carrental.client.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Instrumentation JDBC de l'application.
+ *
+ * Le DataSource est enveloppé dans un proxy qui enveloppe à son tour les connexions et
+ * les statements: chaque exécution (execute, executeQuery, executeUpdate, executeBatch)
+ * est chronométrée, comptée dans les statistiques de la requête HTTP en cours
+ * (RequeteStats), puis signalée aux beans ExecutionSqlListener. Les paramètres liés aux
+ * statements préparés (setString, setLong...) et le nombre de lignes lues ou modifiées
+ * sont relevés avec l'exécution.
+ *
+ * Les emprunts et retours de connexions au pool sont signalés aux beans ConnexionListener
+ * (suivi du pool, détection des fuites de connexions).
+ *
+ * L'instrumentation se place sous JdbcTemplate: toutes les requêtes des DAO, des
+ * transactions et des tâches de fond sont observées, sans modifier les DAO.
+ */
+@Component
+public class JdbcInstrumentation implements BeanPostProcessor, ApplicationListener<ContextRefreshedEvent> {
+
+    /**
+     * Observateurs des requêtes SQL (résolus une fois le contexte Spring démarré)
+     */
+    private final ObjectProvider<ExecutionSqlListener> fournisseurListeners;
+
+    /**
+     * Observateurs notifiés après chaque requête; vide tant que le contexte n'est pas démarré
+     */
+    private volatile List<ExecutionSqlListener> listeners = Collections.emptyList();
+
+    /**
+     * Observateurs des emprunts de connexions (résolus une fois le contexte Spring démarré)
+     */
+    private final ObjectProvider<ConnexionListener> fournisseurListenersConnexions;
+
+    /**
+     * Observateurs notifiés à chaque emprunt et retour de connexion; vide tant que le contexte n'est pas démarré
+     */
+    private volatile List<ConnexionListener> listenersConnexions = Collections.emptyList();
+
+    /**
+     * Constructeur avec injection différée des observateurs.
+     *
+     * @param fournisseurListeners Observateurs des requêtes SQL
+     * @param fournisseurListenersConnexions Observateurs des emprunts de connexions
+     */
+    public JdbcInstrumentation(ObjectProvider<ExecutionSqlListener> fournisseurListeners,
+                               ObjectProvider<ConnexionListener> fournisseurListenersConnexions) {
+        this.fournisseurListeners = fournisseurListeners;
+        this.fournisseurListenersConnexions = fournisseurListenersConnexions;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        this.listeners = fournisseurListeners.orderedStream().collect(Collectors.toList());
+        this.listenersConnexions = fournisseurListenersConnexions.orderedStream().collect(Collectors.toList());
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !Proxy.isProxyClass(bean.getClass())) {
+            // Toutes les interfaces du pool sont conservées (Closeable pour l'arrêt, MXBean du pool...)
+            Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(bean.getClass(), bean.getClass().getClassLoader());
+            return Proxy.newProxyInstance(bean.getClass().getClassLoader(), interfaces, new Enveloppe(bean) {
+                @Override
+                Object intercepter(Object proxy, Method method, Object[] args) throws Throwable {
+                    if (!method.getName().equals("getConnection")) {
+                        return deleguer(method, args);
+                    }
+                    // Le temps d'obtention comprend l'attente d'une connexion libre quand le pool est épuisé
+                    long debut = System.nanoTime();
+                    Connection connexion;
+                    try {
+                        connexion = envelopperConnexion((Connection) deleguer(method, args));
+                    } catch (Throwable e) {
+                        long attenteNanos = System.nanoTime() - debut;
+                        for (ConnexionListener listener : listenersConnexions) {
+                            listener.refusee(attenteNanos, e);
+                        }
+                        throw e;
+                    }
+                    long attenteNanos = System.nanoTime() - debut;
+                    for (ConnexionListener listener : listenersConnexions) {
+                        listener.empruntee(connexion, attenteNanos);
+                    }
+                    return connexion;
+                }
+            });
+        }
+        return bean;
+    }
+
+    private Connection envelopperConnexion(Connection connexion) {
+        return (Connection) Proxy.newProxyInstance(JdbcInstrumentation.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new Enveloppe(connexion) {
+
+                    /** true une fois la connexion rendue au pool */
+                    private boolean rendue;
+
+                    @Override
+                    Object intercepter(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("close") && !rendue) {
+                            rendue = true;
+                            try {
+                                return deleguer(method, args);
+                            } finally {
+                                for (ConnexionListener listener : listenersConnexions) {
+                                    listener.rendue((Connection) proxy);
+                                }
+                            }
+                        }
+                        Object resultat = deleguer(method, args);
+                        if (resultat instanceof Statement) {
+                            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                            return envelopperStatement((Statement) resultat, sql);
+                        }
+                        return resultat;
+                    }
+                });
+    }
+
+    private Statement envelopperStatement(Statement statement, String sqlPrepare) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(JdbcInstrumentation.class.getClassLoader(), new Class<?>[]{type},
+                new EnveloppeStatement(statement, sqlPrepare));
+    }
+
+    /**
+     * Comptabilise une exécution dans la requête HTTP en cours et la signale aux observateurs.
+     */
+    private void signaler(String sql, List<Object> parametres, long dureeNanos, long lignes, Throwable erreur) {
+        RequeteStats stats = RequeteStats.courantes();
+        if (stats != null) {
+            stats.enregistrerSql(sql, parametres, dureeNanos);
+        }
+        List<ExecutionSqlListener> observateurs = listeners;
+        if (observateurs.isEmpty()) {
+            return;
+        }
+        ExecutionSql execution = new ExecutionSql(sql, parametres, dureeNanos, lignes, erreur);
+        for (ExecutionSqlListener listener : observateurs) {
+            listener.executee(execution);
+        }
+    }
+
+    /**
+     * Nombre de lignes modifiées d'après le résultat de executeUpdate ou executeBatch, -1 si inconnu.
+     */
+    private static long lignesModifiees(Object resultat) {
+        if (resultat instanceof Number) {
+            return ((Number) resultat).longValue();
+        }
+        long total = 0;
+        if (resultat instanceof int[]) {
+            for (int n : (int[]) resultat) {
+                if (n < 0) {
+                    return -1;
+                }
+                total += n;
+            }
+            return total;
+        }
+        if (resultat instanceof long[]) {
+            for (long n : (long[]) resultat) {
+                if (n < 0) {
+                    return -1;
+                }
+                total += n;
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    /**
+     * Gestionnaire de proxy d'un statement: relève les paramètres liés et chronomètre les exécutions.
+     *
+     * Pour executeQuery, le ResultSet retourné est enveloppé à son tour: l'exécution n'est signalée
+     * qu'à sa fermeture, avec le nombre de lignes lues et une durée qui inclut leur lecture
+     * (une requête rapide à exécuter peut être lente à parcourir).
+     */
+    private final class EnveloppeStatement extends Enveloppe {
+
+        /** Texte SQL du statement préparé, null pour un statement simple */
+        private final String sqlPrepare;
+
+        /** Paramètres liés au statement préparé (index JDBC - 1), null tant qu'aucun n'est lié */
+        private ArrayList<Object> parametres;
+
+        /** ResultSet ouvert dont l'exécution n'a pas encore été signalée */
+        private EnveloppeResultSet resultSetOuvert;
+
+        EnveloppeStatement(Statement statement, String sqlPrepare) {
+            super(statement);
+            this.sqlPrepare = sqlPrepare;
+        }
+
+        @Override
+        Object intercepter(Object proxy, Method method, Object[] args) throws Throwable {
+            String nom = method.getName();
+            if (!nom.startsWith("execute")) {
+                if (nom.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    lier((Integer) args[0], args[1]);
+                } else if (nom.equals("clearParameters") && parametres != null) {
+                    parametres.clear();
+                } else if (nom.equals("close") && resultSetOuvert != null) {
+                    // Fermer le statement ferme son ResultSet
+                    resultSetOuvert.terminer();
+                }
+                return deleguer(method, args);
+            }
+            if (resultSetOuvert != null) {
+                // Une nouvelle exécution ferme le ResultSet précédent
+                resultSetOuvert.terminer();
+                resultSetOuvert = null;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sqlPrepare;
+            List<Object> lies = parametres == null || parametres.isEmpty()
+                    ? Collections.emptyList() : new ArrayList<>(parametres);
+            long debut = System.nanoTime();
+            Object resultat;
+            try {
+                resultat = deleguer(method, args);
+            } catch (Throwable e) {
+                signaler(sql, lies, System.nanoTime() - debut, -1, e);
+                throw e;
+            }
+            if (resultat instanceof ResultSet) {
+                resultSetOuvert = new EnveloppeResultSet((ResultSet) resultat, sql, lies, debut);
+                return Proxy.newProxyInstance(JdbcInstrumentation.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class}, resultSetOuvert);
+            }
+            signaler(sql, lies, System.nanoTime() - debut, lignesModifiees(resultat), null);
+            return resultat;
+        }
+
+        /**
+         * Enregistre un paramètre lié par setString, setLong, setObject, setNull...
+         */
+        private void lier(int index, Object valeur) {
+            if (parametres == null) {
+                parametres = new ArrayList<>();
+            }
+            while (parametres.size() < index) {
+                parametres.add(null);
+            }
+            parametres.set(index - 1, valeur);
+        }
+    }
+
+    /**
+     * Gestionnaire de proxy d'un ResultSet: compte les lignes lues et signale l'exécution à la fermeture.
+     */
+    private final class EnveloppeResultSet extends Enveloppe {
+
+        private final String sql;
+
+        private final List<Object> parametres;
+
+        /** Début de l'exécution de la requête (System.nanoTime) */
+        private final long debut;
+
+        /** Nombre de lignes lues */
+        private long lignes;
+
+        /** true une fois l'exécution signalée */
+        private boolean termine;
+
+        EnveloppeResultSet(ResultSet resultSet, String sql, List<Object> parametres, long debut) {
+            super(resultSet);
+            this.sql = sql;
+            this.parametres = parametres;
+            this.debut = debut;
+        }
+
+        @Override
+        Object intercepter(Object proxy, Method method, Object[] args) throws Throwable {
+            String nom = method.getName();
+            if (nom.equals("next")) {
+                Object suivante = deleguer(method, args);
+                if (Boolean.TRUE.equals(suivante)) {
+                    lignes++;
+                }
+                return suivante;
+            }
+            if (nom.equals("close")) {
+                try {
+                    return deleguer(method, args);
+                } finally {
+                    terminer();
+                }
+            }
+            return deleguer(method, args);
+        }
+
+        void terminer() {
+            if (!termine) {
+                termine = true;
+                signaler(sql, parametres, System.nanoTime() - debut, lignes, null);
+            }
+        }
+    }
+
+    /**
+     * Gestionnaire de proxy qui délègue à l'objet enveloppé. equals et hashCode portent
+     * sur le proxy lui-même, pour qu'il puisse servir de clé (ressources transactionnelles).
+     */
+    private abstract static class Enveloppe implements InvocationHandler {
+
+        private final Object cible;
+
+        Enveloppe(Object cible) {
+            this.cible = cible;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return args.length == 1 && proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Instrumenté[" + cible + "]";
+                default:
+                    return intercepter(proxy, method, args);
+            }
+        }
+
+        abstract Object intercepter(Object proxy, Method method, Object[] args) throws Throwable;
+
+        Object deleguer(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(cible, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
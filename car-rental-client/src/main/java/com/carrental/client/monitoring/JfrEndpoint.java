@@ -0,0 +1,224 @@
+package com.carrental.client.monitoring;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Endpoint /actuator/jfr: enregistrements Java Flight Recorder de durée limitée, pour l'analyse
+ * d'un incident en production.
+ *
+ * - POST {"secondes": 120}: démarre un enregistrement de 120 secondes (configuration "profile" du JDK,
+ *   plus les événements de l'application comme EtapeLocationEvent, sans seuil de durée). À la fin,
+ *   JFR écrit le fichier dans carrental.jfr.path; un seul enregistrement à la fois.
+ * - DELETE: arrête l'enregistrement en cours avant son terme (le fichier est écrit)
+ * - GET: enregistrement en cours et fichiers disponibles
+ * - GET /actuator/jfr/{fichier}: téléchargement d'un fichier, à ouvrir dans JDK Mission Control
+ *
+ * Un enregistrement "profile" contient les piles des threads, les propriétés système et
+ * l'environnement: l'actuator est servi sur le port de gestion (management.server.port), lié à
+ * l'interface locale, jamais sur le port public. Seuls les carrental.jfr.max-files fichiers les plus
+ * récents sont conservés: les plus anciens sont supprimés au démarrage d'un enregistrement.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrEndpoint.class);
+
+    /** Noms des fichiers produits par l'endpoint (seuls fichiers téléchargeables) */
+    private static final Pattern FICHIER = Pattern.compile("carrental-\\d{8}-\\d{6}\\.jfr");
+
+    private static final DateTimeFormatter FORMAT_NOM = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /**
+     * Répertoire des fichiers d'enregistrement
+     */
+    private final Path repertoire;
+
+    /**
+     * Durée maximale d'un enregistrement, en secondes
+     */
+    private final int dureeMaxSecondes;
+
+    /**
+     * Nombre maximal de fichiers conservés dans le répertoire, enregistrement en cours compris
+     */
+    private final int maxFichiers;
+
+    /**
+     * Dernier enregistrement démarré (null avant le premier)
+     */
+    private Recording enregistrement;
+
+    /**
+     * Constructeur avec la configuration des enregistrements.
+     *
+     * @param repertoire Répertoire des fichiers d'enregistrement
+     * @param dureeMaxSecondes Durée maximale d'un enregistrement, en secondes
+     * @param maxFichiers Nombre maximal de fichiers conservés
+     */
+    @Autowired
+    public JfrEndpoint(@Value("${carrental.jfr.path:jfr}") String repertoire,
+                       @Value("${carrental.jfr.max-duration-seconds:600}") int dureeMaxSecondes,
+                       @Value("${carrental.jfr.max-files:5}") int maxFichiers) {
+        this.repertoire = Paths.get(repertoire);
+        this.dureeMaxSecondes = dureeMaxSecondes;
+        this.maxFichiers = Math.max(1, maxFichiers);
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> etat() {
+        Map<String, Object> etat = new LinkedHashMap<>();
+        etat.put("enCours", enCours() ? description(enregistrement) : null);
+        etat.put("dureeMaxSecondes", dureeMaxSecondes);
+        etat.put("maxFichiers", maxFichiers);
+        etat.put("fichiers", fichiers());
+        return etat;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> demarrer(int secondes) {
+        if (secondes <= 0 || secondes > dureeMaxSecondes) {
+            throw new IllegalArgumentException("La durée de l'enregistrement doit être entre 1 et " + dureeMaxSecondes + " secondes");
+        }
+        if (enCours()) {
+            throw new IllegalStateException("Un enregistrement JFR est déjà en cours: " + enregistrement.getName());
+        }
+        String nom = "carrental-" + LocalDateTime.now().format(FORMAT_NOM);
+        Recording recording;
+        try {
+            Files.createDirectories(repertoire);
+            // Place pour le nouveau fichier: le répertoire ne dépasse jamais maxFichiers
+            supprimerAnciens(maxFichiers - 1);
+            recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.setDestination(repertoire.resolve(nom + ".jfr"));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Impossible de préparer l'enregistrement JFR", e);
+        }
+        recording.setName(nom);
+        recording.enable(EtapeLocationEvent.class).withoutThreshold();
+        recording.setToDisk(true);
+        recording.setDuration(Duration.ofSeconds(secondes));
+        recording.setDumpOnExit(true);
+        recording.start();
+        if (enregistrement != null) {
+            enregistrement.close();
+        }
+        enregistrement = recording;
+        log.info("Enregistrement JFR {} démarré pour {} s", nom, secondes);
+        return etat();
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> arreter() {
+        if (enCours()) {
+            enregistrement.stop();
+            log.info("Enregistrement JFR {} arrêté", enregistrement.getName());
+        }
+        return etat();
+    }
+
+    @ReadOperation
+    public Resource fichier(@Selector String fichier) {
+        Path chemin = repertoire.resolve(fichier);
+        if (!FICHIER.matcher(fichier).matches() || !Files.isRegularFile(chemin)) {
+            // Réponse 404
+            return null;
+        }
+        return new FileSystemResource(chemin);
+    }
+
+    private boolean enCours() {
+        return enregistrement != null
+                && (enregistrement.getState() == RecordingState.DELAYED || enregistrement.getState() == RecordingState.RUNNING);
+    }
+
+    private static Map<String, Object> description(Recording recording) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("nom", recording.getName());
+        description.put("debut", recording.getStartTime());
+        description.put("fin", recording.getStartTime() != null && recording.getDuration() != null
+                ? recording.getStartTime().plus(recording.getDuration()) : null);
+        description.put("fichier", recording.getDestination() != null ? recording.getDestination().getFileName().toString() : null);
+        return description;
+    }
+
+    /**
+     * @return Fichiers d'enregistrement, du plus récent au plus ancien
+     */
+    private List<Map<String, Object>> fichiers() {
+        if (!Files.isDirectory(repertoire)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> chemins = Files.list(repertoire)) {
+            return chemins
+                    .filter(p -> FICHIER.matcher(p.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed())
+                    .map(JfrEndpoint::descriptionFichier)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new IllegalStateException("Lecture du répertoire des enregistrements JFR impossible", e);
+        }
+    }
+
+    /**
+     * Supprime les fichiers d'enregistrement les plus anciens pour n'en garder que "conserves".
+     */
+    private void supprimerAnciens(int conserves) throws IOException {
+        List<Path> anciens;
+        try (Stream<Path> chemins = Files.list(repertoire)) {
+            anciens = chemins
+                    .filter(p -> FICHIER.matcher(p.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed())
+                    .skip(conserves)
+                    .collect(Collectors.toList());
+        }
+        for (Path chemin : anciens) {
+            Files.deleteIfExists(chemin);
+            log.info("Ancien enregistrement JFR {} supprimé", chemin.getFileName());
+        }
+    }
+
+    private static Map<String, Object> descriptionFichier(Path chemin) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("fichier", chemin.getFileName().toString());
+        try {
+            description.put("octets", Files.size(chemin));
+            description.put("date", Instant.ofEpochMilli(Files.getLastModifiedTime(chemin).toMillis()));
+        } catch (IOException e) {
+            // Fichier supprimé entre-temps: décrit par son nom seulement
+        }
+        return description;
+    }
+}
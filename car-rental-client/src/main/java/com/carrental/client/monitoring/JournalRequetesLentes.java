@@ -0,0 +1,274 @@
+package com.carrental.client.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.temporal.Temporal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Journal des requêtes SQL lentes.
+ *
+ * Chaque requête dont la durée (lecture des lignes comprise) dépasse carrental.sql.slow.threshold-millis
+ * est écrite dans le logger "carrental.requetes-lentes" (fichier tournant logs/requetes-lentes.log,
+ * voir logback-spring.xml) avec son texte SQL, ses paramètres masqués, sa durée et son nombre de
+ * lignes. Les dernières requêtes lentes sont aussi conservées en mémoire pour /actuator/requeteslentes.
+ *
+ * Masquage des paramètres: les nombres et les dates sont écrits tels quels, les chaînes sont réduites
+ * à leur premier caractère. Si la requête porte sur une colonne sensible (mot de passe, CIN, chèque),
+ * aucun paramètre n'est écrit.
+ *
+ * Sur demande (/actuator/requeteslentes, pour une durée limitée), le plan d'exécution Oracle des
+ * requêtes lentes est aussi relevé (EXPLAIN PLAN puis DBMS_XPLAN). Le plan est calculé sur un thread
+ * dédié, avec une autre connexion, pour ne pas rallonger la requête HTTP qui a exécuté la requête lente.
+ */
+@Component
+public class JournalRequetesLentes implements ExecutionSqlListener {
+
+    private static final Logger LOG_REQUETES_LENTES = LoggerFactory.getLogger("carrental.requetes-lentes");
+
+    private static final Logger log = LoggerFactory.getLogger(JournalRequetesLentes.class);
+
+    /** Nombre de requêtes lentes conservées en mémoire */
+    private static final int TAILLE_HISTORIQUE = 100;
+
+    /** Requêtes pour lesquelles Oracle accepte EXPLAIN PLAN */
+    private static final Pattern EXPLICABLE = Pattern.compile("^\\s*(select|with|insert|update|delete|merge)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    /** Marque le thread de calcul des plans: ses propres requêtes ne sont pas journalisées */
+    private static final ThreadLocal<Boolean> CALCUL_PLAN = new ThreadLocal<>();
+
+    /**
+     * Accès à la base de données pour le calcul des plans
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Seuil de durée en nanosecondes
+     */
+    private final long seuilNanos;
+
+    /**
+     * Colonnes sensibles: si la requête en mentionne une, ses paramètres ne sont pas écrits
+     */
+    private final Pattern colonnesSensibles;
+
+    /**
+     * Dernières requêtes lentes, de la plus ancienne à la plus récente
+     */
+    private final ArrayDeque<RequeteLente> historique = new ArrayDeque<>();
+
+    /**
+     * Fin de la capture des plans d'exécution (System.currentTimeMillis), 0 si désactivée
+     */
+    private volatile long plansJusqua;
+
+    /**
+     * Numéro des plans calculés (identifiant STATEMENT_ID de la table des plans)
+     */
+    private final AtomicLong numeroPlan = new AtomicLong();
+
+    /**
+     * Thread de calcul des plans, avec une file bornée: les plans en excès ne sont pas calculés
+     */
+    private final ThreadPoolExecutor executorPlans;
+
+    /**
+     * Constructeur avec injection des dépendances et de la configuration.
+     *
+     * @param jdbcTemplate Accès à la base de données pour le calcul des plans
+     * @param seuilMillis Durée à partir de laquelle une requête est journalisée, en millisecondes
+     * @param colonnesSensibles Colonnes dont les paramètres ne sont jamais écrits
+     */
+    @Autowired
+    public JournalRequetesLentes(JdbcTemplate jdbcTemplate,
+                                 @Value("${carrental.sql.slow.threshold-millis:200}") long seuilMillis,
+                                 @Value("${carrental.sql.slow.sensitive-columns:passwd,cin,cheque}") String[] colonnesSensibles) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.seuilNanos = TimeUnit.MILLISECONDS.toNanos(seuilMillis);
+        this.colonnesSensibles = Pattern.compile("\\b(" + String.join("|", colonnesSensibles) + ")\\b",
+                Pattern.CASE_INSENSITIVE);
+        this.executorPlans = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100), r -> {
+            Thread t = new Thread(r, "plans-sql");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void executee(ExecutionSql execution) {
+        if (execution.getDureeNanos() < seuilNanos || execution.getSql() == null || CALCUL_PLAN.get() != null) {
+            return;
+        }
+        String sql = execution.getSql();
+        RequeteLente requete = new RequeteLente(Instant.now(), sql,
+                masquer(execution.getParametres(), colonnesSensibles.matcher(sql).find()),
+                TimeUnit.NANOSECONDS.toMillis(execution.getDureeNanos()), execution.getLignes(),
+                execution.getErreur() != null ? String.valueOf(execution.getErreur().getMessage()) : null, null);
+
+        if (System.currentTimeMillis() < plansJusqua && EXPLICABLE.matcher(sql).find()) {
+            try {
+                executorPlans.execute(() -> journaliser(requete.avecPlan(expliquer(sql))));
+                return;
+            } catch (RejectedExecutionException e) {
+                // File pleine: la requête est journalisée sans son plan
+            }
+        }
+        journaliser(requete);
+    }
+
+    private void journaliser(RequeteLente requete) {
+        synchronized (historique) {
+            if (historique.size() == TAILLE_HISTORIQUE) {
+                historique.removeFirst();
+            }
+            historique.addLast(requete);
+        }
+        if (requete.getPlan() == null) {
+            LOG_REQUETES_LENTES.warn("duree_ms={} lignes={} erreur={} sql=\"{}\" parametres={}",
+                    requete.getDureeMs(), requete.getLignes(), requete.getErreur() != null ? "\"" + requete.getErreur() + "\"" : "-",
+                    requete.getSql(), requete.getParametres());
+        } else {
+            LOG_REQUETES_LENTES.warn("duree_ms={} lignes={} erreur={} sql=\"{}\" parametres={} plan=\n{}",
+                    requete.getDureeMs(), requete.getLignes(), requete.getErreur() != null ? "\"" + requete.getErreur() + "\"" : "-",
+                    requete.getSql(), requete.getParametres(), requete.getPlan());
+        }
+    }
+
+    /**
+     * Calcule le plan d'exécution Oracle d'une requête. Les paramètres "?" deviennent des
+     * variables de liaison (:1, :2...), qu'EXPLAIN PLAN accepte sans valeur.
+     *
+     * @return Plan d'exécution, ou la raison pour laquelle il n'a pas pu être calculé
+     */
+    private String expliquer(String sql) {
+        CALCUL_PLAN.set(Boolean.TRUE);
+        try {
+            String id = "carrental-" + numeroPlan.incrementAndGet();
+            jdbcTemplate.execute("EXPLAIN PLAN SET STATEMENT_ID = '" + id + "' FOR " + variablesDeLiaison(sql));
+            List<String> lignes = jdbcTemplate.queryForList(
+                    "SELECT plan_table_output FROM TABLE(DBMS_XPLAN.DISPLAY('PLAN_TABLE', ?, 'TYPICAL'))", String.class, id);
+            jdbcTemplate.update("DELETE FROM plan_table WHERE statement_id = ?", id);
+            return String.join("\n", lignes);
+        } catch (RuntimeException e) {
+            log.debug("Plan d'exécution indisponible pour {}", sql, e);
+            return "indisponible: " + e.getMessage();
+        } finally {
+            CALCUL_PLAN.remove();
+        }
+    }
+
+    /**
+     * Remplace les paramètres "?" (hors chaînes littérales) par :1, :2...
+     */
+    static String variablesDeLiaison(String sql) {
+        StringBuilder resultat = new StringBuilder(sql.length() + 16);
+        boolean dansChaine = false;
+        int numero = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                dansChaine = !dansChaine;
+            }
+            if (c == '?' && !dansChaine) {
+                resultat.append(':').append(++numero);
+            } else {
+                resultat.append(c);
+            }
+        }
+        return resultat.toString();
+    }
+
+    /**
+     * Écrit les paramètres d'une requête en masquant les valeurs personnelles.
+     *
+     * @param parametres Paramètres liés
+     * @param sensible true si la requête porte sur une colonne sensible: aucune valeur n'est écrite
+     * @return Paramètres masqués, ex: [12, 'D…', 2024-05-01]
+     */
+    static String masquer(List<Object> parametres, boolean sensible) {
+        StringBuilder resultat = new StringBuilder("[");
+        for (int i = 0; i < parametres.size(); i++) {
+            if (i > 0) {
+                resultat.append(", ");
+            }
+            Object valeur = parametres.get(i);
+            if (sensible) {
+                resultat.append("***");
+            } else if (valeur == null || valeur instanceof Number || valeur instanceof Boolean
+                    || valeur instanceof Date || valeur instanceof Temporal) {
+                resultat.append(valeur);
+            } else {
+                String texte = valeur.toString();
+                resultat.append('\'').append(texte.isEmpty() ? "" : texte.substring(0, 1) + "…").append('\'');
+            }
+        }
+        return resultat.append(']').toString();
+    }
+
+    /**
+     * Active la capture des plans d'exécution pour une durée limitée.
+     *
+     * @param minutes Durée de la capture en minutes (0 pour la désactiver)
+     */
+    public void activerPlans(int minutes) {
+        if (minutes < 0) {
+            throw new IllegalArgumentException("La durée de capture des plans doit être positive");
+        }
+        this.plansJusqua = minutes == 0 ? 0 : System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(minutes);
+        log.info(minutes == 0 ? "Capture des plans d'exécution désactivée"
+                : "Capture des plans d'exécution activée pour " + minutes + " minute(s)");
+    }
+
+    /**
+     * @return Fin de la capture des plans, null si elle n'est pas active
+     */
+    public Instant getPlansJusqua() {
+        long fin = plansJusqua;
+        return fin > System.currentTimeMillis() ? Instant.ofEpochMilli(fin) : null;
+    }
+
+    /**
+     * @return Seuil de durée en millisecondes
+     */
+    public long getSeuilMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(seuilNanos);
+    }
+
+    /**
+     * @return Dernières requêtes lentes, de la plus récente à la plus ancienne
+     */
+    public List<RequeteLente> getDernieres() {
+        List<RequeteLente> dernieres;
+        synchronized (historique) {
+            dernieres = new ArrayList<>(historique);
+        }
+        Collections.reverse(dernieres);
+        return dernieres;
+    }
+
+    /**
+     * Arrête le thread de calcul des plans à l'arrêt de l'application.
+     */
+    @PreDestroy
+    public void arreter() {
+        executorPlans.shutdownNow();
+    }
+}
@@ -0,0 +1,39 @@
+package com.carrental.client.monitoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/pool: diagnostic du pool de connexions.
+ *
+ * Connexions actives, inactives et en attente, temps d'obtention, emprunts en cours par appelant
+ * et connexions détenues au-delà du seuil de fuite, avec la pile de leur thread.
+ */
+@Component
+@Endpoint(id = "pool")
+public class PoolConnexionsEndpoint {
+
+    /**
+     * Suivi du pool de connexions
+     */
+    private final SuiviPoolConnexions suiviPoolConnexions;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param suiviPoolConnexions Suivi du pool de connexions
+     */
+    @Autowired
+    public PoolConnexionsEndpoint(SuiviPoolConnexions suiviPoolConnexions) {
+        this.suiviPoolConnexions = suiviPoolConnexions;
+    }
+
+    @ReadOperation
+    public Map<String, Object> pool() {
+        return suiviPoolConnexions.getEtat();
+    }
+}
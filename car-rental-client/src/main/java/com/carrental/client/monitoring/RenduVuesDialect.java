@@ -0,0 +1,305 @@
+package com.carrental.client.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.context.IWebContext;
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.model.IModel;
+import org.thymeleaf.model.IModelFactory;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.model.ITemplateEnd;
+import org.thymeleaf.model.ITemplateStart;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.processor.element.AbstractAttributeModelProcessor;
+import org.thymeleaf.processor.element.AbstractElementTagProcessor;
+import org.thymeleaf.processor.element.IElementModelStructureHandler;
+import org.thymeleaf.processor.element.IElementTagStructureHandler;
+import org.thymeleaf.processor.templateboundaries.AbstractTemplateBoundariesProcessor;
+import org.thymeleaf.processor.templateboundaries.ITemplateBoundariesStructureHandler;
+import org.thymeleaf.standard.StandardDialect;
+import org.thymeleaf.standard.processor.StandardReplaceTagProcessor;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure du rendu des vues Thymeleaf: durée et taille de chaque page et de chaque fragment.
+ *
+ * Dialecte ajouté au moteur Thymeleaf (Spring Boot ajoute les beans IDialect au moteur):
+ * <ul>
+ *     <li>la page entière est mesurée entre le début et la fin du template;</li>
+ *     <li>chaque élément th:replace ou th:insert (layout, titre, contenu de la page...) est encadré
+ *     de deux marqueurs &lt;carrental:chrono&gt;, traités juste avant et juste après l'insertion du
+ *     fragment puis retirés de la sortie.</li>
+ * </ul>
+ * Comme Thymeleaf écrit la page au fil du rendu, la taille d'une page ou d'un fragment est le nombre
+ * de caractères écrits dans la réponse entre ses deux bornes (voir TailleVueFilter); la durée d'un
+ * fragment comprend le rendu de son contenu (boucles th:each comprises).
+ *
+ * Métriques, par vue (template) et fragment: durée de rendu (carrental.vue.rendu) et taille en
+ * caractères (carrental.vue.taille), en histogrammes. Le rendu d'un fragment d'une requête tracée
+ * ajoute aussi un span "vue" à la trace (voir TraceFilter).
+ *
+ * Désactivée (carrental.metrics.views.enabled=false), la mesure n'ajoute aucun processeur au moteur.
+ */
+@Component
+public class RenduVuesDialect extends AbstractProcessorDialect {
+
+    /** Préfixe des marqueurs ajoutés aux vues */
+    private static final String PREFIXE = "carrental";
+
+    /** Nom des marqueurs encadrant le rendu d'un fragment */
+    private static final String MARQUEUR = PREFIXE + ":chrono";
+
+    /** Attribut du marqueur de début portant le fragment rendu */
+    private static final String ATTRIBUT_FRAGMENT = "fragment";
+
+    /** Valeur du tag fragment pour la page entière */
+    private static final String PAGE = "-";
+
+    /** Mesures en cours sur le thread de rendu, de la plus récente à la plus ancienne */
+    private static final ThreadLocal<ArrayDeque<Mesure>> MESURES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Dernier élément encadré de marqueurs: quand Thymeleaf le traite à nouveau, il n'est pas encadré une seconde fois
+     */
+    private static final ThreadLocal<IProcessableElementTag> ENCADRE = new ThreadLocal<>();
+
+    /**
+     * true si le rendu des vues est mesuré
+     */
+    private final boolean active;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Métriques par vue et fragment (clé: "vue|fragment")
+     */
+    private final ConcurrentHashMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Constructeur avec injection des dépendances et de la configuration.
+     *
+     * @param active false pour ne pas mesurer le rendu des vues
+     * @param meterRegistry Registre des métriques
+     */
+    @Autowired
+    public RenduVuesDialect(@Value("${carrental.metrics.views.enabled:true}") boolean active,
+                            MeterRegistry meterRegistry) {
+        super("Mesure du rendu des vues", PREFIXE, StandardDialect.PROCESSOR_PRECEDENCE);
+        this.active = active;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Set<IProcessor> getProcessors(String dialectPrefix) {
+        if (!active) {
+            return Collections.emptySet();
+        }
+        Set<IProcessor> processeurs = new HashSet<>();
+        processeurs.add(new BornesPage());
+        processeurs.add(new Encadrement("replace"));
+        processeurs.add(new Encadrement("insert"));
+        processeurs.add(new Chrono(dialectPrefix));
+        return processeurs;
+    }
+
+    /**
+     * Début d'une mesure sur le thread de rendu. La vue est le template principal (la page demandée),
+     * même pour un fragment du layout.
+     */
+    private static void demarrer(ITemplateContext context, String fragment) {
+        Trace trace = Trace.courante();
+        Trace.Span span = trace != null && !PAGE.equals(fragment) ? trace.ouvrir("fragment " + fragment, "vue") : null;
+        String vue = context.getTemplateStack().get(0).getTemplate();
+        MESURES.get().push(new Mesure(vue, fragment, position(context), span));
+    }
+
+    /**
+     * Fin de la dernière mesure démarrée: la durée et la taille sont enregistrées.
+     */
+    private void terminer(ITemplateContext context) {
+        Mesure mesure = MESURES.get().poll();
+        if (mesure == null) {
+            return;
+        }
+        long dureeNanos = System.nanoTime() - mesure.debutNanos;
+        if (mesure.span != null && Trace.courante() != null) {
+            Trace.courante().fermer(mesure.span);
+        }
+        Meters m = meters.computeIfAbsent(mesure.vue + "|" + mesure.fragment, cle -> new Meters(mesure.vue, mesure.fragment));
+        m.rendu.record(dureeNanos, TimeUnit.NANOSECONDS);
+        long fin = position(context);
+        if (mesure.position >= 0 && fin >= mesure.position) {
+            m.taille.record(fin - mesure.position);
+        }
+    }
+
+    /**
+     * @return Caractères déjà écrits dans la réponse, -1 hors requête HTTP ou si la réponse n'est pas comptée
+     */
+    private static long position(ITemplateContext context) {
+        return context instanceof IWebContext ? TailleVueFilter.position(((IWebContext) context).getRequest()) : -1;
+    }
+
+    /**
+     * Nom court d'un fragment: "~{layout :: html(~{::title}, ~{::div.content})}" devient "layout :: html".
+     */
+    static String nomFragment(String expression) {
+        String nom = expression.trim();
+        if (nom.startsWith("~{") && nom.endsWith("}")) {
+            nom = nom.substring(2, nom.length() - 1).trim();
+        }
+        int parametres = nom.indexOf('(');
+        return parametres > 0 ? nom.substring(0, parametres).trim() : nom;
+    }
+
+    /**
+     * Mesure de la page entière: Thymeleaf n'appelle ce processeur qu'aux bornes du template principal.
+     */
+    private final class BornesPage extends AbstractTemplateBoundariesProcessor {
+
+        BornesPage() {
+            super(TemplateMode.HTML, 0);
+        }
+
+        @Override
+        public void doProcessTemplateStart(ITemplateContext context, ITemplateStart templateStart,
+                                           ITemplateBoundariesStructureHandler structureHandler) {
+            // Mesures laissées par un rendu interrompu par une exception
+            MESURES.get().clear();
+            ENCADRE.remove();
+            demarrer(context, PAGE);
+        }
+
+        @Override
+        public void doProcessTemplateEnd(ITemplateContext context, ITemplateEnd templateEnd,
+                                         ITemplateBoundariesStructureHandler structureHandler) {
+            // Les mesures de fragments encore ouvertes sont abandonnées avec la page
+            ArrayDeque<Mesure> mesures = MESURES.get();
+            while (mesures.size() > 1) {
+                mesures.pop();
+            }
+            terminer(context);
+            MESURES.remove();
+        }
+    }
+
+    /**
+     * Encadre un élément th:replace ou th:insert de marqueurs de début et de fin.
+     *
+     * Le processeur passe avant celui de Thymeleaf (précédence inférieure); une fois les marqueurs
+     * ajoutés, Thymeleaf traite à nouveau l'élément, qui n'est alors plus encadré.
+     */
+    private static final class Encadrement extends AbstractAttributeModelProcessor {
+
+        Encadrement(String attribut) {
+            super(TemplateMode.HTML, StandardDialect.PREFIX, null, false, attribut, true,
+                    StandardReplaceTagProcessor.PRECEDENCE - 1, false);
+        }
+
+        @Override
+        protected void doProcess(ITemplateContext context, IModel model, AttributeName attributeName,
+                                 String attributeValue, IElementModelStructureHandler structureHandler) {
+            IProcessableElementTag element = (IProcessableElementTag) model.get(0);
+            if (element == ENCADRE.get()) {
+                ENCADRE.remove();
+                return;
+            }
+            ENCADRE.set(element);
+            IModelFactory modelFactory = context.getModelFactory();
+            model.insert(0, modelFactory.createStandaloneElementTag(MARQUEUR, ATTRIBUT_FRAGMENT, nomFragment(attributeValue)));
+            model.add(modelFactory.createStandaloneElementTag(MARQUEUR));
+        }
+    }
+
+    /**
+     * Traite les marqueurs: démarre la mesure d'un fragment (marqueur avec l'attribut fragment) ou
+     * la termine, puis retire le marqueur de la sortie.
+     */
+    private final class Chrono extends AbstractElementTagProcessor {
+
+        Chrono(String dialectPrefix) {
+            super(TemplateMode.HTML, dialectPrefix, "chrono", true, null, false, 0);
+        }
+
+        @Override
+        protected void doProcess(ITemplateContext context, IProcessableElementTag tag,
+                                 IElementTagStructureHandler structureHandler) {
+            String fragment = tag.getAttributeValue(ATTRIBUT_FRAGMENT);
+            if (fragment != null) {
+                demarrer(context, fragment);
+            } else {
+                terminer(context);
+            }
+            structureHandler.removeElement();
+        }
+    }
+
+    /**
+     * Mesure en cours d'une page ou d'un fragment.
+     */
+    private static final class Mesure {
+
+        private final String vue;
+
+        private final String fragment;
+
+        /** Caractères écrits au début de la mesure, -1 si inconnu */
+        private final long position;
+
+        /** Span de la trace en cours, null si la requête n'est pas tracée */
+        private final Trace.Span span;
+
+        private final long debutNanos = System.nanoTime();
+
+        Mesure(String vue, String fragment, long position, Trace.Span span) {
+            this.vue = vue;
+            this.fragment = fragment;
+            this.position = position;
+            this.span = span;
+        }
+    }
+
+    /**
+     * Métriques d'une vue ou d'un fragment.
+     */
+    private final class Meters {
+
+        private final Timer rendu;
+
+        private final DistributionSummary taille;
+
+        Meters(String vue, String fragment) {
+            this.rendu = Timer.builder("carrental.vue.rendu")
+                    .description("Durée de rendu des vues et des fragments Thymeleaf")
+                    .tag("vue", vue)
+                    .tag("fragment", fragment)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(10_000))
+                    .maximumExpectedValue(Duration.ofSeconds(5))
+                    .register(meterRegistry);
+            this.taille = DistributionSummary.builder("carrental.vue.taille")
+                    .description("Taille des vues et des fragments rendus")
+                    .baseUnit("caracteres")
+                    .tag("vue", vue)
+                    .tag("fragment", fragment)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(100.0)
+                    .maximumExpectedValue(10_000_000.0)
+                    .register(meterRegistry);
+        }
+    }
+}
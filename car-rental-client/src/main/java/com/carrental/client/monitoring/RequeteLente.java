@@ -0,0 +1,75 @@
+package com.carrental.client.monitoring;
+
+import java.time.Instant;
+
+/**
+ * Requête SQL lente relevée par le journal des requêtes lentes.
+ */
+public final class RequeteLente {
+
+    /** Date de fin d'exécution */
+    private final Instant date;
+
+    /** Texte SQL */
+    private final String sql;
+
+    /** Paramètres liés, masqués */
+    private final String parametres;
+
+    /** Durée d'exécution en millisecondes (lecture des lignes comprise) */
+    private final long dureeMs;
+
+    /** Lignes lues ou modifiées, -1 si inconnu */
+    private final long lignes;
+
+    /** Message de l'erreur levée, null si la requête a réussi */
+    private final String erreur;
+
+    /** Plan d'exécution, null s'il n'a pas été demandé */
+    private final String plan;
+
+    RequeteLente(Instant date, String sql, String parametres, long dureeMs, long lignes, String erreur, String plan) {
+        this.date = date;
+        this.sql = sql;
+        this.parametres = parametres;
+        this.dureeMs = dureeMs;
+        this.lignes = lignes;
+        this.erreur = erreur;
+        this.plan = plan;
+    }
+
+    /**
+     * @return Copie de cette requête avec son plan d'exécution
+     */
+    RequeteLente avecPlan(String plan) {
+        return new RequeteLente(date, sql, parametres, dureeMs, lignes, erreur, plan);
+    }
+
+    public Instant getDate() {
+        return date;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getParametres() {
+        return parametres;
+    }
+
+    public long getDureeMs() {
+        return dureeMs;
+    }
+
+    public long getLignes() {
+        return lignes;
+    }
+
+    public String getErreur() {
+        return erreur;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+}
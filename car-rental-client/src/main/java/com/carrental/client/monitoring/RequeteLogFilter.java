@@ -0,0 +1,106 @@
+package com.carrental.client.monitoring;
+
+import com.carrental.client.model.Personne;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+
+/**
+ * Enregistrement structuré de chaque requête HTTP.
+ *
+ * Pour chaque requête (hors ressources statiques), une ligne clé=valeur est écrite dans le
+ * logger "carrental.requetes": endpoint, statut, utilisateur, temps total, temps passé en base
+ * et nombre de requêtes SQL. Le format clé=valeur se recherche directement (grep, outils
+ * d'agrégation de logs) sans dépendance supplémentaire.
+ *
+ * Le filtre est placé en tête de chaîne, avant les autres filtres de l'application qui lisent
+ * les statistiques de la requête (BudgetSqlFilter).
+ *
+ * L'écriture est asynchrone (voir logback-spring.xml): le thread de la requête ne fait que
+ * déposer l'événement dans une file, l'écriture sur disque se fait sur un autre thread.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequeteLogFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG_REQUETES = LoggerFactory.getLogger("carrental.requetes");
+
+    /** Clé MDC de l'utilisateur connecté, reprise par tous les logs émis pendant la requête */
+    public static final String MDC_UTILISATEUR = "utilisateur";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return estRessourceStatique(request);
+    }
+
+    /**
+     * @return true pour les ressources statiques (css, js, images...), qui ne sont pas enregistrées
+     */
+    static boolean estRessourceStatique(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.startsWith("/css/") || uri.startsWith("/js/") || uri.startsWith("/images/")
+                || uri.startsWith("/webjars/") || uri.equals("/favicon.ico");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long debut = System.nanoTime();
+        RequeteStats stats = RequeteStats.demarrer();
+        String utilisateur = utilisateur(request);
+        MDC.put(MDC_UTILISATEUR, utilisateur);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long totalNanos = System.nanoTime() - debut;
+            if (LOG_REQUETES.isInfoEnabled()) {
+                // L'utilisateur peut avoir changé pendant la requête (connexion, déconnexion)
+                String utilisateurFinal = utilisateur(request);
+                LOG_REQUETES.info("endpoint=\"{} {}\" statut={} utilisateur={} total_ms={} db_ms={} db_requetes={}",
+                        request.getMethod(), endpoint(request), response.getStatus(),
+                        "-".equals(utilisateurFinal) ? utilisateur : utilisateurFinal,
+                        totalNanos / 1_000_000, stats.getDureeSqlNanos() / 1_000_000, stats.getNbRequetesSql());
+            }
+            RequeteStats.terminer();
+            MDC.remove(MDC_UTILISATEUR);
+        }
+    }
+
+    /**
+     * Endpoint de la requête: le motif du contrôleur (ex: /voitures/{mat}) quand il est connu,
+     * pour regrouper les requêtes d'un même endpoint; l'URI sinon.
+     */
+    static String endpoint(HttpServletRequest request) {
+        Object motif = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return motif != null ? motif.toString() : request.getRequestURI();
+    }
+
+    /**
+     * Identifiant de l'utilisateur connecté, "-" si aucun.
+     */
+    private static String utilisateur(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return "-";
+        }
+        try {
+            Object user = session.getAttribute("user");
+            return user instanceof Personne ? String.valueOf(((Personne) user).getId()) : "-";
+        } catch (IllegalStateException e) {
+            // Session invalidée pendant la requête (déconnexion)
+            return "-";
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.carrental.client.monitoring;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Statistiques de la requête HTTP en cours sur ce thread: nombre de requêtes SQL
+ * exécutées, temps passé dans la base de données et répétitions de chaque texte SQL
+ * (pour la détection des N+1, voir BudgetSqlFilter).
+ *
+ * Démarrées par RequeteLogFilter à l'entrée de la requête, alimentées par
+ * l'instrumentation JDBC (JdbcInstrumentation) et lues à la sortie pour
+ * l'enregistrement de log de la requête.
+ */
+public final class RequeteStats {
+
+    private static final ThreadLocal<RequeteStats> COURANTES = new ThreadLocal<>();
+
+    /** Nombre de requêtes SQL exécutées */
+    private int nbRequetesSql;
+
+    /** Temps cumulé d'exécution des requêtes SQL, en nanosecondes */
+    private long dureeSqlNanos;
+
+    /** Répétitions de chaque texte SQL, créées à la première requête */
+    private Map<String, Repetition> repetitions;
+
+    private RequeteStats() {
+    }
+
+    /**
+     * Démarre les statistiques d'une requête HTTP sur le thread courant.
+     *
+     * @return Statistiques de la requête
+     */
+    public static RequeteStats demarrer() {
+        RequeteStats stats = new RequeteStats();
+        COURANTES.set(stats);
+        return stats;
+    }
+
+    /**
+     * @return Statistiques de la requête HTTP en cours, null hors requête (tâches de fond)
+     */
+    public static RequeteStats courantes() {
+        return COURANTES.get();
+    }
+
+    /**
+     * Termine les statistiques de la requête HTTP sur le thread courant.
+     */
+    public static void terminer() {
+        COURANTES.remove();
+    }
+
+    /**
+     * Enregistre l'exécution d'une requête SQL.
+     *
+     * @param sql Texte SQL (null si inconnu)
+     * @param parametres Paramètres liés
+     * @param dureeNanos Durée d'exécution en nanosecondes
+     */
+    void enregistrerSql(String sql, List<Object> parametres, long dureeNanos) {
+        nbRequetesSql++;
+        dureeSqlNanos += dureeNanos;
+        if (sql == null) {
+            return;
+        }
+        if (repetitions == null) {
+            repetitions = new HashMap<>();
+        }
+        repetitions.computeIfAbsent(sql, s -> new Repetition(parametres)).ajouter(parametres);
+    }
+
+    public int getNbRequetesSql() {
+        return nbRequetesSql;
+    }
+
+    public long getDureeSqlNanos() {
+        return dureeSqlNanos;
+    }
+
+    /**
+     * @return Répétitions de chaque texte SQL exécuté pendant la requête
+     */
+    public Map<String, Repetition> getRepetitions() {
+        return repetitions == null ? Collections.emptyMap() : repetitions;
+    }
+
+    /**
+     * Exécutions d'un même texte SQL pendant une requête HTTP.
+     */
+    public static final class Repetition {
+
+        /** Paramètres de la première exécution */
+        private final List<Object> premiersParametres;
+
+        /** Nombre d'exécutions */
+        private int nombre;
+
+        /** true si au moins une exécution avait des paramètres différents de la première */
+        private boolean parametresDifferents;
+
+        private Repetition(List<Object> premiersParametres) {
+            this.premiersParametres = premiersParametres;
+        }
+
+        private void ajouter(List<Object> parametres) {
+            nombre++;
+            if (!parametresDifferents && !Objects.equals(premiersParametres, parametres)) {
+                parametresDifferents = true;
+            }
+        }
+
+        public int getNombre() {
+            return nombre;
+        }
+
+        /**
+         * @return true si la requête a été exécutée avec des paramètres différents (boucle N+1),
+         *         false si elle a toujours été exécutée avec les mêmes (requête dupliquée)
+         */
+        public boolean isParametresDifferents() {
+            return parametresDifferents;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.carrental.client.monitoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint /actuator/requeteslentes: dernières requêtes SQL lentes et capture des plans d'exécution.
+ *
+ * - GET: seuil, fin de la capture des plans et dernières requêtes lentes
+ * - POST {"minutes": 10}: active la capture des plans d'exécution pendant 10 minutes (0 pour l'arrêter)
+ *
+ * Comme tout l'actuator, servi uniquement sur le port de gestion local (management.server.port).
+ */
+@Component
+@Endpoint(id = "requeteslentes")
+public class RequetesLentesEndpoint {
+
+    /**
+     * Journal des requêtes lentes
+     */
+    private final JournalRequetesLentes journal;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param journal Journal des requêtes lentes
+     */
+    @Autowired
+    public RequetesLentesEndpoint(JournalRequetesLentes journal) {
+        this.journal = journal;
+    }
+
+    @ReadOperation
+    public Map<String, Object> requetesLentes() {
+        Map<String, Object> resultat = new LinkedHashMap<>();
+        resultat.put("seuilMs", journal.getSeuilMillis());
+        resultat.put("plansJusqua", journal.getPlansJusqua());
+        resultat.put("requetes", journal.getDernieres());
+        return resultat;
+    }
+
+    @WriteOperation
+    public Map<String, Object> plans(int minutes) {
+        journal.activerPlans(minutes);
+        return requetesLentes();
+    }
+}
@@ -0,0 +1,294 @@
+package com.carrental.client.monitoring;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Suivi du pool de connexions et détection des fuites.
+ *
+ * Chaque connexion empruntée au pool est enregistrée avec le thread emprunteur, la date
+ * d'emprunt et l'appelant (première méthode de l'application dans la pile: DAO, service...).
+ * La pile complète de l'emprunt peut aussi être relevée (carrental.pool.capture-borrow-stack),
+ * au prix d'un surcoût à chaque emprunt: à activer le temps de chercher une fuite.
+ *
+ * Une vérification périodique signale les connexions détenues depuis plus de
+ * carrental.pool.leak-threshold-millis: fuite probable (connexion jamais rendue) ou traitement
+ * anormalement long pendant une transaction. La pile actuelle du thread détenteur est alors
+ * relevée et écrite dans les logs.
+ *
+ * Métriques: temps d'obtention d'une connexion (carrental.pool.wait, échecs compris) et durée de
+ * détention (carrental.pool.usage) en histogrammes, connexions refusées (carrental.pool.refused: pool
+ * épuisé jusqu'au délai d'attente, base indisponible) et fuites suspectées (carrental.pool.leaks.suspected).
+ * L'état détaillé (compteurs du pool, emprunts par appelant, connexions détenues longtemps)
+ * est exposé par /actuator/pool.
+ */
+@Component
+public class SuiviPoolConnexions implements ConnexionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SuiviPoolConnexions.class);
+
+    /** Package de l'application, pour trouver l'appelant dans la pile */
+    private static final String PACKAGE_APPLICATION = "com.carrental.client.";
+
+    /** Package de l'instrumentation, ignoré dans la recherche de l'appelant */
+    private static final String PACKAGE_MONITORING = "com.carrental.client.monitoring.";
+
+    /** Recherche de l'appelant dans la pile, sans construire la pile complète */
+    private static final StackWalker PILE = StackWalker.getInstance();
+
+    /**
+     * DataSource de l'application (pour les compteurs du pool)
+     */
+    private final DataSource dataSource;
+
+    /**
+     * Connexions actuellement empruntées
+     */
+    private final ConcurrentHashMap<Connection, Emprunt> emprunts = new ConcurrentHashMap<>();
+
+    /**
+     * Durée de détention à partir de laquelle une connexion est signalée, en millisecondes
+     */
+    private final long seuilFuiteMillis;
+
+    /**
+     * true pour relever la pile complète de chaque emprunt
+     */
+    private final boolean capturePile;
+
+    private final Timer attente;
+
+    private final Timer detention;
+
+    private final Counter fuites;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructeur avec injection des dépendances et de la configuration.
+     *
+     * @param dataSource DataSource de l'application
+     * @param seuilFuiteMillis Durée de détention à partir de laquelle une connexion est signalée, en millisecondes
+     * @param capturePile true pour relever la pile complète de chaque emprunt
+     * @param meterRegistry Registre des métriques
+     */
+    @Autowired
+    public SuiviPoolConnexions(DataSource dataSource,
+                               @Value("${carrental.pool.leak-threshold-millis:10000}") long seuilFuiteMillis,
+                               @Value("${carrental.pool.capture-borrow-stack:false}") boolean capturePile,
+                               MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.seuilFuiteMillis = seuilFuiteMillis;
+        this.capturePile = capturePile;
+        this.meterRegistry = meterRegistry;
+        this.attente = Timer.builder("carrental.pool.wait")
+                .description("Temps d'obtention d'une connexion du pool")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        this.detention = Timer.builder("carrental.pool.usage")
+                .description("Durée de détention d'une connexion du pool")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(meterRegistry);
+        this.fuites = Counter.builder("carrental.pool.leaks.suspected")
+                .description("Connexions détenues au-delà du seuil de fuite")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void empruntee(Connection connexion, long attenteNanos) {
+        attente.record(attenteNanos, TimeUnit.NANOSECONDS);
+        StackTraceElement[] pile = capturePile ? new Throwable().getStackTrace() : null;
+        emprunts.put(connexion, new Emprunt(Thread.currentThread(), appelant(), pile));
+    }
+
+    @Override
+    public void refusee(long attenteNanos, Throwable erreur) {
+        attente.record(attenteNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("carrental.pool.refused")
+                .description("Demandes de connexion en échec (délai d'attente dépassé, base indisponible)")
+                .tag("exception", erreur.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public void rendue(Connection connexion) {
+        Emprunt emprunt = emprunts.remove(connexion);
+        if (emprunt != null) {
+            detention.record(System.nanoTime() - emprunt.debutNanos, TimeUnit.NANOSECONDS);
+            if (emprunt.signale) {
+                log.info("Connexion signalée rendue après {} ms (appelant: {}, thread: {})",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - emprunt.debutNanos),
+                        emprunt.appelant, emprunt.nomThread);
+            }
+        }
+    }
+
+    /**
+     * Première méthode de l'application dans la pile (hors instrumentation et proxies), ex: LocationDAO.save:152
+     */
+    private static String appelant() {
+        return PILE.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(PACKAGE_APPLICATION)
+                        && !f.getClassName().startsWith(PACKAGE_MONITORING)
+                        && !f.getClassName().contains("$$"))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                        + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("inconnu"));
+    }
+
+    /**
+     * Signale les connexions détenues au-delà du seuil, avec la pile actuelle du thread détenteur.
+     */
+    @Scheduled(fixedDelayString = "${carrental.pool.leak-check-millis:5000}")
+    public void verifierFuites() {
+        long maintenant = System.nanoTime();
+        for (Emprunt emprunt : emprunts.values()) {
+            long detenueMillis = TimeUnit.NANOSECONDS.toMillis(maintenant - emprunt.debutNanos);
+            if (emprunt.signale || detenueMillis < seuilFuiteMillis) {
+                continue;
+            }
+            emprunt.signale = true;
+            fuites.increment();
+            log.warn("Connexion détenue depuis {} ms (fuite probable): appelant={} thread={}\n"
+                            + "Pile actuelle du thread:\n{}{}",
+                    detenueMillis, emprunt.appelant, emprunt.nomThread,
+                    formater(emprunt.thread.getStackTrace()),
+                    emprunt.pile != null ? "Pile de l'emprunt:\n" + formater(emprunt.pile) : "");
+        }
+    }
+
+    private static String formater(StackTraceElement[] pile) {
+        return Arrays.stream(pile).map(e -> "\tat " + e + "\n").collect(Collectors.joining());
+    }
+
+    /**
+     * État du pool pour la page de diagnostic.
+     *
+     * @return Compteurs du pool, emprunts en cours par appelant et connexions détenues au-delà du seuil
+     */
+    public Map<String, Object> getEtat() {
+        Map<String, Object> etat = new LinkedHashMap<>();
+        HikariPoolMXBean pool = pool();
+        if (pool != null) {
+            etat.put("actives", pool.getActiveConnections());
+            etat.put("inactives", pool.getIdleConnections());
+            etat.put("total", pool.getTotalConnections());
+            etat.put("enAttente", pool.getThreadsAwaitingConnection());
+        }
+        etat.put("maximum", tailleMaximale());
+        etat.put("attenteMoyenneMs", attente.mean(TimeUnit.MILLISECONDS));
+        etat.put("attenteMaxMs", attente.max(TimeUnit.MILLISECONDS));
+        etat.put("seuilFuiteMs", seuilFuiteMillis);
+
+        // Emprunts en cours par appelant: le premier suspect quand le pool est épuisé
+        Map<String, Long> parAppelant = new TreeMap<>();
+        List<Map<String, Object>> longues = new ArrayList<>();
+        long maintenant = System.nanoTime();
+        List<Emprunt> enCours = new ArrayList<>(emprunts.values());
+        enCours.sort(Comparator.comparingLong(e -> e.debutNanos));
+        for (Emprunt emprunt : enCours) {
+            parAppelant.merge(emprunt.appelant, 1L, Long::sum);
+            long detenueMillis = TimeUnit.NANOSECONDS.toMillis(maintenant - emprunt.debutNanos);
+            if (detenueMillis >= seuilFuiteMillis) {
+                Map<String, Object> longue = new LinkedHashMap<>();
+                longue.put("appelant", emprunt.appelant);
+                longue.put("thread", emprunt.nomThread);
+                longue.put("depuis", emprunt.date.toString());
+                longue.put("detenueMs", detenueMillis);
+                longue.put("pileActuelle", Arrays.stream(emprunt.thread.getStackTrace())
+                        .map(StackTraceElement::toString).collect(Collectors.toList()));
+                if (emprunt.pile != null) {
+                    longue.put("pileEmprunt", Arrays.stream(emprunt.pile)
+                            .map(StackTraceElement::toString).collect(Collectors.toList()));
+                }
+                longues.add(longue);
+            }
+        }
+        etat.put("empruntees", enCours.size());
+        etat.put("empruntsParAppelant", parAppelant);
+        etat.put("detenuesLongtemps", longues);
+        return etat;
+    }
+
+    /**
+     * @return Compteurs du pool Hikari, null si le pool n'est pas Hikari ou pas encore démarré
+     */
+    private HikariPoolMXBean pool() {
+        HikariDataSource hikari = hikari();
+        return hikari != null ? hikari.getHikariPoolMXBean() : null;
+    }
+
+    private Integer tailleMaximale() {
+        HikariDataSource hikari = hikari();
+        return hikari != null ? hikari.getMaximumPoolSize() : null;
+    }
+
+    private HikariDataSource hikari() {
+        try {
+            // Le DataSource est instrumenté (JdbcInstrumentation): le pool est obtenu par unwrap
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Emprunt d'une connexion en cours.
+     */
+    private static final class Emprunt {
+
+        private final Thread thread;
+
+        private final String nomThread;
+
+        private final String appelant;
+
+        /** Pile complète de l'emprunt, null si la capture est désactivée */
+        private final StackTraceElement[] pile;
+
+        private final Instant date = Instant.now();
+
+        private final long debutNanos = System.nanoTime();
+
+        /** true une fois la connexion signalée comme détenue trop longtemps */
+        private volatile boolean signale;
+
+        Emprunt(Thread thread, String appelant, StackTraceElement[] pile) {
+            this.thread = thread;
+            this.nomThread = thread.getName();
+            this.appelant = appelant;
+            this.pile = pile;
+        }
+    }
+}
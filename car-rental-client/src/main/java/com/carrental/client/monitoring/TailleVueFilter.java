@@ -0,0 +1,125 @@
+package com.carrental.client.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Comptage des caractères écrits dans la réponse, pour mesurer la taille des vues rendues.
+ *
+ * Thymeleaf écrit la page au fil du rendu dans le writer de la réponse: le writer est enveloppé
+ * dans un compteur, déposé en attribut de requête, que RenduVuesDialect lit au début et à la fin
+ * de chaque template et fragment. Le compteur ne fait qu'additionner des longueurs.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 25)
+public class TailleVueFilter extends OncePerRequestFilter {
+
+    /** Attribut de requête portant le compteur de caractères de la réponse */
+    static final String ATTRIBUT_COMPTEUR = TailleVueFilter.class.getName() + ".compteur";
+
+    /**
+     * true si la taille des vues est mesurée
+     */
+    private final boolean active;
+
+    /**
+     * Constructeur avec la configuration de la mesure des vues.
+     *
+     * @param active false pour ne pas envelopper les réponses
+     */
+    public TailleVueFilter(@Value("${carrental.metrics.views.enabled:true}") boolean active) {
+        this.active = active;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !active || RequeteLogFilter.estRessourceStatique(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReponseComptee reponse = new ReponseComptee(response);
+        request.setAttribute(ATTRIBUT_COMPTEUR, reponse);
+        try {
+            chain.doFilter(request, reponse);
+        } finally {
+            request.removeAttribute(ATTRIBUT_COMPTEUR);
+        }
+    }
+
+    /**
+     * Nombre de caractères écrits dans la réponse de la requête rendue par Thymeleaf.
+     *
+     * @param request Requête en cours
+     * @return Caractères écrits, -1 si la réponse n'est pas comptée
+     */
+    static long position(HttpServletRequest request) {
+        Object reponse = request.getAttribute(ATTRIBUT_COMPTEUR);
+        return reponse instanceof ReponseComptee ? ((ReponseComptee) reponse).ecrits : -1;
+    }
+
+    /**
+     * Réponse dont le writer compte les caractères écrits.
+     */
+    private static final class ReponseComptee extends HttpServletResponseWrapper {
+
+        /** Caractères écrits (la réponse n'est écrite que par le thread de la requête) */
+        private long ecrits;
+
+        private PrintWriter writer;
+
+        ReponseComptee(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                Writer cible = super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] cbuf, int off, int len) throws IOException {
+                        ecrits += len;
+                        cible.write(cbuf, off, len);
+                    }
+
+                    @Override
+                    public void write(String str, int off, int len) throws IOException {
+                        ecrits += len;
+                        cible.write(str, off, len);
+                    }
+
+                    @Override
+                    public void write(int c) throws IOException {
+                        ecrits++;
+                        cible.write(c);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        cible.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        cible.close();
+                    }
+                }, false);
+            }
+            return writer;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.carrental.client.monitoring;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Trace d'une requête HTTP échantillonnée: arbre des spans (contrôleur, services, DAO, rendu
+ * de la vue) exécutés sur le thread de la requête.
+ *
+ * La trace est démarrée par TraceFilter pour une fraction des requêtes seulement; hors trace,
+ * l'instrumentation se limite à la lecture d'un ThreadLocal. Le nombre de spans d'une trace est
+ * borné: au-delà, les spans sont seulement comptés (une boucle de 10 000 appels ne fait pas une
+ * trace de 10 000 spans).
+ */
+public final class Trace {
+
+    private static final ThreadLocal<Trace> COURANTE = new ThreadLocal<>();
+
+    /** Identifiant de la trace (16 caractères hexadécimaux) */
+    private final String id;
+
+    /** Début de la trace (System.currentTimeMillis) */
+    private final long debutMillis;
+
+    /** Début de la trace (System.nanoTime), origine des dates des spans */
+    private final long debutNanos;
+
+    /** Nombre maximal de spans enregistrés */
+    private final int maxSpans;
+
+    /** Spans enregistrés, dans l'ordre d'ouverture */
+    private final List<Span> spans = new ArrayList<>();
+
+    /** Spans ouverts, du plus récent au plus ancien */
+    private final ArrayDeque<Span> pile = new ArrayDeque<>();
+
+    /** Nombre de spans non enregistrés car la trace était pleine */
+    private int spansIgnores;
+
+    private Trace(int maxSpans) {
+        this.id = Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+        this.debutMillis = System.currentTimeMillis();
+        this.debutNanos = System.nanoTime();
+        this.maxSpans = maxSpans;
+    }
+
+    /**
+     * Démarre une trace sur le thread courant.
+     *
+     * @param maxSpans Nombre maximal de spans enregistrés
+     * @return Trace démarrée
+     */
+    public static Trace demarrer(int maxSpans) {
+        Trace trace = new Trace(maxSpans);
+        COURANTE.set(trace);
+        return trace;
+    }
+
+    /**
+     * @return Trace du thread courant, null si la requête n'est pas échantillonnée
+     */
+    public static Trace courante() {
+        return COURANTE.get();
+    }
+
+    /**
+     * Termine la trace du thread courant.
+     */
+    public static void terminer() {
+        COURANTE.remove();
+    }
+
+    /**
+     * Ouvre un span, enfant du dernier span ouvert.
+     *
+     * @param nom Nom du span (ex: VoitureDAO.findByMat)
+     * @param type Type du span (http, controleur, service, dao, vue)
+     * @return Span ouvert, null si la trace est pleine
+     */
+    public Span ouvrir(String nom, String type) {
+        if (spans.size() >= maxSpans) {
+            spansIgnores++;
+            return null;
+        }
+        Span parent = pile.peek();
+        Span span = new Span(spans.size(), parent != null ? parent.id : -1, nom, type, System.nanoTime() - debutNanos);
+        spans.add(span);
+        pile.push(span);
+        return span;
+    }
+
+    /**
+     * Ferme un span ouvert par ouvrir (sans effet si span est null).
+     *
+     * @param span Span à fermer
+     */
+    public void fermer(Span span) {
+        if (span == null) {
+            return;
+        }
+        span.dureeNanos = System.nanoTime() - debutNanos - span.debutNanos;
+        if (pile.contains(span)) {
+            // Les spans enfants restés ouverts sont retirés avec leur parent
+            Span sommet;
+            do {
+                sommet = pile.pop();
+            } while (sommet != span);
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getDebutMillis() {
+        return debutMillis;
+    }
+
+    public List<Span> getSpans() {
+        return Collections.unmodifiableList(spans);
+    }
+
+    public int getSpansIgnores() {
+        return spansIgnores;
+    }
+
+    /**
+     * Opération chronométrée d'une trace.
+     */
+    public static final class Span {
+
+        /** Identifiant du span dans la trace (ordre d'ouverture) */
+        private final int id;
+
+        /** Identifiant du span parent, -1 pour la racine */
+        private final int parent;
+
+        private final String nom;
+
+        private final String type;
+
+        /** Début du span, en nanosecondes depuis le début de la trace */
+        private final long debutNanos;
+
+        /** Durée du span en nanosecondes, -1 tant qu'il est ouvert */
+        private long dureeNanos = -1;
+
+        private Span(int id, int parent, String nom, String type, long debutNanos) {
+            this.id = id;
+            this.parent = parent;
+            this.nom = nom;
+            this.type = type;
+            this.debutNanos = debutNanos;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getParent() {
+            return parent;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getDebutNanos() {
+            return debutNanos;
+        }
+
+        public long getDureeNanos() {
+            return dureeNanos;
+        }
+    }
+}
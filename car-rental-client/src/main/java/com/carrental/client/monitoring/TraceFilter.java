@@ -0,0 +1,133 @@
+package com.carrental.client.monitoring;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Traçage d'un échantillon des requêtes HTTP.
+ *
+ * Une requête sur carrental.tracing.sample-rate est tracée: un span racine couvre la requête,
+ * les contrôleurs, services et DAO ajoutent leurs spans (TraceInstrumentation), ainsi que le
+ * rendu de la vue (TraceVueInterceptor). À la fin de la requête, la trace est exportée en une
+ * ligne JSON dans le logger "carrental.traces" (fichier tournant logs/traces.log, voir
+ * logback-spring.xml), que l'on peut lire directement ou faire suivre à un collecteur.
+ *
+ * L'échantillonnage et la limite de spans par trace bornent le surcoût: une requête non tracée
+ * ne paie qu'un tirage aléatoire.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)
+public class TraceFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG_TRACES = LoggerFactory.getLogger("carrental.traces");
+
+    private static final Logger log = LoggerFactory.getLogger(TraceFilter.class);
+
+    /**
+     * Fraction des requêtes tracées (0: aucune, 1: toutes)
+     */
+    private final double tauxEchantillonnage;
+
+    /**
+     * Nombre maximal de spans par trace
+     */
+    private final int maxSpans;
+
+    /**
+     * Sérialisation JSON des traces
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructeur avec la configuration du traçage.
+     *
+     * @param active false pour désactiver le traçage
+     * @param tauxEchantillonnage Fraction des requêtes tracées (entre 0 et 1)
+     * @param maxSpans Nombre maximal de spans par trace
+     * @param objectMapper Sérialisation JSON des traces
+     */
+    @Autowired
+    public TraceFilter(@Value("${carrental.tracing.enabled:true}") boolean active,
+                       @Value("${carrental.tracing.sample-rate:0.01}") double tauxEchantillonnage,
+                       @Value("${carrental.tracing.max-spans:500}") int maxSpans,
+                       ObjectMapper objectMapper) {
+        if (tauxEchantillonnage < 0 || tauxEchantillonnage > 1) {
+            throw new IllegalArgumentException("Le taux d'échantillonnage des traces doit être entre 0 et 1");
+        }
+        this.tauxEchantillonnage = active ? tauxEchantillonnage : 0;
+        this.maxSpans = maxSpans;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return tauxEchantillonnage == 0 || RequeteLogFilter.estRessourceStatique(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (ThreadLocalRandom.current().nextDouble() >= tauxEchantillonnage) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Trace trace = Trace.demarrer(maxSpans);
+        Trace.Span racine = trace.ouvrir(request.getMethod() + " " + request.getRequestURI(), "http");
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            trace.fermer(racine);
+            Trace.terminer();
+            exporter(trace, request, response);
+        }
+    }
+
+    /**
+     * Écrit la trace en une ligne JSON.
+     */
+    private void exporter(Trace trace, HttpServletRequest request, HttpServletResponse response) {
+        List<Map<String, Object>> spans = new ArrayList<>(trace.getSpans().size());
+        for (Trace.Span span : trace.getSpans()) {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("id", span.getId());
+            s.put("parent", span.getParent());
+            s.put("nom", span.getNom());
+            s.put("type", span.getType());
+            s.put("debut_us", span.getDebutNanos() / 1_000);
+            s.put("duree_us", span.getDureeNanos() / 1_000);
+            spans.add(s);
+        }
+        Map<String, Object> ligne = new LinkedHashMap<>();
+        ligne.put("trace", trace.getId());
+        ligne.put("date", Instant.ofEpochMilli(trace.getDebutMillis()).toString());
+        ligne.put("endpoint", request.getMethod() + " " + RequeteLogFilter.endpoint(request));
+        ligne.put("statut", response.getStatus());
+        ligne.put("spans_ignores", trace.getSpansIgnores());
+        ligne.put("spans", spans);
+        try {
+            LOG_TRACES.info(objectMapper.writeValueAsString(ligne));
+        } catch (JsonProcessingException e) {
+            log.warn("Export de la trace {} impossible", trace.getId(), e);
+        }
+    }
+}
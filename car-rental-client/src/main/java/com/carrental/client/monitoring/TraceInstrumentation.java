@@ -0,0 +1,110 @@
+package com.carrental.client.monitoring;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Controller;
+import org.springframework.stereotype.Repository;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spans de trace autour des méthodes des contrôleurs, des services et des DAO.
+ *
+ * Les beans @Controller, @Service et @Repository de l'application sont enveloppés dans un proxy
+ * qui ouvre un span pour chaque appel de méthode quand la requête en cours est tracée (voir
+ * TraceFilter). Pour une requête non échantillonnée, le proxy ne fait que lire la trace courante
+ * (null) et appeler la méthode.
+ *
+ * Désactivée (carrental.tracing.enabled=false), l'instrumentation ne crée aucun proxy.
+ */
+@Component
+public class TraceInstrumentation implements BeanPostProcessor {
+
+    /** Package de l'application */
+    private static final String PACKAGE_APPLICATION = "com.carrental.client.";
+
+    /**
+     * true si les beans sont instrumentés
+     */
+    private final boolean active;
+
+    /**
+     * Constructeur avec la configuration du traçage.
+     *
+     * @param active true pour instrumenter les contrôleurs, services et DAO
+     */
+    public TraceInstrumentation(@Value("${carrental.tracing.enabled:true}") boolean active) {
+        this.active = active;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!active) {
+            return bean;
+        }
+        Class<?> type = AopUtils.getTargetClass(bean);
+        if (!type.getName().startsWith(PACKAGE_APPLICATION)) {
+            return bean;
+        }
+        String typeSpan = AnnotatedElementUtils.hasAnnotation(type, Controller.class) ? "controleur"
+                : AnnotatedElementUtils.hasAnnotation(type, Service.class) ? "service"
+                : AnnotatedElementUtils.hasAnnotation(type, Repository.class) ? "dao"
+                : null;
+        if (typeSpan == null) {
+            return bean;
+        }
+        Spans spans = new Spans(type.getSimpleName(), typeSpan);
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, spans);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(spans);
+        return proxyFactory.getProxy(type.getClassLoader());
+    }
+
+    /**
+     * Intercepteur qui ouvre un span par appel de méthode.
+     */
+    private static final class Spans implements MethodInterceptor {
+
+        /** Nom de la classe du bean */
+        private final String classe;
+
+        /** Type des spans (controleur, service, dao) */
+        private final String type;
+
+        /** Nom des spans de chaque méthode (Classe.methode) */
+        private final ConcurrentHashMap<Method, String> noms = new ConcurrentHashMap<>();
+
+        Spans(String classe, String type) {
+            this.classe = classe;
+            this.type = type;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Trace trace = Trace.courante();
+            if (trace == null || invocation.getMethod().getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            String nom = noms.computeIfAbsent(invocation.getMethod(), m -> classe + "." + m.getName());
+            Trace.Span span = trace.ouvrir(nom, type);
+            try {
+                return invocation.proceed();
+            } finally {
+                trace.fermer(span);
+            }
+        }
+    }
+}
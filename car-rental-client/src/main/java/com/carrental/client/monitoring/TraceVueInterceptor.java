@@ -0,0 +1,42 @@
+package com.carrental.client.monitoring;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Span de trace autour du rendu de la vue (template Thymeleaf).
+ *
+ * postHandle est appelé après le contrôleur, juste avant le rendu; afterCompletion après le rendu.
+ * Les redirections n'ont pas de rendu et n'ont donc pas de span.
+ */
+@Component
+public class TraceVueInterceptor implements HandlerInterceptor {
+
+    /** Attribut de requête portant le span de rendu ouvert */
+    private static final String ATTRIBUT_SPAN = TraceVueInterceptor.class.getName() + ".span";
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        Trace trace = Trace.courante();
+        if (trace == null || modelAndView == null || modelAndView.getViewName() == null
+                || modelAndView.getViewName().startsWith("redirect:")) {
+            return;
+        }
+        request.setAttribute(ATTRIBUT_SPAN, trace.ouvrir("vue " + modelAndView.getViewName(), "vue"));
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object span = request.getAttribute(ATTRIBUT_SPAN);
+        Trace trace = Trace.courante();
+        if (span != null && trace != null) {
+            trace.fermer((Trace.Span) span);
+            request.removeAttribute(ATTRIBUT_SPAN);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.carrental.client.service;
+
+import com.carrental.client.model.Suggestion;
+import com.carrental.client.model.Voiture;
+import com.carrental.client.util.InvertedIndex;
+import com.carrental.client.util.Trie;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autocomplétion des marques et modèles, appelée à chaque frappe dans le filtre par marque.
+ *
+ * Les suggestions sont servies par un trie en mémoire (Trie) construit sur la marque,
+ * le modèle et "marque modèle" de chaque voiture visible, pondérés par le nombre de locations:
+ * les voitures les plus louées sont proposées en premier. À partir de 3 caractères saisis,
+ * une faute de frappe est tolérée ("reanult" propose "Renault").
+ *
+ * Comme pour la copie en colonnes, le trie est reconstruit à la première demande
+ * qui suit une modification du catalogue.
+ */
+@Service
+public class AutocompletionService implements CatalogueListener {
+
+    /** Nombre maximal de suggestions retournées */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    /** Longueur de saisie minimale pour tolérer une faute de frappe */
+    private static final int LONGUEUR_TOLERANCE = 3;
+
+    /**
+     * Voitures connues, indexées par immatriculation
+     */
+    private final ConcurrentHashMap<String, Voiture> voitures = new ConcurrentHashMap<>();
+
+    /**
+     * Trie courant
+     */
+    private volatile Trie<Suggestion> trie = new Trie.Builder<Suggestion>().build(MAX_SUGGESTIONS);
+
+    /**
+     * true si le trie doit être reconstruit avant la prochaine suggestion
+     */
+    private volatile boolean perime = true;
+
+    @Override
+    public void catalogueRecharge(Collection<Voiture> nouvelles) {
+        voitures.clear();
+        for (Voiture voiture : nouvelles) {
+            voitures.put(voiture.getMat(), voiture);
+        }
+        perime = true;
+    }
+
+    @Override
+    public void voitureModifiee(Voiture voiture) {
+        voitures.put(voiture.getMat(), voiture);
+        perime = true;
+    }
+
+    @Override
+    public void voitureSupprimee(String mat) {
+        voitures.remove(mat);
+        perime = true;
+    }
+
+    /**
+     * Suggère des marques et modèles pour une saisie partielle.
+     *
+     * @param saisie Texte saisi par le client
+     * @param limite Nombre maximal de suggestions (plafonné à MAX_SUGGESTIONS)
+     * @return Suggestions, des plus pertinentes aux moins pertinentes
+     */
+    public List<Suggestion> suggerer(String saisie, int limite) {
+        String prefixe = InvertedIndex.normaliser(saisie);
+        if (prefixe.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        return getTrie().suggerer(prefixe, prefixe.length() >= LONGUEUR_TOLERANCE, limite);
+    }
+
+    private Trie<Suggestion> getTrie() {
+        if (perime) {
+            synchronized (this) {
+                if (perime) {
+                    perime = false;
+                    trie = construire(voitures.values());
+                }
+            }
+        }
+        return trie;
+    }
+
+    /**
+     * Construit le trie: une suggestion par marque et une par modèle, partagées
+     * entre leurs différentes clés pour ne jamais proposer deux fois la même.
+     */
+    private static Trie<Suggestion> construire(Collection<Voiture> voitures) {
+        Map<String, Suggestion> parMarque = new HashMap<>();
+        Map<String, Suggestion> parModele = new HashMap<>();
+        Trie.Builder<Suggestion> builder = new Trie.Builder<>();
+        for (Voiture voiture : voitures) {
+            // Les voitures en panne ne sont jamais proposées aux clients
+            if ("PANNE".equals(voiture.getDisp()) || voiture.getMarque() == null) {
+                continue;
+            }
+            String cleMarque = InvertedIndex.normaliser(voiture.getMarque());
+            Suggestion marque = parMarque.computeIfAbsent(cleMarque,
+                    c -> new Suggestion(voiture.getMarque(), voiture.getMarque(), "MARQUE"));
+            builder.add(cleMarque, marque, voiture.getNbloc());
+
+            if (voiture.getModel() != null) {
+                String cleModele = InvertedIndex.normaliser(voiture.getModel());
+                String cleComplete = cleMarque + " " + cleModele;
+                Suggestion modele = parModele.computeIfAbsent(cleComplete,
+                        c -> new Suggestion(voiture.getMarque() + " " + voiture.getModel(), voiture.getMarque(), "MODELE"));
+                builder.add(cleModele, modele, voiture.getNbloc());
+                builder.add(cleComplete, modele, voiture.getNbloc());
+            }
+        }
+        return builder.build(MAX_SUGGESTIONS);
+    }
+}
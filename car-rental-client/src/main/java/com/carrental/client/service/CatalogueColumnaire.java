@@ -0,0 +1,371 @@
+package com.carrental.client.service;
+
+import com.carrental.client.model.Voiture;
+import com.carrental.client.util.Bitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copie immuable du catalogue organisée en colonnes.
+ *
+ * Chaque colonne est un tableau primitif (prix, places) ou un tableau de codes vers un
+ * dictionnaire (marque, état). Pour chaque valeur de colonne, un bitmap compressé indique
+ * les lignes qui la portent: un filtre multicritère devient une suite de ET/OU entre
+ * bitmaps. Les voitures en panne ne figurent pas dans la copie: elles ne sont
+ * jamais proposées aux clients.
+ *
+ * La modification d'une voiture déjà présente (location, retour) produit une nouvelle copie
+ * par avec(), sans reconstruire les dictionnaires ni les bitmaps des valeurs inchangées.
+ */
+public final class CatalogueColumnaire {
+
+    /** Nombre de lignes (voitures) */
+    private final int taille;
+
+    /** Immatriculation de chaque ligne */
+    private final String[] mats;
+
+    /** Code de marque de chaque ligne (indice dans le dictionnaire des marques) */
+    private final int[] codesMarque;
+
+    /** Dictionnaire des marques, trié alphabétiquement */
+    private final String[] marques;
+
+    /** Nombre de places de chaque ligne */
+    private final int[] nbplaces;
+
+    /** Prix journalier de chaque ligne */
+    private final double[] prix;
+
+    /** Code d'état de chaque ligne (indice dans le dictionnaire des états) */
+    private final int[] codesDisp;
+
+    /** Dictionnaire des états, trié alphabétiquement */
+    private final String[] disps;
+
+    /** Bitmap des lignes par code de marque */
+    private final Bitmap[] parMarque;
+
+    /** Bitmap des lignes par code d'état */
+    private final Bitmap[] parDisp;
+
+    /** Valeurs distinctes du nombre de places, triées */
+    private final int[] valeursPlaces;
+
+    /** Bitmap des lignes par valeur de places (même ordre que valeursPlaces) */
+    private final Bitmap[] parPlaces;
+
+    /** Bornes supérieures (exclues) des tranches de prix; la dernière tranche est ouverte */
+    private final double[] bornesPrix;
+
+    /** Bitmap des lignes par tranche de prix (bornesPrix.length + 1 tranches) */
+    private final Bitmap[] parTranchePrix;
+
+    private CatalogueColumnaire(List<Voiture> voitures, double[] bornesPrix) {
+        this.taille = voitures.size();
+        this.bornesPrix = bornesPrix.clone();
+        this.mats = new String[taille];
+        this.codesMarque = new int[taille];
+        this.nbplaces = new int[taille];
+        this.prix = new double[taille];
+        this.codesDisp = new int[taille];
+
+        this.marques = dictionnaire(voitures, true);
+        this.disps = dictionnaire(voitures, false);
+        Map<String, Integer> codeMarque = codes(marques);
+        Map<String, Integer> codeDisp = codes(disps);
+        this.valeursPlaces = voitures.stream().mapToInt(Voiture::getNbplace).distinct().sorted().toArray();
+
+        this.parMarque = bitmaps(marques.length);
+        this.parDisp = bitmaps(disps.length);
+        this.parPlaces = bitmaps(valeursPlaces.length);
+        this.parTranchePrix = bitmaps(bornesPrix.length + 1);
+
+        for (int i = 0; i < taille; i++) {
+            Voiture voiture = voitures.get(i);
+            mats[i] = voiture.getMat();
+            codesMarque[i] = codeMarque.get(voiture.getMarque());
+            nbplaces[i] = voiture.getNbplace();
+            prix[i] = voiture.getPrix();
+            codesDisp[i] = codeDisp.get(voiture.getDisp());
+
+            parMarque[codesMarque[i]].set(i);
+            parDisp[codesDisp[i]].set(i);
+            parPlaces[Arrays.binarySearch(valeursPlaces, nbplaces[i])].set(i);
+            parTranchePrix[tranche(prix[i])].set(i);
+        }
+
+        // Représentation la plus compacte pour chaque bitmap (les valeurs rares deviennent creuses)
+        for (Bitmap[] colonne : new Bitmap[][]{parMarque, parDisp, parPlaces, parTranchePrix}) {
+            for (Bitmap bitmap : colonne) {
+                bitmap.compresser();
+            }
+        }
+    }
+
+    /**
+     * Copie des colonnes d'une autre copie, modifiée ensuite par avec().
+     * Les tableaux de bitmaps sont copiés, les bitmaps eux-mêmes restent partagés.
+     */
+    private CatalogueColumnaire(CatalogueColumnaire source) {
+        this.taille = source.taille;
+        this.bornesPrix = source.bornesPrix;
+        this.mats = source.mats;
+        this.codesMarque = source.codesMarque.clone();
+        this.marques = source.marques;
+        this.nbplaces = source.nbplaces.clone();
+        this.prix = source.prix.clone();
+        this.codesDisp = source.codesDisp.clone();
+        this.disps = source.disps;
+        this.parMarque = source.parMarque.clone();
+        this.parDisp = source.parDisp.clone();
+        this.valeursPlaces = source.valeursPlaces;
+        this.parPlaces = source.parPlaces.clone();
+        this.parTranchePrix = source.parTranchePrix.clone();
+    }
+
+    /**
+     * Construit la copie en colonnes d'un ensemble de voitures (voitures en panne exclues).
+     *
+     * @param voitures Voitures du catalogue
+     * @param bornesPrix Bornes des tranches de prix, croissantes
+     * @return Copie en colonnes
+     */
+    public static CatalogueColumnaire of(Collection<Voiture> voitures, double[] bornesPrix) {
+        List<Voiture> visibles = new ArrayList<>(voitures.size());
+        for (Voiture voiture : voitures) {
+            if (!"PANNE".equals(voiture.getDisp())) {
+                visibles.add(voiture);
+            }
+        }
+        // Ordre stable des lignes: par immatriculation
+        visibles.sort((a, b) -> a.getMat().compareTo(b.getMat()));
+        return new CatalogueColumnaire(visibles, bornesPrix);
+    }
+
+    /**
+     * Copie mise à jour après la modification d'une voiture déjà présente dans cette copie.
+     * Seuls les bitmaps des valeurs que la voiture quitte et rejoint sont recalculés;
+     * cette copie n'est pas modifiée.
+     *
+     * @param voiture Voiture modifiée
+     * @return Nouvelle copie (ou cette copie si aucune colonne ne change), ou null si la modification
+     *         demande une reconstruction complète: voiture absente de la copie, passée en panne,
+     *         ou nouvelle marque, nouvel état ou nouveau nombre de places
+     */
+    public CatalogueColumnaire avec(Voiture voiture) {
+        int ligne = Arrays.binarySearch(mats, voiture.getMat());
+        int codeMarque = Arrays.binarySearch(marques, voiture.getMarque());
+        int codeDisp = Arrays.binarySearch(disps, voiture.getDisp());
+        int indicePlaces = Arrays.binarySearch(valeursPlaces, voiture.getNbplace());
+        // Les voitures en panne ne sont jamais dans le dictionnaire des états
+        if (ligne < 0 || codeMarque < 0 || codeDisp < 0 || indicePlaces < 0) {
+            return null;
+        }
+        if (codesMarque[ligne] == codeMarque && codesDisp[ligne] == codeDisp
+                && nbplaces[ligne] == voiture.getNbplace() && prix[ligne] == voiture.getPrix()) {
+            return this;
+        }
+
+        CatalogueColumnaire copie = new CatalogueColumnaire(this);
+        deplacer(copie.parMarque, codesMarque[ligne], codeMarque, ligne);
+        deplacer(copie.parDisp, codesDisp[ligne], codeDisp, ligne);
+        deplacer(copie.parPlaces, Arrays.binarySearch(valeursPlaces, nbplaces[ligne]), indicePlaces, ligne);
+        deplacer(copie.parTranchePrix, tranche(prix[ligne]), tranche(voiture.getPrix()), ligne);
+        copie.codesMarque[ligne] = codeMarque;
+        copie.codesDisp[ligne] = codeDisp;
+        copie.nbplaces[ligne] = voiture.getNbplace();
+        copie.prix[ligne] = voiture.getPrix();
+        return copie;
+    }
+
+    /**
+     * Déplace une ligne du bitmap d'une valeur vers celui d'une autre dans une colonne.
+     */
+    private static void deplacer(Bitmap[] colonne, int ancienne, int nouvelle, int ligne) {
+        if (ancienne != nouvelle) {
+            colonne[ancienne] = colonne[ancienne].avec(ligne, false);
+            colonne[nouvelle] = colonne[nouvelle].avec(ligne, true);
+        }
+    }
+
+    private static String[] dictionnaire(List<Voiture> voitures, boolean marque) {
+        return voitures.stream()
+                .map(v -> marque ? v.getMarque() : v.getDisp())
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+    }
+
+    private static Map<String, Integer> codes(String[] dictionnaire) {
+        Map<String, Integer> codes = new HashMap<>();
+        for (int i = 0; i < dictionnaire.length; i++) {
+            codes.put(dictionnaire[i], i);
+        }
+        return codes;
+    }
+
+    private Bitmap[] bitmaps(int nombre) {
+        Bitmap[] bitmaps = new Bitmap[nombre];
+        for (int i = 0; i < nombre; i++) {
+            bitmaps[i] = new Bitmap(taille);
+        }
+        return bitmaps;
+    }
+
+    /**
+     * @return Indice de la tranche de prix contenant ce prix
+     */
+    public int tranche(double p) {
+        int t = 0;
+        while (t < bornesPrix.length && p >= bornesPrix[t]) {
+            t++;
+        }
+        return t;
+    }
+
+    /**
+     * Bitmap des lignes dont le prix est inférieur ou égal à un maximum.
+     * Les tranches de prix entièrement sous le maximum sont prises telles quelles;
+     * seules les lignes de la tranche contenant le maximum sont comparées une à une.
+     *
+     * @param prixMax Prix maximum
+     * @return Bitmap des lignes correspondantes
+     */
+    public Bitmap prixAuPlus(double prixMax) {
+        int limite = tranche(prixMax);
+        Bitmap resultat = new Bitmap(taille);
+        for (int t = 0; t < limite; t++) {
+            resultat = resultat.or(parTranchePrix[t]);
+        }
+        Bitmap partielle = new Bitmap(taille);
+        parTranchePrix[limite].forEach(i -> {
+            if (prix[i] <= prixMax) {
+                partielle.set(i);
+            }
+        });
+        return resultat.or(partielle);
+    }
+
+    /**
+     * Bitmap des lignes dont la marque contient un texte (insensible à la casse).
+     * Le test porte sur le dictionnaire des marques, pas sur chaque ligne.
+     *
+     * @param texte Texte recherché
+     * @return Union des bitmaps des marques correspondantes
+     */
+    public Bitmap marqueContient(String texte) {
+        String recherche = texte.toLowerCase();
+        Bitmap resultat = new Bitmap(taille);
+        for (int code = 0; code < marques.length; code++) {
+            if (marques[code].toLowerCase().contains(recherche)) {
+                resultat = resultat.or(parMarque[code]);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Bitmap des lignes ayant exactement un nombre de places.
+     *
+     * @param nbplace Nombre de places
+     * @return Bitmap des lignes correspondantes (vide si aucune voiture n'a ce nombre de places)
+     */
+    public Bitmap places(int nbplace) {
+        int i = Arrays.binarySearch(valeursPlaces, nbplace);
+        return i >= 0 ? parPlaces[i] : new Bitmap(taille);
+    }
+
+    /**
+     * Bitmap des lignes dans un état.
+     *
+     * @param disp État (DISPONIBLE, LOUEE)
+     * @return Bitmap des lignes correspondantes (vide si aucune voiture n'est dans cet état)
+     */
+    public Bitmap etat(String disp) {
+        int code = Arrays.binarySearch(disps, disp);
+        return code >= 0 ? parDisp[code] : new Bitmap(taille);
+    }
+
+    /**
+     * @return Mémoire occupée par les bitmaps de la copie, en octets
+     */
+    public long getOctetsBitmaps() {
+        long total = 0;
+        for (Bitmap[] colonne : new Bitmap[][]{parMarque, parDisp, parPlaces, parTranchePrix}) {
+            for (Bitmap bitmap : colonne) {
+                total += bitmap.getOctets();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @param mat Immatriculation
+     * @return true si la voiture figure dans la copie
+     */
+    public boolean contient(String mat) {
+        return Arrays.binarySearch(mats, mat) >= 0;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    public String getMat(int ligne) {
+        return mats[ligne];
+    }
+
+    public String[] getMarques() {
+        return marques;
+    }
+
+    public Bitmap getParMarque(int code) {
+        return parMarque[code];
+    }
+
+    public String[] getDisps() {
+        return disps;
+    }
+
+    public Bitmap getParDisp(int code) {
+        return parDisp[code];
+    }
+
+    public int[] getValeursPlaces() {
+        return valeursPlaces;
+    }
+
+    public Bitmap getParPlaces(int indice) {
+        return parPlaces[indice];
+    }
+
+    public double[] getBornesPrix() {
+        return bornesPrix;
+    }
+
+    public Bitmap getParTranchePrix(int tranche) {
+        return parTranchePrix[tranche];
+    }
+
+    public int getCodeMarque(int ligne) {
+        return codesMarque[ligne];
+    }
+
+    public int getNbplace(int ligne) {
+        return nbplaces[ligne];
+    }
+
+    public double getPrix(int ligne) {
+        return prix[ligne];
+    }
+
+    public int getCodeDisp(int ligne) {
+        return codesDisp[ligne];
+    }
+}
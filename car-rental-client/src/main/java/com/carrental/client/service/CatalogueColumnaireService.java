@@ -0,0 +1,169 @@
+package com.carrental.client.service;
+
+import com.carrental.client.model.Voiture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintient la copie en colonnes du catalogue (CatalogueColumnaire) à partir
+ * des notifications du CatalogueService.
+ *
+ * Les lectures ne font que lire la copie courante, jamais de reconstruction.
+ * Une location ou un retour ne change que quelques colonnes d'une ligne: la nouvelle
+ * copie est produite de façon incrémentale (CatalogueColumnaire.avec) par le thread qui notifie.
+ * Les autres modifications (voiture ajoutée, supprimée ou passée en panne, nouvelle marque...)
+ * planifient une reconstruction complète sur un thread dédié; plusieurs modifications
+ * rapprochées ne coûtent qu'une seule reconstruction. Un rechargement du catalogue
+ * construit sa copie à part et la publie en une seule affectation.
+ */
+@Service
+public class CatalogueColumnaireService implements CatalogueListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogueColumnaireService.class);
+
+    /**
+     * Verrou des modifications des voitures connues et de la publication de la copie
+     */
+    private final Object verrou = new Object();
+
+    /**
+     * Voitures connues, indexées par immatriculation (remplacées en bloc à chaque rechargement).
+     * Protégé par verrou.
+     */
+    private Map<String, Voiture> voitures = new HashMap<>();
+
+    /**
+     * Bornes des tranches de prix (ex: 50, 80, 120 donne <50, 50-80, 80-120, >=120)
+     */
+    private final double[] bornesPrix;
+
+    /**
+     * Copie en colonnes courante
+     */
+    private volatile CatalogueColumnaire copie;
+
+    /**
+     * true si une reconstruction est déjà planifiée
+     */
+    private final AtomicBoolean planifie = new AtomicBoolean();
+
+    /**
+     * Thread de reconstruction de la copie
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Constructeur avec la configuration des tranches de prix.
+     *
+     * @param bornesPrix Bornes des tranches de prix, séparées par des virgules
+     */
+    public CatalogueColumnaireService(@Value("${carrental.facettes.bornes-prix:50,80,120}") String bornesPrix) {
+        this.bornesPrix = Arrays.stream(bornesPrix.split(","))
+                .map(String::trim)
+                .mapToDouble(Double::parseDouble)
+                .sorted()
+                .toArray();
+        this.copie = CatalogueColumnaire.of(voitures.values(), this.bornesPrix);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "catalogue-colonnes-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void catalogueRecharge(Collection<Voiture> nouvelles) {
+        // Construction à côté de la copie courante: les lectures ne voient jamais de copie partielle
+        Map<String, Voiture> rechargees = new HashMap<>();
+        for (Voiture voiture : nouvelles) {
+            rechargees.put(voiture.getMat(), voiture);
+        }
+        CatalogueColumnaire nouvelle = CatalogueColumnaire.of(rechargees.values(), bornesPrix);
+        synchronized (verrou) {
+            voitures = rechargees;
+            copie = nouvelle;
+        }
+    }
+
+    @Override
+    public void voitureModifiee(Voiture voiture) {
+        synchronized (verrou) {
+            voitures.put(voiture.getMat(), voiture);
+            CatalogueColumnaire modifiee = copie.avec(voiture);
+            if (modifiee != null) {
+                copie = modifiee;
+                return;
+            }
+            // Voiture en panne déjà absente de la copie: rien à reconstruire
+            if ("PANNE".equals(voiture.getDisp()) && !copie.contient(voiture.getMat())) {
+                return;
+            }
+        }
+        planifier();
+    }
+
+    @Override
+    public void voitureSupprimee(String mat) {
+        synchronized (verrou) {
+            voitures.remove(mat);
+        }
+        planifier();
+    }
+
+    /**
+     * Planifie une reconstruction de la copie, sauf s'il y en a déjà une en attente.
+     */
+    private void planifier() {
+        if (planifie.compareAndSet(false, true)) {
+            executor.execute(this::reconstruireSafely);
+        }
+    }
+
+    private void reconstruireSafely() {
+        // Remis à false avant la lecture: une modification pendant le calcul planifiera un nouveau calcul
+        planifie.set(false);
+        try {
+            reconstruire();
+        } catch (RuntimeException e) {
+            log.error("Erreur lors de la reconstruction de la copie en colonnes du catalogue", e);
+        }
+    }
+
+    /**
+     * Reconstruit la copie à partir des voitures connues. Sous le verrou: une modification
+     * incrémentale ne peut pas être appliquée à l'ancienne copie puis perdue à la publication.
+     */
+    void reconstruire() {
+        synchronized (verrou) {
+            copie = CatalogueColumnaire.of(voitures.values(), bornesPrix);
+        }
+    }
+
+    /**
+     * Retourne la copie en colonnes courante.
+     *
+     * @return Copie en colonnes du catalogue visible par les clients
+     */
+    public CatalogueColumnaire getCopie() {
+        return copie;
+    }
+
+    /**
+     * Arrête le thread de reconstruction à l'arrêt de l'application.
+     */
+    @PreDestroy
+    public void arreter() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,36 @@
+package com.carrental.client.service;
+
+import com.carrental.client.model.Voiture;
+
+import java.util.Collection;
+
+/**
+ * Abonné aux changements de la copie en mémoire du catalogue (CatalogueService).
+ *
+ * Les index en mémoire (recherche, facettes, tris...) implémentent cette interface pour
+ * être reconstruits lors d'un rechargement complet et mis à jour voiture par voiture
+ * lors d'une modification. Les objets Voiture reçus sont partagés: ils ne doivent pas être modifiés.
+ */
+public interface CatalogueListener {
+
+    /**
+     * Appelée après un rechargement complet du catalogue.
+     *
+     * @param voitures Toutes les voitures, y compris celles en panne
+     */
+    void catalogueRecharge(Collection<Voiture> voitures);
+
+    /**
+     * Appelée lorsqu'une voiture a été ajoutée ou modifiée (état, prix, nombre de locations...).
+     *
+     * @param voiture Nouvelle version de la voiture
+     */
+    void voitureModifiee(Voiture voiture);
+
+    /**
+     * Appelée lorsqu'une voiture n'existe plus dans la base de données.
+     *
+     * @param mat Immatriculation de la voiture supprimée
+     */
+    void voitureSupprimee(String mat);
+}
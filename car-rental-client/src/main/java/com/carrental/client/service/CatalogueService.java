@@ -0,0 +1,149 @@
+package com.carrental.client.service;
+
+import com.carrental.client.dao.VoitureDAO;
+import com.carrental.client.model.Voiture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copie en mémoire du catalogue des voitures.
+ *
+ * Ce service charge la table voiture au démarrage puis la recharge périodiquement
+ * (la base est partagée avec l'application d'administration). Entre deux rechargements,
+ * chaque modification faite par cette application (location, retour) est répercutée
+ * voiture par voiture. Les index en mémoire (CatalogueListener) sont notifiés
+ * de chaque changement et se mettent à jour de façon incrémentale.
+ */
+@Service
+public class CatalogueService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogueService.class);
+
+    /**
+     * Accès aux données des voitures
+     */
+    private final VoitureDAO voitureDAO;
+
+    /**
+     * Abonnés aux changements du catalogue
+     */
+    private final List<CatalogueListener> listeners;
+
+    /**
+     * Voitures du catalogue indexées par immatriculation
+     */
+    private final ConcurrentHashMap<String, Voiture> voitures = new ConcurrentHashMap<>();
+
+    /**
+     * true une fois le catalogue chargé au moins une fois
+     */
+    private volatile boolean charge;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param voitureDAO Accès aux données des voitures
+     * @param listeners Abonnés aux changements du catalogue (index en mémoire)
+     */
+    @Autowired
+    public CatalogueService(VoitureDAO voitureDAO, List<CatalogueListener> listeners) {
+        this.voitureDAO = voitureDAO;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Charge le catalogue au démarrage de l'application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiser() {
+        rechargerSafely();
+    }
+
+    /**
+     * Recharge périodiquement le catalogue pour intégrer les modifications
+     * faites par l'application d'administration.
+     */
+    @Scheduled(initialDelayString = "${carrental.catalogue.reload-millis:300000}",
+               fixedDelayString = "${carrental.catalogue.reload-millis:300000}")
+    public void rechargerSafely() {
+        try {
+            recharger();
+        } catch (RuntimeException e) {
+            log.error("Erreur lors du chargement du catalogue", e);
+        }
+    }
+
+    /**
+     * Recharge entièrement le catalogue et reconstruit tous les index abonnés.
+     */
+    public synchronized void recharger() {
+        List<Voiture> toutes = voitureDAO.findAll();
+        ConcurrentHashMap<String, Voiture> nouvelles = new ConcurrentHashMap<>();
+        for (Voiture voiture : toutes) {
+            nouvelles.put(voiture.getMat(), voiture);
+        }
+        voitures.keySet().retainAll(nouvelles.keySet());
+        voitures.putAll(nouvelles);
+
+        Collection<Voiture> vue = Collections.unmodifiableCollection(toutes);
+        for (CatalogueListener listener : listeners) {
+            listener.catalogueRecharge(vue);
+        }
+        charge = true;
+    }
+
+    /**
+     * Relit une voiture dans la base de données et notifie les index de sa modification.
+     * À appeler après toute écriture sur la table voiture faite par cette application.
+     *
+     * @param mat Immatriculation de la voiture modifiée
+     */
+    public synchronized void voitureModifiee(String mat) {
+        Optional<Voiture> voiture = voitureDAO.findByMat(mat);
+        if (voiture.isPresent()) {
+            voitures.put(mat, voiture.get());
+            for (CatalogueListener listener : listeners) {
+                listener.voitureModifiee(voiture.get());
+            }
+        } else if (voitures.remove(mat) != null) {
+            for (CatalogueListener listener : listeners) {
+                listener.voitureSupprimee(mat);
+            }
+        }
+    }
+
+    /**
+     * Recherche une voiture dans la copie en mémoire.
+     *
+     * @param mat Immatriculation de la voiture
+     * @return Optional contenant la voiture si elle est connue, vide sinon
+     */
+    public Optional<Voiture> findByMat(String mat) {
+        return Optional.ofNullable(voitures.get(mat));
+    }
+
+    /**
+     * @return Toutes les voitures du catalogue en mémoire (y compris celles en panne)
+     */
+    public Collection<Voiture> getVoitures() {
+        return Collections.unmodifiableCollection(voitures.values());
+    }
+
+    /**
+     * @return true si le catalogue a été chargé au moins une fois (et les index abonnés construits)
+     */
+    public boolean isCharge() {
+        return charge;
+    }
+}
@@ -0,0 +1,153 @@
+package com.carrental.client.service;
+
+import com.carrental.client.model.Voiture;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Vues triées du catalogue (par prix, par popularité, par nombre de places).
+ *
+ * Plutôt qu'une requête ORDER BY par tri demandé, chaque vue est un tableau de voitures
+ * déjà trié, tenu à jour à chaque modification d'une voiture: l'ancienne entrée est retirée
+ * et la nouvelle insérée à sa place par recherche dichotomique. Une page triée et filtrée
+ * se lit alors en parcourant la vue dans l'ordre voulu et en ne gardant que les voitures
+ * qui passent le filtre.
+ *
+ * Les tableaux ne sont jamais modifiés en place (copie à l'écriture): une lecture
+ * en cours n'est pas perturbée par une mise à jour.
+ */
+@Service
+public class CatalogueTriService implements CatalogueListener {
+
+    /**
+     * Clés de tri proposées aux clients
+     */
+    public enum CleTri {
+        PRIX(Comparator.comparingDouble(Voiture::getPrix)),
+        POPULARITE(Comparator.comparingInt(Voiture::getNbloc)),
+        PLACES(Comparator.comparingInt(Voiture::getNbplace));
+
+        /** Ordre croissant; l'immatriculation départage les égalités pour un ordre total */
+        private final Comparator<Voiture> ordre;
+
+        CleTri(Comparator<Voiture> ordre) {
+            this.ordre = ordre.thenComparing(Voiture::getMat);
+        }
+    }
+
+    private static final Voiture[] VIDE = new Voiture[0];
+
+    /**
+     * Vue triée (ordre croissant) pour chaque clé
+     */
+    private final Map<CleTri, Voiture[]> vues = new EnumMap<>(CleTri.class);
+
+    /**
+     * Version courante de chaque voiture, pour retrouver son ancienne position dans les vues
+     */
+    private final ConcurrentHashMap<String, Voiture> courantes = new ConcurrentHashMap<>();
+
+    public CatalogueTriService() {
+        for (CleTri cle : CleTri.values()) {
+            vues.put(cle, VIDE);
+        }
+    }
+
+    @Override
+    public synchronized void catalogueRecharge(Collection<Voiture> voitures) {
+        courantes.clear();
+        for (Voiture voiture : voitures) {
+            courantes.put(voiture.getMat(), voiture);
+        }
+        Voiture[] toutes = voitures.toArray(VIDE);
+        for (CleTri cle : CleTri.values()) {
+            Voiture[] vue = toutes.clone();
+            Arrays.sort(vue, cle.ordre);
+            vues.put(cle, vue);
+        }
+    }
+
+    @Override
+    public synchronized void voitureModifiee(Voiture voiture) {
+        Voiture ancienne = courantes.put(voiture.getMat(), voiture);
+        for (CleTri cle : CleTri.values()) {
+            Voiture[] vue = vues.get(cle);
+            if (ancienne != null) {
+                vue = retirer(vue, ancienne, cle.ordre);
+            }
+            vues.put(cle, inserer(vue, voiture, cle.ordre));
+        }
+    }
+
+    @Override
+    public synchronized void voitureSupprimee(String mat) {
+        Voiture ancienne = courantes.remove(mat);
+        if (ancienne == null) {
+            return;
+        }
+        for (CleTri cle : CleTri.values()) {
+            vues.put(cle, retirer(vues.get(cle), ancienne, cle.ordre));
+        }
+    }
+
+    private static Voiture[] retirer(Voiture[] vue, Voiture voiture, Comparator<Voiture> ordre) {
+        int position = Arrays.binarySearch(vue, voiture, ordre);
+        if (position < 0) {
+            return vue;
+        }
+        Voiture[] nouvelle = new Voiture[vue.length - 1];
+        System.arraycopy(vue, 0, nouvelle, 0, position);
+        System.arraycopy(vue, position + 1, nouvelle, position, vue.length - position - 1);
+        return nouvelle;
+    }
+
+    private static Voiture[] inserer(Voiture[] vue, Voiture voiture, Comparator<Voiture> ordre) {
+        int position = Arrays.binarySearch(vue, voiture, ordre);
+        position = position < 0 ? -position - 1 : position;
+        Voiture[] nouvelle = new Voiture[vue.length + 1];
+        System.arraycopy(vue, 0, nouvelle, 0, position);
+        nouvelle[position] = voiture;
+        System.arraycopy(vue, position, nouvelle, position + 1, vue.length - position);
+        return nouvelle;
+    }
+
+    /**
+     * Lit une page du catalogue triée et filtrée.
+     *
+     * @param cle Clé de tri
+     * @param croissant true pour l'ordre croissant, false pour l'ordre décroissant
+     * @param filtre Voitures à garder
+     * @param page Numéro de page (à partir de 0)
+     * @param taille Nombre de voitures par page
+     * @return Voitures de la page, dans l'ordre demandé
+     */
+    public List<Voiture> getPage(CleTri cle, boolean croissant, Predicate<Voiture> filtre, int page, int taille) {
+        Voiture[] vue;
+        synchronized (this) {
+            vue = vues.get(cle);
+        }
+        List<Voiture> resultat = new ArrayList<>(Math.min(taille, vue.length));
+        long aSauter = (long) page * taille;
+        for (int i = 0; i < vue.length && resultat.size() < taille; i++) {
+            Voiture voiture = vue[croissant ? i : vue.length - 1 - i];
+            if (!filtre.test(voiture)) {
+                continue;
+            }
+            if (aSauter > 0) {
+                aSauter--;
+            } else {
+                resultat.add(voiture);
+            }
+        }
+        return resultat;
+    }
+}
@@ -0,0 +1,230 @@
+package com.carrental.client.service;
+
+import com.carrental.client.dao.PersonneDAO;
+import com.carrental.client.dao.VoitureDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service de mise à jour des compteurs de locations (personne.nbloc et voiture.nbloc).
+ *
+ * Deux modes de fonctionnement:
+ * - par défaut, chaque location incrémente immédiatement les compteurs par un
+ *   UPDATE atomique (nbloc = nbloc + 1), sans relire ni réécrire les autres colonnes
+ * - en mode "batch" (carrental.counters.batch.enabled=true), les incréments sont cumulés
+ *   en mémoire et écrits périodiquement en un seul batch JDBC par table, ce qui réduit
+ *   la charge lors des périodes de forte activité
+ *
+ * En mode batch, les incréments non encore écrits sont perdus en cas d'arrêt brutal du nœud;
+ * ils sont écrits lors d'un arrêt normal.
+ */
+@Service
+public class CompteurLocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompteurLocationService.class);
+
+    /**
+     * Accès aux données des personnes
+     */
+    private final PersonneDAO personneDAO;
+
+    /**
+     * Accès aux données des voitures
+     */
+    private final VoitureDAO voitureDAO;
+
+    /**
+     * Incréments en attente par personne (mode batch uniquement)
+     */
+    private final ConcurrentHashMap<Long, Integer> deltasPersonne = new ConcurrentHashMap<>();
+
+    /**
+     * Incréments en attente par voiture (mode batch uniquement)
+     */
+    private final ConcurrentHashMap<String, Integer> deltasVoiture = new ConcurrentHashMap<>();
+
+    /**
+     * Thread d'écriture périodique; null si le mode batch est désactivé
+     */
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Constructeur avec injection des dépendances et de la configuration.
+     *
+     * @param personneDAO Accès aux données des personnes
+     * @param voitureDAO Accès aux données des voitures
+     * @param batchActive true pour cumuler les incréments en mémoire
+     * @param intervalleMillis Intervalle entre deux écritures en mode batch, en millisecondes
+     */
+    @Autowired
+    public CompteurLocationService(PersonneDAO personneDAO, VoitureDAO voitureDAO,
+                                   @Value("${carrental.counters.batch.enabled:false}") boolean batchActive,
+                                   @Value("${carrental.counters.batch.flush-millis:5000}") long intervalleMillis) {
+        this.personneDAO = personneDAO;
+        this.voitureDAO = voitureDAO;
+        if (batchActive) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "compteur-location-flush");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::flushSafely, intervalleMillis, intervalleMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Enregistre une nouvelle location dans les compteurs de la personne et de la voiture.
+     * Appelée dans la transaction de création: en mode batch, les incréments ne sont cumulés
+     * qu'après sa validation, pour qu'une location annulée ne soit jamais comptée.
+     *
+     * @param id_personne ID de la personne qui loue
+     * @param mat Immatriculation de la voiture louée
+     */
+    public void enregistrerLocation(Long id_personne, String mat) {
+        if (flusher == null) {
+            personneDAO.incrementNbloc(id_personne, 1);
+            voitureDAO.incrementNbloc(mat, 1);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cumuler(id_personne, mat);
+                }
+            });
+        } else {
+            cumuler(id_personne, mat);
+        }
+    }
+
+    private void cumuler(Long id_personne, String mat) {
+        deltasPersonne.merge(id_personne, 1, Integer::sum);
+        deltasVoiture.merge(mat, 1, Integer::sum);
+    }
+
+    /**
+     * Écrit en base tous les incréments cumulés en mémoire.
+     * Chaque clé est retirée atomiquement de la table: un incrément concurrent
+     * recrée simplement l'entrée et sera écrit au passage suivant.
+     * En cas d'échec partiel d'un batch, seuls les incréments non écrits sont remis en attente
+     * (les autres sont déjà en base et ne doivent pas être comptés deux fois).
+     */
+    public void flush() {
+        Map<Long, Integer> personnes = drainer(deltasPersonne);
+        Map<String, Integer> voitures = drainer(deltasVoiture);
+        RuntimeException erreur = null;
+        try {
+            if (!personnes.isEmpty()) {
+                personneDAO.incrementNblocBatch(personnes);
+            }
+        } catch (RuntimeException e) {
+            remettre(deltasPersonne, nonEcrits(personnes, e));
+            erreur = e;
+        }
+        try {
+            if (!voitures.isEmpty()) {
+                voitureDAO.incrementNblocBatch(voitures);
+            }
+        } catch (RuntimeException e) {
+            remettre(deltasVoiture, nonEcrits(voitures, e));
+            if (erreur == null) {
+                erreur = e;
+            } else {
+                erreur.addSuppressed(e);
+            }
+        }
+        if (erreur != null) {
+            throw erreur;
+        }
+    }
+
+    /**
+     * Retrouve les incréments d'un batch qui n'ont pas été écrits.
+     * Les compteurs de mise à jour de la BatchUpdateException suivent l'ordre d'itération du lot:
+     * une commande en échec vaut EXECUTE_FAILED, et un pilote qui s'arrête à la première erreur
+     * renvoie un tableau plus court que le lot. Sans BatchUpdateException (connexion perdue...),
+     * rien n'est considéré comme écrit.
+     */
+    private static <K> Map<K, Integer> nonEcrits(Map<K, Integer> lot, RuntimeException e) {
+        BatchUpdateException batch = null;
+        for (Throwable t = e; t != null && batch == null; t = t.getCause()) {
+            if (t instanceof BatchUpdateException) {
+                batch = (BatchUpdateException) t;
+            }
+        }
+        int[] comptes = batch != null ? batch.getUpdateCounts() : null;
+        if (comptes == null) {
+            return lot;
+        }
+        Map<K, Integer> echecs = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<K, Integer> entry : lot.entrySet()) {
+            if (i >= comptes.length || comptes[i] == Statement.EXECUTE_FAILED) {
+                echecs.put(entry.getKey(), entry.getValue());
+            }
+            i++;
+        }
+        return echecs;
+    }
+
+    /**
+     * Remet des incréments en attente pour le prochain passage.
+     */
+    private static <K> void remettre(ConcurrentHashMap<K, Integer> deltas, Map<K, Integer> echecs) {
+        echecs.forEach((k, v) -> deltas.merge(k, v, Integer::sum));
+    }
+
+    private static <K> Map<K, Integer> drainer(ConcurrentHashMap<K, Integer> deltas) {
+        Map<K, Integer> copie = new HashMap<>();
+        for (K cle : deltas.keySet()) {
+            Integer delta = deltas.remove(cle);
+            if (delta != null) {
+                copie.put(cle, delta);
+            }
+        }
+        return copie;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Erreur lors de l'écriture des compteurs de locations", e);
+        }
+    }
+
+    /**
+     * Écrit les incréments restants à l'arrêt de l'application.
+     */
+    @PreDestroy
+    public void arreter() {
+        if (flusher != null) {
+            // Attendre la fin d'une écriture en cours avant l'écriture finale
+            flusher.shutdown();
+            try {
+                if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                    log.warn("Écriture périodique des compteurs toujours en cours à l'arrêt");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flushSafely();
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.carrental.client.service;
+
+import com.carrental.client.dao.LocationDAO;
+import com.carrental.client.dao.VoitureDAO;
+import com.carrental.client.model.CalendrierVoiture;
+import com.carrental.client.model.Location;
+import com.carrental.client.model.Voiture;
+import com.carrental.client.util.IntervalIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Moteur de disponibilité par période.
+ *
+ * Le simple état voiture.disp ne permet pas de répondre à "quelles voitures sont libres
+ * du 10 au 17". Ce service conserve en mémoire, pour chaque voiture, un index des périodes
+ * réservées (IntervalIndex) construit à partir de la table location, puis tenu à jour à
+ * chaque création et retour de location. Une requête sur toute la flotte ne fait alors
+ * qu'une recherche dichotomique par voiture, sans accès à la base de données.
+ *
+ * La base étant partagée avec l'application d'administration, l'index est aussi
+ * reconstruit périodiquement (carrental.availability.rebuild-millis). La lecture de la table
+ * se fait sans verrou: les créations et retours enregistrés pendant ce temps sont notés dans un
+ * journal et rejoués sur le nouvel index avant qu'il remplace l'ancien, pour ne jamais perdre
+ * une réservation. Le rejeu est idempotent (une location déjà lue dans la table n'est pas
+ * ajoutée deux fois).
+ */
+@Service
+public class DisponibiliteService {
+
+    private static final Logger log = LoggerFactory.getLogger(DisponibiliteService.class);
+
+    /**
+     * Accès aux données des locations
+     */
+    private final LocationDAO locationDAO;
+
+    /**
+     * Accès aux données des voitures
+     */
+    private final VoitureDAO voitureDAO;
+
+    /**
+     * Index des périodes réservées et flotte courante (remplacés en bloc à chaque reconstruction)
+     */
+    private volatile Etat etat = new Etat(new ConcurrentHashMap<>(), new String[0], false);
+
+    /**
+     * Verrou des modifications de l'index et du journal
+     */
+    private final Object verrou = new Object();
+
+    /**
+     * Modifications enregistrées pendant une reconstruction, à rejouer sur le nouvel index
+     * (null hors reconstruction). Protégé par verrou.
+     */
+    private List<Consumer<ConcurrentHashMap<String, IntervalIndex>>> journal;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param locationDAO Accès aux données des locations
+     * @param voitureDAO Accès aux données des voitures
+     */
+    @Autowired
+    public DisponibiliteService(LocationDAO locationDAO, VoitureDAO voitureDAO) {
+        this.locationDAO = locationDAO;
+        this.voitureDAO = voitureDAO;
+    }
+
+    /**
+     * Construit l'index au démarrage de l'application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiser() {
+        reconstruireSafely();
+    }
+
+    /**
+     * Reconstruit périodiquement l'index pour intégrer les modifications faites
+     * par l'application d'administration.
+     */
+    @Scheduled(initialDelayString = "${carrental.availability.rebuild-millis:600000}",
+               fixedDelayString = "${carrental.availability.rebuild-millis:600000}")
+    public void reconstruireSafely() {
+        try {
+            reconstruire();
+        } catch (RuntimeException e) {
+            log.error("Erreur lors de la construction de l'index de disponibilité", e);
+        }
+    }
+
+    /**
+     * Reconstruit l'index complet à partir des tables voiture et location.
+     * Une seule reconstruction à la fois; les modifications concurrentes sont rejouées.
+     */
+    public synchronized void reconstruire() {
+        synchronized (verrou) {
+            journal = new ArrayList<>();
+        }
+        try {
+            Etat nouveau = construire();
+            synchronized (verrou) {
+                for (Consumer<ConcurrentHashMap<String, IntervalIndex>> modification : journal) {
+                    modification.accept(nouveau.index);
+                }
+                this.etat = nouveau;
+            }
+        } finally {
+            synchronized (verrou) {
+                journal = null;
+            }
+        }
+    }
+
+    /**
+     * Lit les tables voiture et location et construit un nouvel état complet.
+     */
+    private Etat construire() {
+        // Flotte visible par les clients (voitures en panne exclues)
+        List<Voiture> voitures = voitureDAO.findAllAvailable();
+        String[] flotte = new String[voitures.size()];
+        for (int i = 0; i < flotte.length; i++) {
+            flotte[i] = voitures.get(i).getMat();
+        }
+
+        // Lecture en flux de toutes les périodes, regroupées par voiture dans des tableaux primitifs.
+        // La date de retour réelle n'est pas enregistrée: une location TERMINEE dont la fin prévue
+        // est dans le futur a été rendue en avance, la voiture est donc libre dès aujourd'hui.
+        int aujourdhui = (int) LocalDate.now().toEpochDay();
+        Map<String, Periodes> parVoiture = new HashMap<>();
+        locationDAO.forEachPeriode((mat, dteDeb, duree, etatLocation) -> {
+            int debut = (int) dteDeb.toLocalDate().toEpochDay();
+            int fin = debut + duree;
+            if ("TERMINEE".equals(etatLocation)) {
+                fin = Math.min(fin, aujourdhui);
+            }
+            if (fin > debut) {
+                parVoiture.computeIfAbsent(mat, k -> new Periodes()).ajouter(debut, fin);
+            }
+        });
+
+        ConcurrentHashMap<String, IntervalIndex> index = new ConcurrentHashMap<>(parVoiture.size() * 2);
+        parVoiture.forEach((mat, p) -> index.put(mat, IntervalIndex.of(p.debuts, p.fins, p.taille)));
+        return new Etat(index, flotte, true);
+    }
+
+    /**
+     * Ajoute la période d'une nouvelle location à l'index.
+     *
+     * @param location Location créée
+     */
+    public void enregistrerLocation(Location location) {
+        int debut = versJour(location.getDteDeb());
+        int fin = debut + location.getDuree();
+        // Période ignorée si déjà présente (location déjà lue par une reconstruction)
+        modifier(index -> index.merge(location.getMat(), IntervalIndex.EMPTY.with(debut, fin),
+                (existant, nouveau) -> existant.contains(debut, fin) ? existant : existant.with(debut, fin)));
+    }
+
+    /**
+     * Raccourcit la période d'une location terminée: la voiture est libre à partir du jour du retour.
+     *
+     * @param location Location terminée
+     * @param retour Jour du retour de la voiture
+     */
+    public void enregistrerRetour(Location location, LocalDate retour) {
+        int debut = versJour(location.getDteDeb());
+        int finPrevue = debut + location.getDuree();
+        int finReelle = (int) Math.min(finPrevue, retour.toEpochDay());
+        if (finReelle < finPrevue) {
+            modifier(index -> index.computeIfPresent(location.getMat(),
+                    (mat, existant) -> existant.withFin(debut, finPrevue, finReelle)));
+        }
+    }
+
+    /**
+     * Applique une modification à l'index courant et la note dans le journal si une
+     * reconstruction est en cours.
+     */
+    private void modifier(Consumer<ConcurrentHashMap<String, IntervalIndex>> modification) {
+        synchronized (verrou) {
+            modification.accept(etat.index);
+            if (journal != null) {
+                journal.add(modification);
+            }
+        }
+    }
+
+    /**
+     * Vérifie si une voiture est libre sur toute une période.
+     *
+     * @param mat Immatriculation de la voiture
+     * @param premierJour Premier jour de la période
+     * @param dernierJour Dernier jour de la période (inclus)
+     * @return true si aucune location ne chevauche la période
+     */
+    public boolean isLibre(String mat, LocalDate premierJour, LocalDate dernierJour) {
+        IntervalIndex index = etat.index.getOrDefault(mat, IntervalIndex.EMPTY);
+        return !index.overlaps((int) premierJour.toEpochDay(), (int) dernierJour.toEpochDay() + 1);
+    }
+
+    /**
+     * Retourne les immatriculations des voitures de la flotte libres sur toute une période.
+     *
+     * @param premierJour Premier jour de la période
+     * @param dernierJour Dernier jour de la période (inclus)
+     * @return Immatriculations des voitures libres (hors voitures en panne)
+     */
+    public List<String> getVoituresLibres(LocalDate premierJour, LocalDate dernierJour) {
+        Etat courant = etat;
+        int debut = (int) premierJour.toEpochDay();
+        int fin = (int) dernierJour.toEpochDay() + 1;
+        List<String> libres = new ArrayList<>();
+        for (String mat : courant.flotte) {
+            IntervalIndex index = courant.index.get(mat);
+            if (index == null || !index.overlaps(debut, fin)) {
+                libres.add(mat);
+            }
+        }
+        return libres;
+    }
+
+    /**
+     * Calcule le calendrier de réservation d'une voiture sur des mois entiers.
+     * Seules les périodes chevauchant la fenêtre sont parcourues dans l'index en mémoire.
+     *
+     * @param mat Immatriculation de la voiture
+     * @param premierMois Premier jour du premier mois de la fenêtre
+     * @param nbMois Nombre de mois de la fenêtre
+     * @return Calendrier jour par jour (réservé ou libre)
+     */
+    public CalendrierVoiture getCalendrier(String mat, LocalDate premierMois, int nbMois) {
+        LocalDate premierJour = premierMois.withDayOfMonth(1);
+        LocalDate dernierJour = premierJour.plusMonths(nbMois).minusDays(1);
+        int debut = (int) premierJour.toEpochDay();
+        int fin = (int) dernierJour.toEpochDay() + 1;
+        boolean[] reserves = new boolean[fin - debut];
+        getIndex(mat).forEachOverlap(debut, fin, (d, f) -> {
+            // Intersection de la période réservée avec la fenêtre
+            Arrays.fill(reserves, Math.max(d, debut) - debut, Math.min(f, fin) - debut, true);
+        });
+        return new CalendrierVoiture(mat, premierJour, dernierJour, reserves);
+    }
+
+    /**
+     * Retourne l'index des périodes réservées d'une voiture.
+     *
+     * @param mat Immatriculation de la voiture
+     * @return Index des périodes (vide si la voiture n'a jamais été louée)
+     */
+    public IntervalIndex getIndex(String mat) {
+        return etat.index.getOrDefault(mat, IntervalIndex.EMPTY);
+    }
+
+    /**
+     * @return true si l'index a été construit au moins une fois
+     */
+    public boolean isPret() {
+        return etat.pret;
+    }
+
+    /**
+     * Convertit une date (java.sql.Date ou java.util.Date) en nombre de jours depuis l'epoch.
+     */
+    static int versJour(Date date) {
+        if (date instanceof java.sql.Date) {
+            return (int) ((java.sql.Date) date).toLocalDate().toEpochDay();
+        }
+        return (int) date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * État immuable du moteur: index par voiture et flotte visible.
+     */
+    private static final class Etat {
+
+        private final ConcurrentHashMap<String, IntervalIndex> index;
+
+        private final String[] flotte;
+
+        private final boolean pret;
+
+        Etat(ConcurrentHashMap<String, IntervalIndex> index, String[] flotte, boolean pret) {
+            this.index = index;
+            this.flotte = flotte;
+            this.pret = pret;
+        }
+    }
+
+    /**
+     * Tableaux extensibles de périodes utilisés pendant la reconstruction.
+     */
+    private static final class Periodes {
+
+        private int[] debuts = new int[4];
+
+        private int[] fins = new int[4];
+
+        private int taille;
+
+        void ajouter(int debut, int fin) {
+            if (taille == debuts.length) {
+                debuts = Arrays.copyOf(debuts, taille * 2);
+                fins = Arrays.copyOf(fins, taille * 2);
+            }
+            debuts[taille] = debut;
+            fins[taille] = fin;
+            taille++;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.carrental.client.service;
+
+import com.carrental.client.model.Facettes;
+import com.carrental.client.util.Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Calcule les compteurs de la barre de filtres (facettes) de la liste des voitures.
+ *
+ * Obtenir ces compteurs via VoitureDAO coûterait une requête GROUP BY par facette.
+ * Ici, tout est calculé sur la copie en colonnes du catalogue: chaque filtre actif
+ * devient un bitmap, et le nombre de voitures pour une valeur de facette est la taille
+ * de l'intersection entre le bitmap de cette valeur et celui des autres filtres.
+ *
+ * Comme sur la plupart des sites de location, une facette ignore son propre filtre:
+ * quand une marque est choisie, les autres marques restent affichées avec leur nombre.
+ */
+@Service
+public class FacetteService {
+
+    /**
+     * Copie en colonnes du catalogue
+     */
+    private final CatalogueColumnaireService catalogueColumnaireService;
+
+    /**
+     * Constructeur avec injection des dépendances
+     *
+     * @param catalogueColumnaireService Copie en colonnes du catalogue
+     */
+    @Autowired
+    public FacetteService(CatalogueColumnaireService catalogueColumnaireService) {
+        this.catalogueColumnaireService = catalogueColumnaireService;
+    }
+
+    /**
+     * Calcule toutes les facettes pour un filtre.
+     *
+     * @param marque Texte contenu dans la marque (null ou vide: pas de filtre)
+     * @param nbplace Nombre de places exact (0: pas de filtre)
+     * @param prixMax Prix journalier maximum (0: pas de filtre)
+     * @param disp État de la voiture: DISPONIBLE ou LOUEE (null ou vide: pas de filtre)
+     * @return Compteurs par marque, par nombre de places et par tranche de prix
+     */
+    public Facettes calculer(String marque, int nbplace, double prixMax, String disp) {
+        CatalogueColumnaire copie = catalogueColumnaireService.getCopie();
+        int taille = copie.getTaille();
+        Bitmap tout = Bitmap.plein(taille);
+
+        Bitmap filtreMarque = marque != null && !marque.isEmpty() ? copie.marqueContient(marque) : tout;
+        Bitmap filtrePlaces = nbplace > 0 ? copie.places(nbplace) : tout;
+        Bitmap filtrePrix = prixMax > 0 ? copie.prixAuPlus(prixMax) : tout;
+        // L'état n'a pas de facette: il s'applique à toutes les autres
+        Bitmap filtreDisp = disp != null && !disp.isEmpty() ? copie.etat(disp) : tout;
+
+        // Masques "tous les filtres sauf celui de la facette"
+        Bitmap sansMarque = filtrePlaces.and(filtrePrix).and(filtreDisp);
+        Bitmap sansPlaces = filtreMarque.and(filtrePrix).and(filtreDisp);
+        Bitmap sansPrix = filtreMarque.and(filtrePlaces).and(filtreDisp);
+
+        Facettes facettes = new Facettes();
+        facettes.setTotal(sansMarque.andCardinality(filtreMarque));
+
+        String[] marques = copie.getMarques();
+        for (int code = 0; code < marques.length; code++) {
+            int nb = sansMarque.andCardinality(copie.getParMarque(code));
+            if (nb > 0) {
+                facettes.getMarques().put(marques[code], nb);
+            }
+        }
+
+        int[] valeursPlaces = copie.getValeursPlaces();
+        for (int i = 0; i < valeursPlaces.length; i++) {
+            int nb = sansPlaces.andCardinality(copie.getParPlaces(i));
+            if (nb > 0) {
+                facettes.getPlaces().put(valeursPlaces[i], nb);
+            }
+        }
+
+        double[] bornes = copie.getBornesPrix();
+        for (int t = 0; t <= bornes.length; t++) {
+            int nb = sansPrix.andCardinality(copie.getParTranchePrix(t));
+            if (nb > 0) {
+                facettes.getTranchesPrix().put(libelleTranche(bornes, t), nb);
+            }
+        }
+        return facettes;
+    }
+
+    /**
+     * Libellé d'une tranche de prix (ex: "Moins de 50 €", "50 à 80 €", "120 € et plus").
+     */
+    private static String libelleTranche(double[] bornes, int tranche) {
+        if (bornes.length == 0) {
+            return "Tous les prix";
+        }
+        if (tranche == 0) {
+            return "Moins de " + format(bornes[0]) + " €";
+        }
+        if (tranche == bornes.length) {
+            return format(bornes[tranche - 1]) + " € et plus";
+        }
+        return format(bornes[tranche - 1]) + " à " + format(bornes[tranche]) + " €";
+    }
+
+    private static String format(double prix) {
+        return prix == Math.rint(prix) ? String.valueOf((long) prix) : String.valueOf(prix);
+    }
+}
@@ -0,0 +1,80 @@
+package com.carrental.client.service;
+
+import com.carrental.client.model.Voiture;
+import com.carrental.client.util.Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtrage multicritère du catalogue (marque, places, prix, état) sur la copie en colonnes.
+ *
+ * Les méthodes filterBy* de VoitureDAO n'appliquent qu'un critère à la fois, avec un
+ * LIKE '%x%' et des comparaisons qu'Oracle évalue ligne par ligne. Ici, chaque critère
+ * est un bitmap de la copie en colonnes et leur combinaison un ET entre bitmaps: le coût
+ * ne dépend que de la taille de la flotte divisée par 64, quel que soit le nombre de critères.
+ */
+@Service
+public class FiltreCatalogueService {
+
+    /**
+     * Copie en colonnes du catalogue
+     */
+    private final CatalogueColumnaireService catalogueColumnaireService;
+
+    /**
+     * Copie en mémoire du catalogue (pour retrouver les voitures des lignes retenues)
+     */
+    private final CatalogueService catalogueService;
+
+    /**
+     * Constructeur avec injection des dépendances
+     *
+     * @param catalogueColumnaireService Copie en colonnes du catalogue
+     * @param catalogueService Copie en mémoire du catalogue
+     */
+    @Autowired
+    public FiltreCatalogueService(CatalogueColumnaireService catalogueColumnaireService, CatalogueService catalogueService) {
+        this.catalogueColumnaireService = catalogueColumnaireService;
+        this.catalogueService = catalogueService;
+    }
+
+    /**
+     * @return true si la copie en colonnes contient des voitures (catalogue chargé)
+     */
+    public boolean isPret() {
+        return catalogueColumnaireService.getCopie().getTaille() > 0;
+    }
+
+    /**
+     * Filtre le catalogue sur tous les critères fournis (ET logique).
+     *
+     * @param marque Texte contenu dans la marque (null ou vide: pas de filtre)
+     * @param nbplace Nombre de places exact (0: pas de filtre)
+     * @param prixMax Prix journalier maximum (0: pas de filtre)
+     * @param disp État de la voiture, DISPONIBLE ou LOUEE (null ou vide: pas de filtre)
+     * @return Voitures correspondantes (hors voitures en panne), par immatriculation
+     */
+    public List<Voiture> filtrer(String marque, int nbplace, double prixMax, String disp) {
+        CatalogueColumnaire copie = catalogueColumnaireService.getCopie();
+        Bitmap resultat = Bitmap.plein(copie.getTaille());
+        if (marque != null && !marque.isEmpty()) {
+            resultat = resultat.and(copie.marqueContient(marque));
+        }
+        if (nbplace > 0) {
+            resultat = resultat.and(copie.places(nbplace));
+        }
+        if (prixMax > 0) {
+            resultat = resultat.and(copie.prixAuPlus(prixMax));
+        }
+        if (disp != null && !disp.isEmpty()) {
+            resultat = resultat.and(copie.etat(disp));
+        }
+
+        List<Voiture> voitures = new ArrayList<>(resultat.cardinality());
+        resultat.forEach(ligne -> catalogueService.findByMat(copie.getMat(ligne)).ifPresent(voitures::add));
+        return voitures;
+    }
+}
@@ -6,9 +6,13 @@ import com.carrental.client.dao.VoitureDAO;
 import com.carrental.client.model.Location;
 import com.carrental.client.model.Personne;
 import com.carrental.client.model.Voiture;
+import com.carrental.client.monitoring.CompteursMetier;
+import com.carrental.client.monitoring.EtapeLocationEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -48,6 +52,46 @@ public class LocationService {
      */
     private final VoitureService voitureService;
 
+    /**
+     * Verrous par voiture pour sérialiser les réservations concurrentes sur ce nœud
+     */
+    private final VoitureLockManager voitureLockManager;
+
+    /**
+     * Blocages temporaires de voitures (libérés une fois la location créée)
+     */
+    private final VoitureHoldService voitureHoldService;
+
+    /**
+     * Mise à jour des compteurs de locations (personne et voiture)
+     */
+    private final CompteurLocationService compteurLocationService;
+
+    /**
+     * Index en mémoire des périodes réservées (disponibilité par période)
+     */
+    private final DisponibiliteService disponibiliteService;
+
+    /**
+     * Copie en mémoire du catalogue (notifiée des changements d'état des voitures)
+     */
+    private final CatalogueService catalogueService;
+
+    /**
+     * File des retours prévus des locations en cours ("Bientôt disponibles")
+     */
+    private final RetourPrevuService retourPrevuService;
+
+    /**
+     * Compteurs d'activité métier (locations, refus, retours)
+     */
+    private final CompteursMetier compteursMetier;
+
+    /**
+     * Transactions programmatiques: la transaction est validée avant la libération du verrou
+     */
+    private final TransactionTemplate transactionTemplate;
+
     /**
      * Constructeur avec injection des dépendances nécessaires.
      * L'annotation @Autowired permet à Spring d'injecter automatiquement les instances requises.
@@ -56,13 +100,34 @@ public class LocationService {
      * @param voitureDAO Accès aux données des voitures
      * @param personneDAO Accès aux données des personnes
      * @param voitureService Service de gestion des voitures
+     * @param voitureLockManager Verrous par voiture pour les réservations
+     * @param voitureHoldService Service des blocages temporaires de voitures
+     * @param compteurLocationService Service des compteurs de locations
+     * @param disponibiliteService Moteur de disponibilité par période
+     * @param catalogueService Copie en mémoire du catalogue
+     * @param retourPrevuService File des retours prévus
+     * @param compteursMetier Compteurs d'activité métier
+     * @param transactionTemplate Modèle de transaction pour la création des locations
      */
     @Autowired
-    public LocationService(LocationDAO locationDAO, VoitureDAO voitureDAO, PersonneDAO personneDAO, VoitureService voitureService) {
+    public LocationService(LocationDAO locationDAO, VoitureDAO voitureDAO, PersonneDAO personneDAO,
+                           VoitureService voitureService, VoitureLockManager voitureLockManager,
+                           VoitureHoldService voitureHoldService, CompteurLocationService compteurLocationService,
+                           DisponibiliteService disponibiliteService, CatalogueService catalogueService,
+                           RetourPrevuService retourPrevuService, CompteursMetier compteursMetier,
+                           TransactionTemplate transactionTemplate) {
         this.locationDAO = locationDAO;
         this.voitureDAO = voitureDAO;
         this.personneDAO = personneDAO;
         this.voitureService = voitureService;
+        this.voitureLockManager = voitureLockManager;
+        this.voitureHoldService = voitureHoldService;
+        this.compteurLocationService = compteurLocationService;
+        this.disponibiliteService = disponibiliteService;
+        this.catalogueService = catalogueService;
+        this.retourPrevuService = retourPrevuService;
+        this.compteursMetier = compteursMetier;
+        this.transactionTemplate = transactionTemplate;
     }
 
     /**
@@ -90,24 +155,65 @@ public class LocationService {
     /**
      * Crée une nouvelle location après avoir vérifié les conditions métier.
      * Cette méthode:
-     * 1. Vérifie que la voiture est disponible
+     * 1. Vérifie que la voiture est disponible (et non bloquée par un autre client)
      * 2. Vérifie que la personne existe
      * 3. Définit l'état initial de la location
      * 4. Sauvegarde la location
-     * 5. Met à jour les statistiques de la personne
+     * 5. Met à jour les compteurs de locations de la personne et de la voiture
+     * 
+     * Les tentatives concurrentes sur la même voiture sont sérialisées sur ce nœud
+     * par un verrou par voiture; la mise à jour conditionnelle dans LocationDAO.save
+     * couvre le cas de plusieurs nœuds. Toutes les écritures sont faites dans une
+     * seule transaction, validée avant la libération du verrou.
+     * 
+     * Chaque étape émet un événement JFR (EtapeLocationEvent) avec l'immatriculation et sa durée.
      * 
      * @param location Objet Location contenant les informations de base
      * @return ID de la nouvelle location créée
      * @throws IllegalArgumentException si la voiture n'est pas disponible ou si la personne n'existe pas
      */
     public Long createLocation(Location location) {
-        // VALIDATION 1: Vérifier que la voiture est bien disponible
-        if (!voitureService.isVoitureDisponible(location.getMat())) {
+        EtapeLocationEvent total = EtapeLocationEvent.debut(EtapeLocationEvent.CREATION, "total", location.getMat());
+        boolean succes = false;
+        try {
+            Long id = voitureLockManager.executeWithLock(location.getMat(),
+                    () -> transactionTemplate.execute(status -> doCreateLocation(location)));
+
+            // La location est créée: le blocage posé à l'ouverture du formulaire n'est plus utile
+            voitureHoldService.liberer(location.getMat(), location.getId_personne());
+
+            // Mise à jour des index en mémoire (disponibilité par période, retours prévus, catalogue)
+            disponibiliteService.enregistrerLocation(location);
+            retourPrevuService.enregistrerLocation(location);
+            catalogueService.voitureModifiee(location.getMat());
+            compteursMetier.incrementer(CompteursMetier.Operation.LOCATION);
+            succes = true;
+            return id;
+        } finally {
+            total.terminer(succes);
+        }
+    }
+
+    /**
+     * Étapes de création d'une location, exécutées sous le verrou de la voiture.
+     * 
+     * @param location Objet Location contenant les informations de base
+     * @return ID de la nouvelle location créée
+     */
+    private Long doCreateLocation(Location location) {
+        // VALIDATION 1: Vérifier que la voiture est bien disponible (le blocage du client lui-même est admis)
+        EtapeLocationEvent etape = EtapeLocationEvent.debut(EtapeLocationEvent.CREATION, "disponibilite", location.getMat());
+        boolean disponible = voitureService.isVoitureDisponible(location.getMat(), location.getId_personne());
+        etape.terminer(disponible);
+        if (!disponible) {
+            compteursMetier.incrementer(CompteursMetier.Operation.LOCATION_REFUSEE);
             throw new IllegalArgumentException("Cette voiture n'est pas disponible");
         }
 
         // VALIDATION 2: Vérifier que la personne existe dans la base de données
+        etape = EtapeLocationEvent.debut(EtapeLocationEvent.CREATION, "personne", location.getMat());
         Optional<Personne> personne = personneDAO.findById(location.getId_personne());
+        etape.terminer(personne.isPresent());
         if (!personne.isPresent()) {
             throw new IllegalArgumentException("Personne non trouvée");
         }
@@ -116,13 +222,21 @@ public class LocationService {
         location.setEtat("EN_COURS");
 
         // PERSISTANCE: Créer la location (via le DAO)
-        // Cette opération met également à jour l'état de la voiture à "LOUEE"
-        Long id = locationDAO.save(location);
+        // Cette opération met également à jour l'état de la voiture à "LOUEE" (étapes statut-voiture et insertion)
+        Long id;
+        try {
+            id = locationDAO.save(location);
+        } catch (IllegalArgumentException e) {
+            // Voiture réservée entre-temps depuis un autre nœud (garde base de données)
+            compteursMetier.incrementer(CompteursMetier.Operation.LOCATION_REFUSEE);
+            throw e;
+        }
 
-        // MISE À JOUR STATISTIQUES: Incrémenter le compteur de locations de la personne
-        Personne p = personne.get();
-        p.setNbloc(p.getNbloc() + 1);
-        personneDAO.update(p);
+        // MISE À JOUR STATISTIQUES: Incrémenter les compteurs de locations (personne et voiture)
+        // par des UPDATE atomiques (nbloc = nbloc + 1), éventuellement cumulés en mémoire
+        etape = EtapeLocationEvent.debut(EtapeLocationEvent.CREATION, "compteurs", location.getMat());
+        compteurLocationService.enregistrerLocation(location.getId_personne(), location.getMat());
+        etape.terminer();
 
         return id;
     }
@@ -133,18 +247,45 @@ public class LocationService {
      * 1. Changer l'état de la location à "TERMINEE"
      * 2. Remettre la voiture à l'état "DISPONIBLE"
      * 
+     * Chaque étape émet un événement JFR (EtapeLocationEvent) avec l'immatriculation et sa durée.
+     * Une location déjà terminée est refusée: ni la voiture, ni les index en mémoire,
+     * ni les compteurs ne sont modifiés une seconde fois.
+     * 
      * @param id_location ID de la location à terminer
-     * @throws IllegalArgumentException si la location n'existe pas
+     * @throws IllegalArgumentException si la location n'existe pas ou n'est plus en cours
      */
     public void terminerLocation(Long id_location) {
-        // Vérifier que la location existe avant de tenter de la terminer
-        Optional<Location> location = locationDAO.findById(id_location);
-        if (!location.isPresent()) {
-            throw new IllegalArgumentException("Location non trouvée");
-        }
+        EtapeLocationEvent total = EtapeLocationEvent.debut(EtapeLocationEvent.RETOUR, "total", null);
+        boolean succes = false;
+        try {
+            // Vérifier que la location existe avant de tenter de la terminer
+            EtapeLocationEvent etape = EtapeLocationEvent.debut(EtapeLocationEvent.RETOUR, "location", null);
+            Optional<Location> location = locationDAO.findById(id_location);
+            if (location.isPresent()) {
+                etape.setMat(location.get().getMat());
+                total.setMat(location.get().getMat());
+            }
+            etape.terminer(location.isPresent());
+            if (!location.isPresent()) {
+                throw new IllegalArgumentException("Location non trouvée");
+            }
 
-        // Terminer la location et rendre la voiture disponible
-        locationDAO.terminerLocation(id_location);
+            // Terminer la location et rendre la voiture disponible (étapes cloture et statut-voiture)
+            if (!locationDAO.terminerLocation(id_location)) {
+                throw new IllegalArgumentException("Cette location est déjà terminée");
+            }
+
+            // La voiture est libre à partir d'aujourd'hui dans les index en mémoire
+            etape = EtapeLocationEvent.debut(EtapeLocationEvent.RETOUR, "index", location.get().getMat());
+            disponibiliteService.enregistrerRetour(location.get(), LocalDate.now());
+            retourPrevuService.enregistrerRetour(location.get().getMat());
+            catalogueService.voitureModifiee(location.get().getMat());
+            etape.terminer();
+            compteursMetier.incrementer(CompteursMetier.Operation.RETOUR);
+            succes = true;
+        } finally {
+            total.terminer(succes);
+        }
     }
 
     /**
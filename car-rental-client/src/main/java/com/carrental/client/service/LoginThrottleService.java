@@ -0,0 +1,247 @@
+package com.carrental.client.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service de limitation des tentatives de connexion (token buckets).
+ *
+ * Chaque login et chaque adresse IP dispose d'un "seau de jetons": une tentative
+ * consomme un jeton et les jetons se rechargent à vitesse constante. Une tentative
+ * sans jeton disponible est rejetée avant toute requête vers la base de données,
+ * ce qui protège Oracle des rafales de "credential stuffing".
+ *
+ * Chaque seau est représenté par un seul AtomicLong (algorithme GCRA: on stocke
+ * l'instant théorique où le seau sera de nouveau plein), mis à jour par CAS sans verrou.
+ * Les seaux pleins ne portent aucune information: une purge planifiée les supprime
+ * (carrental.login.throttle.purge-millis). La table est bornée: une fois pleine, une nouvelle
+ * clé prend la place du seau le plus proche d'être plein parmi quelques seaux examinés.
+ * Inonder la table de logins ou d'adresses distincts ne bloque donc jamais les nouveaux
+ * utilisateurs; cela ne fait qu'oublier plus tôt des seaux presque rechargés.
+ *
+ * L'adresse IP est celle du client telle que transmise par le répartiteur de charge
+ * (server.forward-headers-strategy), et non celle du répartiteur lui-même.
+ */
+@Service
+public class LoginThrottleService {
+
+    /**
+     * Seaux par login (clé: login)
+     */
+    private final BucketTable parLogin;
+
+    /**
+     * Seaux par adresse IP (clé: adresse du client)
+     */
+    private final BucketTable parIp;
+
+    /**
+     * Nombre de tentatives rejetées à cause du login
+     */
+    private final LongAdder rejetsLogin = new LongAdder();
+
+    /**
+     * Nombre de tentatives rejetées à cause de l'adresse IP
+     */
+    private final LongAdder rejetsIp = new LongAdder();
+
+    /**
+     * Constructeur avec la configuration des seaux et l'enregistrement des compteurs.
+     *
+     * @param capaciteLogin Nombre de tentatives consécutives autorisées par login
+     * @param rechargeLoginSecondes Délai de recharge d'un jeton par login, en secondes
+     * @param capaciteIp Nombre de tentatives consécutives autorisées par adresse IP
+     * @param rechargeIpSecondes Délai de recharge d'un jeton par adresse IP, en secondes
+     * @param maxEntrees Nombre maximal de seaux conservés par table
+     * @param meterRegistry Registre des métriques où publier les compteurs de rejets
+     */
+    @Autowired
+    public LoginThrottleService(@Value("${carrental.login.throttle.login.capacity:5}") int capaciteLogin,
+                                @Value("${carrental.login.throttle.login.refill-seconds:30}") long rechargeLoginSecondes,
+                                @Value("${carrental.login.throttle.ip.capacity:20}") int capaciteIp,
+                                @Value("${carrental.login.throttle.ip.refill-seconds:3}") long rechargeIpSecondes,
+                                @Value("${carrental.login.throttle.max-entries:100000}") int maxEntrees,
+                                MeterRegistry meterRegistry) {
+        this.parLogin = new BucketTable(capaciteLogin, TimeUnit.SECONDS.toNanos(rechargeLoginSecondes), maxEntrees);
+        this.parIp = new BucketTable(capaciteIp, TimeUnit.SECONDS.toNanos(rechargeIpSecondes), maxEntrees);
+
+        FunctionCounter.builder("carrental.login.throttle.rejected", rejetsLogin, LongAdder::doubleValue)
+                .tag("key", "login")
+                .description("Tentatives de connexion rejetées avant requête (limite par login)")
+                .register(meterRegistry);
+        FunctionCounter.builder("carrental.login.throttle.rejected", rejetsIp, LongAdder::doubleValue)
+                .tag("key", "ip")
+                .description("Tentatives de connexion rejetées avant requête (limite par adresse IP)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tente de consommer un jeton pour une tentative de connexion.
+     * L'adresse IP est vérifiée en premier afin qu'une rafale venant d'une seule
+     * source n'épuise pas les jetons des logins qu'elle vise.
+     *
+     * @param login Login saisi
+     * @param ip Adresse IP du client
+     * @return true si la tentative est autorisée, false si elle doit être rejetée
+     */
+    public boolean tryAcquire(String login, String ip) {
+        long now = System.nanoTime();
+        if (ip != null && !parIp.tryAcquire(ip, now)) {
+            rejetsIp.increment();
+            return false;
+        }
+        if (login != null && !parLogin.tryAcquire(login, now)) {
+            rejetsLogin.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Supprime périodiquement les seaux redevenus pleins des deux tables.
+     */
+    @Scheduled(initialDelayString = "${carrental.login.throttle.purge-millis:10000}",
+               fixedDelayString = "${carrental.login.throttle.purge-millis:10000}")
+    public void purger() {
+        long now = System.nanoTime();
+        parLogin.purger(now);
+        parIp.purger(now);
+    }
+
+    /**
+     * @return Nombre total de tentatives rejetées à cause du login
+     */
+    public long getRejetsLogin() {
+        return rejetsLogin.sum();
+    }
+
+    /**
+     * @return Nombre total de tentatives rejetées à cause de l'adresse IP
+     */
+    public long getRejetsIp() {
+        return rejetsIp.sum();
+    }
+
+    /**
+     * Table bornée de seaux de jetons indexée par une clé.
+     * Un seau est un AtomicLong contenant l'instant théorique (en nanosecondes)
+     * auquel il sera de nouveau plein. Une valeur dans le passé équivaut à un seau plein:
+     * l'entrée peut alors être supprimée sans perte d'information.
+     *
+     * La purge (et l'éviction d'un seau quand la table est pleine) marque d'abord le seau comme
+     * retiré par CAS depuis la valeur qu'elle a lue: si un autre thread l'a modifié entre-temps,
+     * le CAS échoue et le seau est conservé. Un thread qui trouve un seau retiré en crée un nouveau.
+     */
+    static final class BucketTable {
+
+        /** Valeur d'un seau retiré par la purge, qui ne doit plus être mis à jour */
+        private static final long RETIRE = Long.MIN_VALUE;
+
+        /** Nombre de seaux examinés pour choisir celui à évincer quand la table est pleine */
+        private static final int CANDIDATS_EVICTION = 16;
+
+        /** Seaux actifs */
+        private final ConcurrentHashMap<String, AtomicLong> seaux = new ConcurrentHashMap<>();
+
+        /** Délai de recharge d'un jeton, en nanosecondes */
+        private final long intervalle;
+
+        /** Avance maximale tolérée sur l'horloge (capacité du seau moins un jeton) */
+        private final long tolerance;
+
+        /** Nombre maximal d'entrées conservées */
+        private final int maxEntrees;
+
+        BucketTable(int capacite, long intervalleNanos, int maxEntrees) {
+            this.intervalle = Math.max(1, intervalleNanos);
+            this.tolerance = this.intervalle * (Math.max(1, capacite) - 1);
+            this.maxEntrees = maxEntrees;
+        }
+
+        boolean tryAcquire(String cle, long now) {
+            while (true) {
+                AtomicLong seau = seaux.get(cle);
+                if (seau == null) {
+                    if (seaux.size() >= maxEntrees) {
+                        // Table saturée: une place est libérée plutôt que de rejeter les nouveaux utilisateurs
+                        evincer(now);
+                    }
+                    AtomicLong nouveau = new AtomicLong(now);
+                    seau = seaux.putIfAbsent(cle, nouveau);
+                    if (seau == null) {
+                        seau = nouveau;
+                    }
+                }
+                long tat = seau.get();
+                if (tat == RETIRE) {
+                    // Seau supprimé par la purge: on recommence avec un nouveau seau
+                    seaux.remove(cle, seau);
+                    continue;
+                }
+                long base = tat - now > 0 ? tat : now;
+                if (base - now > tolerance) {
+                    return false;
+                }
+                if (seau.compareAndSet(tat, base + intervalle)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Supprime les seaux pleins (instant théorique dans le passé) qui n'ont pas été
+         * modifiés pendant la vérification.
+         */
+        void purger(long now) {
+            for (Map.Entry<String, AtomicLong> entree : seaux.entrySet()) {
+                AtomicLong seau = entree.getValue();
+                long tat = seau.get();
+                if (tat != RETIRE && tat - now <= 0 && seau.compareAndSet(tat, RETIRE)) {
+                    seaux.remove(entree.getKey(), seau);
+                }
+            }
+        }
+
+        /**
+         * Retire, parmi les premiers seaux de la table, celui dont l'instant théorique est le plus
+         * ancien (le plus proche d'être plein, donc celui dont l'oubli coûte le moins).
+         */
+        private void evincer(long now) {
+            String cleVictime = null;
+            AtomicLong victime = null;
+            long tatVictime = 0;
+            int examines = 0;
+            for (Map.Entry<String, AtomicLong> entree : seaux.entrySet()) {
+                long tat = entree.getValue().get();
+                if (tat != RETIRE && (victime == null || tat - tatVictime < 0)) {
+                    cleVictime = entree.getKey();
+                    victime = entree.getValue();
+                    tatVictime = tat;
+                    if (tat - now <= 0) {
+                        break;
+                    }
+                }
+                if (++examines == CANDIDATS_EVICTION) {
+                    break;
+                }
+            }
+            if (victime != null && victime.compareAndSet(tatVictime, RETIRE)) {
+                seaux.remove(cleVictime, victime);
+            }
+        }
+
+        int size() {
+            return seaux.size();
+        }
+    }
+}
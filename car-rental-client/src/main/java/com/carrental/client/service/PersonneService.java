@@ -2,6 +2,7 @@ package com.carrental.client.service;
 
 import com.carrental.client.dao.PersonneDAO;
 import com.carrental.client.model.Personne;
+import com.carrental.client.monitoring.CompteursMetier;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -31,14 +32,21 @@ public class PersonneService {
      */
     private final PersonneDAO personneDAO;
 
+    /**
+     * Compteurs d'activité métier (inscriptions)
+     */
+    private final CompteursMetier compteursMetier;
+
     /**
      * Constructeur avec injection de dépendance pour le DAO des personnes.
      * 
      * @param personneDAO DAO pour l'accès aux données des personnes
+     * @param compteursMetier Compteurs d'activité métier
      */
     @Autowired
-    public PersonneService(PersonneDAO personneDAO) {
+    public PersonneService(PersonneDAO personneDAO, CompteursMetier compteursMetier) {
         this.personneDAO = personneDAO;
+        this.compteursMetier = compteursMetier;
     }
 
     /**
@@ -95,7 +103,9 @@ public class PersonneService {
         personne.setNbloc(0);        // Nombre initial de locations = 0
         
         // PERSISTANCE: Enregistrer le nouvel utilisateur
-        return personneDAO.save(personne);
+        Long id = personneDAO.save(personne);
+        compteursMetier.incrementer(CompteursMetier.Operation.INSCRIPTION);
+        return id;
     }
 
     /**
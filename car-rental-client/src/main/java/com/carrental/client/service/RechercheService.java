@@ -0,0 +1,130 @@
+package com.carrental.client.service;
+
+import com.carrental.client.model.Voiture;
+import com.carrental.client.util.InvertedIndex;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service de recherche globale dans le catalogue des voitures.
+ *
+ * La recherche s'appuie sur un index inversé en mémoire (InvertedIndex) construit sur
+ * la marque, le modèle, le nombre de places et l'immatriculation de chaque voiture.
+ * Les requêtes à plusieurs termes et par préfixe ("ren cli" trouve "Renault Clio")
+ * sont servies sans requête vers la base de données, contrairement au LIKE '%x%'
+ * de VoitureDAO.findByMarque qui ne peut utiliser aucun index Oracle.
+ *
+ * L'index est tenu à jour par les notifications du CatalogueService.
+ */
+@Service
+public class RechercheService implements CatalogueListener {
+
+    /** Poids des tokens de marque et de modèle */
+    private static final int POIDS_MARQUE_MODELE = 3;
+
+    /** Poids des tokens d'immatriculation */
+    private static final int POIDS_MAT = 2;
+
+    /** Poids des tokens de nombre de places */
+    private static final int POIDS_PLACES = 1;
+
+    /**
+     * Index inversé des voitures visibles par les clients
+     */
+    private volatile InvertedIndex index = new InvertedIndex();
+
+    /**
+     * Nombre de locations de chaque voiture, utilisé pour départager les scores égaux
+     * (remplacé avec l'index à chaque rechargement)
+     */
+    private volatile ConcurrentHashMap<String, Integer> popularite = new ConcurrentHashMap<>();
+
+    @Override
+    public void catalogueRecharge(Collection<Voiture> voitures) {
+        // Construction d'un nouvel index à côté de l'ancien, puis remplacement:
+        // les recherches en cours ne voient jamais un index partiellement rempli. La popularité
+        // est reconstruite de même: les voitures retirées ou en panne n'y restent pas.
+        InvertedIndex nouvelIndex = new InvertedIndex();
+        ConcurrentHashMap<String, Integer> nouvellePopularite = new ConcurrentHashMap<>();
+        for (Voiture voiture : voitures) {
+            if (!"PANNE".equals(voiture.getDisp())) {
+                nouvelIndex.put(voiture.getMat(), tokens(voiture));
+                nouvellePopularite.put(voiture.getMat(), voiture.getNbloc());
+            }
+        }
+        this.index = nouvelIndex;
+        this.popularite = nouvellePopularite;
+    }
+
+    @Override
+    public void voitureModifiee(Voiture voiture) {
+        // Les voitures en panne ne sont jamais proposées aux clients
+        if ("PANNE".equals(voiture.getDisp())) {
+            voitureSupprimee(voiture.getMat());
+            return;
+        }
+        index.put(voiture.getMat(), tokens(voiture));
+        popularite.put(voiture.getMat(), voiture.getNbloc());
+    }
+
+    @Override
+    public void voitureSupprimee(String mat) {
+        index.remove(mat);
+        popularite.remove(mat);
+    }
+
+    /**
+     * Recherche les voitures correspondant à une requête libre.
+     * Chaque terme doit correspondre (exactement ou par préfixe) à un mot de la voiture.
+     *
+     * @param requete Texte saisi par le client (ex: "renault 5 places")
+     * @param limite Nombre maximal de résultats
+     * @return Immatriculations des voitures correspondantes, de la plus pertinente à la moins pertinente
+     */
+    public List<String> rechercher(String requete, int limite) {
+        Map<String, Double> scores = index.search(InvertedIndex.tokenize(requete));
+        Map<String, Integer> popularite = this.popularite;
+        List<String> mats = new ArrayList<>(scores.keySet());
+        mats.sort((a, b) -> {
+            int parScore = Double.compare(scores.get(b), scores.get(a));
+            if (parScore != 0) {
+                return parScore;
+            }
+            int parPopularite = Integer.compare(popularite.getOrDefault(b, 0), popularite.getOrDefault(a, 0));
+            return parPopularite != 0 ? parPopularite : a.compareTo(b);
+        });
+        return mats.size() > limite ? new ArrayList<>(mats.subList(0, limite)) : mats;
+    }
+
+    /**
+     * Construit les tokens pondérés d'une voiture.
+     */
+    private static Map<String, Integer> tokens(Voiture voiture) {
+        Map<String, Integer> tokens = new HashMap<>();
+        ajouter(tokens, InvertedIndex.tokenize(voiture.getMarque()), POIDS_MARQUE_MODELE);
+        ajouter(tokens, InvertedIndex.tokenize(voiture.getModel()), POIDS_MARQUE_MODELE);
+
+        // Immatriculation: chaque bloc ("aa", "123", "bb") et la forme compacte ("aa123bb")
+        List<String> blocsMat = InvertedIndex.tokenize(voiture.getMat());
+        ajouter(tokens, blocsMat, POIDS_MAT);
+        ajouter(tokens, List.of(String.join("", blocsMat)), POIDS_MAT);
+
+        // Nombre de places: "5", "5places" et "places" (pour les requêtes du type "5 places")
+        ajouter(tokens, List.of(String.valueOf(voiture.getNbplace()), voiture.getNbplace() + "places", "places"), POIDS_PLACES);
+        return tokens;
+    }
+
+    private static void ajouter(Map<String, Integer> tokens, List<String> nouveaux, int poids) {
+        for (String token : nouveaux) {
+            if (!token.isEmpty()) {
+                tokens.merge(token, poids, Math::max);
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.carrental.client.service;
+
+import com.carrental.client.model.Voiture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recommandations de voitures similaires pour la page de détails.
+ *
+ * Une table des plus proches voisins est précalculée: pour chaque voiture, les k voitures
+ * les plus proches selon la marque, le nombre de places et le prix. La page de détails
+ * lit simplement cette table en mémoire.
+ *
+ * La table est recalculée en arrière-plan après chaque modification du catalogue, avec
+ * un court délai pour regrouper les modifications rapprochées. Le calcul compare toutes
+ * les paires de voitures (quelques centaines de millisecondes pour 10 000 voitures),
+ * ce qui est acceptable hors du chemin des requêtes.
+ */
+@Service
+public class RecommandationService implements CatalogueListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommandationService.class);
+
+    /** Distance ajoutée quand les marques diffèrent */
+    private static final double POIDS_MARQUE = 1.0;
+
+    /** Distance par place d'écart */
+    private static final double POIDS_PLACE = 0.25;
+
+    /** Distance pour un écart de prix relatif de 100% */
+    private static final double POIDS_PRIX = 1.0;
+
+    /**
+     * Voitures connues, indexées par immatriculation
+     */
+    private final ConcurrentHashMap<String, Voiture> voitures = new ConcurrentHashMap<>();
+
+    /**
+     * Table des voisins: immatriculation -> immatriculations des voitures similaires, de la plus proche à la moins proche
+     */
+    private volatile Map<String, String[]> voisins = Collections.emptyMap();
+
+    /**
+     * Nombre de voisins calculés par voiture
+     */
+    private final int k;
+
+    /**
+     * Délai avant recalcul après une modification, en millisecondes
+     */
+    private final long delaiMillis;
+
+    /**
+     * true si un recalcul est déjà planifié
+     */
+    private final AtomicBoolean planifie = new AtomicBoolean();
+
+    /**
+     * Thread de recalcul de la table
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Constructeur avec la configuration des recommandations.
+     *
+     * @param k Nombre de voitures similaires calculées par voiture
+     * @param delaiMillis Délai avant recalcul après une modification, en millisecondes
+     */
+    public RecommandationService(@Value("${carrental.recommendations.k:4}") int k,
+                                 @Value("${carrental.recommendations.rebuild-delay-millis:2000}") long delaiMillis) {
+        this.k = k;
+        this.delaiMillis = delaiMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "recommandation-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void catalogueRecharge(Collection<Voiture> nouvelles) {
+        voitures.clear();
+        for (Voiture voiture : nouvelles) {
+            voitures.put(voiture.getMat(), voiture);
+        }
+        planifier();
+    }
+
+    @Override
+    public void voitureModifiee(Voiture voiture) {
+        Voiture ancienne = voitures.put(voiture.getMat(), voiture);
+        // Une location ne change que l'état ou le compteur: la table reste valable
+        if (ancienne == null || !memesCaracteristiques(ancienne, voiture)) {
+            planifier();
+        }
+    }
+
+    @Override
+    public void voitureSupprimee(String mat) {
+        voitures.remove(mat);
+        planifier();
+    }
+
+    private static boolean memesCaracteristiques(Voiture a, Voiture b) {
+        return a.getNbplace() == b.getNbplace()
+                && a.getPrix() == b.getPrix()
+                && String.valueOf(a.getMarque()).equals(String.valueOf(b.getMarque()))
+                && "PANNE".equals(a.getDisp()) == "PANNE".equals(b.getDisp());
+    }
+
+    /**
+     * Planifie un recalcul de la table, sauf s'il y en a déjà un en attente.
+     */
+    private void planifier() {
+        if (planifie.compareAndSet(false, true)) {
+            executor.schedule(this::reconstruireSafely, delaiMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void reconstruireSafely() {
+        // Remis à false avant la lecture: une modification pendant le calcul planifiera un nouveau calcul
+        planifie.set(false);
+        try {
+            reconstruire();
+        } catch (RuntimeException e) {
+            log.error("Erreur lors du calcul des recommandations", e);
+        }
+    }
+
+    /**
+     * Recalcule la table des voisins à partir des voitures connues (voitures en panne exclues).
+     */
+    void reconstruire() {
+        List<Voiture> visibles = new ArrayList<>();
+        for (Voiture voiture : voitures.values()) {
+            if (!"PANNE".equals(voiture.getDisp())) {
+                visibles.add(voiture);
+            }
+        }
+        int n = visibles.size();
+
+        // Copie en colonnes pour une boucle de comparaison sans accès aux objets
+        Map<String, Integer> codesMarque = new HashMap<>();
+        int[] marques = new int[n];
+        int[] places = new int[n];
+        double[] prix = new double[n];
+        for (int i = 0; i < n; i++) {
+            Voiture voiture = visibles.get(i);
+            marques[i] = codesMarque.computeIfAbsent(String.valueOf(voiture.getMarque()), m -> codesMarque.size());
+            places[i] = voiture.getNbplace();
+            prix[i] = voiture.getPrix();
+        }
+
+        int taille = Math.min(k, Math.max(0, n - 1));
+        Map<String, String[]> table = new HashMap<>(n * 2);
+        int[] meilleurs = new int[taille];
+        double[] distances = new double[taille];
+        for (int i = 0; i < n; i++) {
+            int nb = 0;
+            for (int j = 0; j < n; j++) {
+                if (i == j) {
+                    continue;
+                }
+                double d = distance(marques, places, prix, i, j);
+                if (nb == taille && (taille == 0 || d >= distances[nb - 1])) {
+                    continue;
+                }
+                // Insertion triée dans les k meilleurs
+                int position = nb < taille ? nb++ : nb - 1;
+                while (position > 0 && distances[position - 1] > d) {
+                    distances[position] = distances[position - 1];
+                    meilleurs[position] = meilleurs[position - 1];
+                    position--;
+                }
+                distances[position] = d;
+                meilleurs[position] = j;
+            }
+            String[] mats = new String[nb];
+            for (int r = 0; r < nb; r++) {
+                mats[r] = visibles.get(meilleurs[r]).getMat();
+            }
+            table.put(visibles.get(i).getMat(), mats);
+        }
+        this.voisins = table;
+    }
+
+    private static double distance(int[] marques, int[] places, double[] prix, int i, int j) {
+        double d = marques[i] == marques[j] ? 0 : POIDS_MARQUE;
+        d += POIDS_PLACE * Math.abs(places[i] - places[j]);
+        double prixMax = Math.max(prix[i], prix[j]);
+        if (prixMax > 0) {
+            d += POIDS_PRIX * Math.abs(prix[i] - prix[j]) / prixMax;
+        }
+        return d;
+    }
+
+    /**
+     * Retourne les voitures similaires à une voiture, depuis la table précalculée.
+     *
+     * @param mat Immatriculation de la voiture affichée
+     * @param limite Nombre maximal de voitures retournées
+     * @return Voitures similaires, de la plus proche à la moins proche (vide si la table n'est pas encore calculée)
+     */
+    public List<Voiture> getSimilaires(String mat, int limite) {
+        String[] mats = voisins.get(mat);
+        if (mats == null) {
+            return Collections.emptyList();
+        }
+        List<Voiture> similaires = new ArrayList<>(Math.min(limite, mats.length));
+        for (String voisin : mats) {
+            Voiture voiture = voitures.get(voisin);
+            // Une voiture passée en panne depuis le calcul n'est plus proposée
+            if (voiture != null && !"PANNE".equals(voiture.getDisp())) {
+                similaires.add(voiture);
+                if (similaires.size() == limite) {
+                    break;
+                }
+            }
+        }
+        return similaires;
+    }
+
+    /**
+     * Arrête le thread de recalcul à l'arrêt de l'application.
+     */
+    @PreDestroy
+    public void arreter() {
+        executor.shutdownNow();
+    }
+}
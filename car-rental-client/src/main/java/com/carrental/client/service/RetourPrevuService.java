@@ -0,0 +1,250 @@
+package com.carrental.client.service;
+
+import com.carrental.client.dao.LocationDAO;
+import com.carrental.client.model.Location;
+import com.carrental.client.model.RetourPrevu;
+import com.carrental.client.model.Voiture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * Suivi des retours prévus des locations en cours, pour la liste "Bientôt disponibles".
+ *
+ * Une voiture louée n'intéresse pas le client... sauf si elle revient demain. Ce service
+ * tient une file de priorité des retours prévus (dteDeb + duree) de toutes les locations
+ * EN_COURS, ordonnée par date de retour. La file est un ensemble trié: la tête donne les
+ * prochains retours, et une voiture rendue en est retirée directement (O(log n)), sans
+ * attendre qu'elle arrive en tête.
+ *
+ * La file est construite au démarrage, puis tenue à jour à chaque création et retour
+ * de location. Comme pour l'index de disponibilité, elle est aussi reconstruite
+ * périodiquement pour intégrer les modifications faites par l'administration: la nouvelle
+ * file est construite sans verrou à partir des seules locations EN_COURS, puis les créations
+ * et retours enregistrés entre-temps y sont rejoués avant le remplacement. Les créations et
+ * retours de location ne sont donc jamais bloqués par la lecture de la table.
+ */
+@Service
+public class RetourPrevuService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetourPrevuService.class);
+
+    /** Ordre de la file: date de retour, puis immatriculation */
+    private static final Comparator<Retour> ORDRE = Comparator.comparingInt((Retour r) -> r.jour)
+            .thenComparing(r -> r.mat);
+
+    /**
+     * Accès aux données des locations
+     */
+    private final LocationDAO locationDAO;
+
+    /**
+     * Copie en mémoire du catalogue (pour afficher les voitures)
+     */
+    private final CatalogueService catalogueService;
+
+    /**
+     * File courante des retours prévus (remplacée en bloc à chaque reconstruction)
+     */
+    private volatile Retours retours = new Retours();
+
+    /**
+     * Verrou des modifications de la file et du journal
+     */
+    private final Object verrou = new Object();
+
+    /**
+     * Modifications enregistrées pendant une reconstruction, à rejouer sur la nouvelle file
+     * (null hors reconstruction). Protégé par verrou.
+     */
+    private List<Consumer<Retours>> journal;
+
+    /**
+     * true une fois la file construite au moins une fois
+     */
+    private volatile boolean pret;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param locationDAO Accès aux données des locations
+     * @param catalogueService Copie en mémoire du catalogue
+     */
+    @Autowired
+    public RetourPrevuService(LocationDAO locationDAO, CatalogueService catalogueService) {
+        this.locationDAO = locationDAO;
+        this.catalogueService = catalogueService;
+    }
+
+    /**
+     * Construit la file au démarrage de l'application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialiser() {
+        reconstruireSafely();
+    }
+
+    /**
+     * Reconstruit périodiquement la file pour intégrer les modifications faites
+     * par l'application d'administration.
+     */
+    @Scheduled(initialDelayString = "${carrental.available-soon.rebuild-millis:600000}",
+               fixedDelayString = "${carrental.available-soon.rebuild-millis:600000}")
+    public void reconstruireSafely() {
+        try {
+            reconstruire();
+        } catch (RuntimeException e) {
+            log.error("Erreur lors de la construction de la file des retours prévus", e);
+        }
+    }
+
+    /**
+     * Reconstruit la file à partir des locations EN_COURS.
+     * Une seule reconstruction à la fois; les modifications concurrentes sont rejouées.
+     */
+    public synchronized void reconstruire() {
+        synchronized (verrou) {
+            journal = new ArrayList<>();
+        }
+        try {
+            // Lecture sans verrou: seules les locations en cours sont lues
+            Map<String, Retour> enCours = new HashMap<>();
+            locationDAO.forEachPeriodeEnCours((mat, dteDeb, duree, etat) -> {
+                Retour retour = new Retour(mat, (int) dteDeb.toLocalDate().toEpochDay() + duree);
+                enCours.merge(mat, retour, (a, b) -> a.jour >= b.jour ? a : b);
+            });
+            Retours nouvelle = new Retours();
+            enCours.values().forEach(nouvelle::placer);
+
+            // Rejeu des modifications faites pendant la lecture, puis remplacement en bloc:
+            // les lectures en cours gardent l'ancienne file
+            synchronized (verrou) {
+                journal.forEach(modification -> modification.accept(nouvelle));
+                this.retours = nouvelle;
+            }
+            this.pret = true;
+        } finally {
+            synchronized (verrou) {
+                journal = null;
+            }
+        }
+    }
+
+    /**
+     * @return true si la file a été construite au moins une fois
+     */
+    public boolean isPret() {
+        return pret;
+    }
+
+    /**
+     * Ajoute le retour prévu d'une nouvelle location.
+     *
+     * @param location Location créée
+     */
+    public void enregistrerLocation(Location location) {
+        int jourRetour = DisponibiliteService.versJour(location.getDteDeb()) + location.getDuree();
+        Retour retour = new Retour(location.getMat(), jourRetour);
+        modifier(r -> r.placer(retour));
+    }
+
+    /**
+     * Retire une voiture rendue de la file.
+     *
+     * @param mat Immatriculation de la voiture rendue
+     */
+    public void enregistrerRetour(String mat) {
+        modifier(r -> r.retirer(mat));
+    }
+
+    /**
+     * Applique une modification à la file courante et la note dans le journal si une
+     * reconstruction est en cours. Les modifications sont idempotentes (rejouables).
+     */
+    private void modifier(Consumer<Retours> modification) {
+        synchronized (verrou) {
+            modification.accept(retours);
+            if (journal != null) {
+                journal.add(modification);
+            }
+        }
+    }
+
+    /**
+     * Retourne les prochaines voitures à revenir de location, de la plus proche à la plus lointaine.
+     * Les voitures en retard (retour prévu dépassé) apparaissent en premier.
+     *
+     * @param limite Nombre maximal de voitures
+     * @return Voitures louées avec leur date de retour prévue
+     */
+    public List<RetourPrevu> getProchainsRetours(int limite) {
+        List<RetourPrevu> retours = new ArrayList<>();
+        for (Retour retour : this.retours.file) {
+            Optional<Voiture> voiture = catalogueService.findByMat(retour.mat);
+            // Les voitures en panne ne sont jamais proposées aux clients
+            if (voiture.isPresent() && !"PANNE".equals(voiture.get().getDisp())) {
+                retours.add(new RetourPrevu(voiture.get(), LocalDate.ofEpochDay(retour.jour)));
+                if (retours.size() == limite) {
+                    break;
+                }
+            }
+        }
+        return retours;
+    }
+
+    /**
+     * File des retours prévus, du plus proche au plus lointain, et retour prévu de chaque
+     * voiture louée (une seule location en cours par voiture).
+     */
+    private static final class Retours {
+
+        private final ConcurrentSkipListSet<Retour> file = new ConcurrentSkipListSet<>(ORDRE);
+
+        private final ConcurrentHashMap<String, Retour> parVoiture = new ConcurrentHashMap<>();
+
+        void placer(Retour retour) {
+            Retour ancien = parVoiture.put(retour.mat, retour);
+            if (ancien != null) {
+                file.remove(ancien);
+            }
+            file.add(retour);
+        }
+
+        void retirer(String mat) {
+            Retour ancien = parVoiture.remove(mat);
+            if (ancien != null) {
+                file.remove(ancien);
+            }
+        }
+    }
+
+    /**
+     * Entrée de la file: voiture et jour de retour prévu (en jours depuis l'epoch).
+     */
+    private static final class Retour {
+
+        private final String mat;
+
+        private final int jour;
+
+        Retour(String mat, int jour) {
+            this.mat = mat;
+            this.jour = jour;
+        }
+    }
+}
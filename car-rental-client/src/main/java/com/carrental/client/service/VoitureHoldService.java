@@ -0,0 +1,226 @@
+package com.carrental.client.service;
+
+import com.carrental.client.dao.VoitureHoldDAO;
+import com.carrental.client.util.TimerWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service de blocage temporaire des voitures pendant la saisie du formulaire de location.
+ *
+ * Lorsqu'un client ouvre le formulaire, la voiture lui est réservée pendant une durée
+ * limitée. Les blocages sont:
+ * - conservés en mémoire et expirés par une roue temporelle (TimerWheel), ce qui permet
+ *   de répondre sans requête pour les blocages posés sur ce nœud
+ * - enregistrés dans la table voiture_hold, ce qui les rend visibles par les autres nœuds
+ *
+ * Un client qui soumet son formulaire pendant la durée du blocage ne peut donc plus
+ * se voir "prendre" la voiture par un autre client.
+ *
+ * Un client ne détient qu'un seul blocage à la fois: ouvrir le formulaire d'une autre voiture
+ * libère le blocage précédent (en mémoire et dans voiture_hold), ce qui empêche un client de
+ * bloquer toute la flotte en ouvrant tous les formulaires. Sur les autres nœuds, une copie en
+ * mémoire de l'ancien blocage peut subsister jusqu'à son expiration.
+ */
+@Service
+public class VoitureHoldService {
+
+    /**
+     * Accès aux blocages enregistrés en base de données
+     */
+    private final VoitureHoldDAO voitureHoldDAO;
+
+    /**
+     * Blocages posés sur ce nœud, indexés par immatriculation
+     */
+    private final ConcurrentHashMap<String, Hold> holds = new ConcurrentHashMap<>();
+
+    /**
+     * Voiture bloquée par chaque personne sur ce nœud (un seul blocage par personne)
+     */
+    private final ConcurrentHashMap<Long, String> parPersonne = new ConcurrentHashMap<>();
+
+    /**
+     * Roue temporelle qui retire les blocages expirés de la mémoire
+     */
+    private final TimerWheel timerWheel;
+
+    /**
+     * Durée d'un blocage en millisecondes
+     */
+    private final long dureeMillis;
+
+    /**
+     * Nombre de blocages posés ou prolongés
+     */
+    private final Counter holdsPoses;
+
+    /**
+     * Nombre d'ouvertures de formulaire refusées car la voiture était bloquée par un autre client
+     */
+    private final Counter holdsRefuses;
+
+    /**
+     * Constructeur avec injection des dépendances et de la configuration.
+     *
+     * @param voitureHoldDAO Accès aux blocages en base de données
+     * @param dureeMinutes Durée d'un blocage en minutes
+     * @param tickMillis Précision de la roue temporelle en millisecondes
+     * @param meterRegistry Registre des métriques
+     */
+    @Autowired
+    public VoitureHoldService(VoitureHoldDAO voitureHoldDAO,
+                              @Value("${carrental.hold.duration-minutes:10}") long dureeMinutes,
+                              @Value("${carrental.hold.tick-millis:1000}") long tickMillis,
+                              MeterRegistry meterRegistry) {
+        this.voitureHoldDAO = voitureHoldDAO;
+        this.dureeMillis = TimeUnit.MINUTES.toMillis(dureeMinutes);
+        // Assez de cases pour qu'un blocage fasse au plus un tour de roue
+        int nbCases = (int) Math.min(1 << 16, dureeMillis / Math.max(1, tickMillis) + 1);
+        this.timerWheel = new TimerWheel("voiture-hold-wheel", tickMillis, TimeUnit.MILLISECONDS, nbCases);
+
+        this.holdsPoses = Counter.builder("carrental.hold.placed")
+                .description("Blocages de voiture posés ou prolongés à l'ouverture du formulaire")
+                .register(meterRegistry);
+        this.holdsRefuses = Counter.builder("carrental.hold.refused")
+                .description("Formulaires refusés car la voiture était bloquée par un autre client")
+                .register(meterRegistry);
+        Gauge.builder("carrental.hold.active", holds, ConcurrentHashMap::size)
+                .description("Blocages actifs posés sur ce nœud")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pose (ou prolonge) le blocage d'une voiture pour une personne. En cas de succès, le
+     * blocage que la personne détenait sur une autre voiture est libéré.
+     *
+     * @param mat Immatriculation de la voiture
+     * @param id_personne ID de la personne qui ouvre le formulaire
+     * @return true si la voiture est bloquée pour cette personne, false si un autre client la détient
+     */
+    public boolean placer(String mat, Long id_personne) {
+        long maintenant = System.currentTimeMillis();
+
+        // Vérification locale: évite une écriture en base si un autre client détient déjà la voiture
+        Hold existant = holds.get(mat);
+        if (existant != null && existant.estActif(maintenant) && !existant.id_personne.equals(id_personne)) {
+            holdsRefuses.increment();
+            return false;
+        }
+
+        // Acquisition en base: arbitre entre les nœuds
+        long expireLe = maintenant + dureeMillis;
+        if (!voitureHoldDAO.acquire(mat, id_personne, new Timestamp(maintenant), new Timestamp(expireLe))) {
+            holdsRefuses.increment();
+            return false;
+        }
+
+        // Mise en mémoire et programmation de l'expiration dans la roue temporelle
+        Hold hold = new Hold(id_personne, expireLe);
+        hold.timeout = timerWheel.schedule(() -> retirer(mat, hold), dureeMillis, TimeUnit.MILLISECONDS);
+        Hold precedent = holds.put(mat, hold);
+        if (precedent != null) {
+            precedent.timeout.cancel();
+        }
+
+        // Un seul blocage par personne: celui d'une autre voiture est libéré
+        String voiturePrecedente = parPersonne.put(id_personne, mat);
+        if (voiturePrecedente != null && !voiturePrecedente.equals(mat)) {
+            Hold ancien = holds.get(voiturePrecedente);
+            if (ancien != null && ancien.id_personne.equals(id_personne) && holds.remove(voiturePrecedente, ancien)) {
+                ancien.timeout.cancel();
+            }
+        }
+        voitureHoldDAO.releaseOthers(id_personne, mat);
+        holdsPoses.increment();
+        return true;
+    }
+
+    /**
+     * Vérifie si une voiture est bloquée par un autre client.
+     * Les blocages de ce nœud sont lus en mémoire; sinon la table voiture_hold est consultée
+     * pour tenir compte des blocages posés par les autres nœuds.
+     *
+     * @param mat Immatriculation de la voiture
+     * @param id_personne ID de la personne qui consulte (null: tout blocage actif compte)
+     * @return true si la voiture est bloquée par un autre client
+     */
+    public boolean estBloqueeParAutre(String mat, Long id_personne) {
+        long maintenant = System.currentTimeMillis();
+        Hold hold = holds.get(mat);
+        if (hold != null && hold.estActif(maintenant)) {
+            return !hold.id_personne.equals(id_personne);
+        }
+        return voitureHoldDAO.isHeldByOther(mat, id_personne, new Timestamp(maintenant));
+    }
+
+    /**
+     * Libère le blocage d'une voiture (par exemple une fois la location créée).
+     *
+     * @param mat Immatriculation de la voiture
+     * @param id_personne ID de la personne qui détient le blocage
+     */
+    public void liberer(String mat, Long id_personne) {
+        Hold hold = holds.get(mat);
+        if (hold != null && hold.id_personne.equals(id_personne) && holds.remove(mat, hold)) {
+            hold.timeout.cancel();
+        }
+        parPersonne.remove(id_personne, mat);
+        voitureHoldDAO.release(mat, id_personne);
+    }
+
+    /**
+     * Retire de la mémoire un blocage expiré.
+     */
+    private void retirer(String mat, Hold hold) {
+        if (holds.remove(mat, hold)) {
+            parPersonne.remove(hold.id_personne, mat);
+        }
+    }
+
+    /**
+     * @return Durée d'un blocage en minutes (affichée dans le formulaire)
+     */
+    public long getDureeMinutes() {
+        return TimeUnit.MILLISECONDS.toMinutes(dureeMillis);
+    }
+
+    /**
+     * Arrête la roue temporelle à l'arrêt de l'application.
+     */
+    @PreDestroy
+    public void arreter() {
+        timerWheel.close();
+    }
+
+    /**
+     * Blocage posé en mémoire sur ce nœud.
+     */
+    private static final class Hold {
+
+        private final Long id_personne;
+
+        private final long expireLe;
+
+        private TimerWheel.Timeout timeout;
+
+        Hold(Long id_personne, long expireLe) {
+            this.id_personne = Objects.requireNonNull(id_personne);
+            this.expireLe = expireLe;
+        }
+
+        boolean estActif(long maintenant) {
+            return maintenant < expireLe;
+        }
+    }
+}
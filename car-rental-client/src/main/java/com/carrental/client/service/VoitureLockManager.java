@@ -0,0 +1,86 @@
+package com.carrental.client.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Verrous par voiture (lock striping) pour sérialiser les réservations concurrentes.
+ *
+ * Chaque immatriculation est associée à un verrou parmi un tableau fixe de verrous
+ * ("stripes"). Deux réservations sur la même voiture passent donc l'une après l'autre,
+ * tandis que des réservations sur des voitures différentes ne se bloquent
+ * (presque) jamais entre elles.
+ *
+ * Ce verrou ne protège qu'un seul nœud: la mise à jour conditionnelle de
+ * l'état de la voiture dans LocationDAO reste la garantie en environnement multi-nœuds.
+ */
+@Component
+public class VoitureLockManager {
+
+    /**
+     * Tableau des verrous; sa taille est toujours une puissance de deux
+     */
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Masque utilisé pour choisir un verrou à partir du hash de l'immatriculation
+     */
+    private final int mask;
+
+    /**
+     * Constructeur avec le nombre de verrous configurable.
+     *
+     * @param nbStripes Nombre de verrous souhaité (arrondi à la puissance de deux supérieure)
+     */
+    public VoitureLockManager(@Value("${carrental.booking.lock-stripes:64}") int nbStripes) {
+        int size = 1;
+        while (size < Math.max(1, nbStripes)) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Exécute une action en détenant le verrou associé à une voiture.
+     *
+     * @param mat Immatriculation de la voiture
+     * @param action Action à exécuter sous verrou
+     * @return Résultat de l'action
+     */
+    public <T> T executeWithLock(String mat, Supplier<T> action) {
+        ReentrantLock lock = lockFor(mat);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retourne le verrou associé à une immatriculation.
+     *
+     * @param mat Immatriculation de la voiture
+     * @return Verrou correspondant
+     */
+    ReentrantLock lockFor(String mat) {
+        int h = mat == null ? 0 : mat.hashCode();
+        // Mélange des bits de poids fort pour mieux répartir les immatriculations proches
+        h ^= (h >>> 16);
+        return stripes[h & mask];
+    }
+
+    /**
+     * @return Nombre de verrous effectivement alloués
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+}
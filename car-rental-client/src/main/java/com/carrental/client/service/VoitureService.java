@@ -30,13 +30,20 @@ public class VoitureService {
     private final VoitureDAO voitureDAO;
 
     /**
-     * Constructeur avec injection de dépendance pour le DAO des voitures.
+     * Blocages temporaires posés pendant la saisie du formulaire de location
+     */
+    private final VoitureHoldService voitureHoldService;
+
+    /**
+     * Constructeur avec injection des dépendances.
      * 
      * @param voitureDAO DAO pour l'accès aux données des voitures
+     * @param voitureHoldService Service des blocages temporaires de voitures
      */
     @Autowired
-    public VoitureService(VoitureDAO voitureDAO) {
+    public VoitureService(VoitureDAO voitureDAO, VoitureHoldService voitureHoldService) {
         this.voitureDAO = voitureDAO;
+        this.voitureHoldService = voitureHoldService;
     }
 
     /**
@@ -129,12 +136,26 @@ public class VoitureService {
      * Une voiture est considérée disponible si:
      * 1. Elle existe dans la base de données
      * 2. Son état est exactement "DISPONIBLE"
+     * 3. Elle n'est pas bloquée par un client en train de remplir le formulaire
      * 
      * @param mat Immatriculation de la voiture à vérifier
      * @return true si la voiture existe et est disponible, false sinon
      */
     public boolean isVoitureDisponible(String mat) {
+        return isVoitureDisponible(mat, null);
+    }
+
+    /**
+     * Vérifie si une voiture est disponible pour une personne donnée.
+     * Le blocage posé par cette personne elle-même n'empêche pas la location.
+     * 
+     * @param mat Immatriculation de la voiture à vérifier
+     * @param id_personne ID de la personne qui souhaite louer (null: tout blocage compte)
+     * @return true si la voiture existe, est DISPONIBLE et n'est pas bloquée par un autre client
+     */
+    public boolean isVoitureDisponible(String mat, Long id_personne) {
         Optional<Voiture> voiture = voitureDAO.findByMat(mat);
-        return voiture.isPresent() && "DISPONIBLE".equals(voiture.get().getDisp());
+        return voiture.isPresent() && "DISPONIBLE".equals(voiture.get().getDisp())
+                && !voitureHoldService.estBloqueeParAutre(mat, id_personne);
     }
 } 
\ No newline at end of file
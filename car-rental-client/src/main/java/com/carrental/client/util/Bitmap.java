@@ -0,0 +1,287 @@
+package com.carrental.client.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Ensemble de positions (0..taille-1), compressé selon sa densité.
+ *
+ * Utilisé par les index en colonnes du catalogue: chaque valeur d'une colonne
+ * (une marque, un nombre de places...) a son bitmap des lignes qui la portent.
+ * Combiner des filtres revient alors à des ET/OU, et compter les résultats
+ * à des bitCount, sans parcourir les voitures une par une.
+ *
+ * Deux représentations, comme les conteneurs des "roaring bitmaps":
+ * - dense: un bit par position dans des mots de 64 bits (taille / 8 octets);
+ * - creuse: tableau trié des positions présentes (4 octets par position).
+ * Une marque rare parmi des dizaines de milliers de voitures n'occupe ainsi que
+ * quelques octets. compresser() choisit la représentation la plus petite;
+ * les résultats des ET/OU sont compressés de la même façon.
+ */
+public final class Bitmap {
+
+    /** Mots de 64 bits (représentation dense); le bit i du mot i >>> 6 représente la position i. null si creux */
+    private long[] mots;
+
+    /** Positions présentes, triées (représentation creuse). null si dense */
+    private int[] positions;
+
+    /** Nombre de positions représentables */
+    private final int taille;
+
+    /**
+     * Crée un bitmap vide (dense, prêt à être rempli par set).
+     *
+     * @param taille Nombre de positions représentables
+     */
+    public Bitmap(int taille) {
+        this.taille = taille;
+        this.mots = new long[(taille + 63) >>> 6];
+    }
+
+    private Bitmap(int taille, long[] mots, int[] positions) {
+        this.taille = taille;
+        this.mots = mots;
+        this.positions = positions;
+    }
+
+    /**
+     * Crée un bitmap contenant toutes les positions.
+     *
+     * @param taille Nombre de positions
+     * @return Bitmap plein
+     */
+    public static Bitmap plein(int taille) {
+        Bitmap bitmap = new Bitmap(taille);
+        Arrays.fill(bitmap.mots, -1L);
+        int reste = taille & 63;
+        if (reste != 0) {
+            bitmap.mots[bitmap.mots.length - 1] = (1L << reste) - 1;
+        }
+        return bitmap;
+    }
+
+    public void set(int position) {
+        if (mots == null) {
+            densifier();
+        }
+        mots[position >>> 6] |= 1L << position;
+    }
+
+    public boolean get(int position) {
+        if (mots != null) {
+            return (mots[position >>> 6] & (1L << position)) != 0;
+        }
+        return Arrays.binarySearch(positions, position) >= 0;
+    }
+
+    /**
+     * Copie de ce bitmap avec une position ajoutée ou retirée; ce bitmap n'est pas modifié
+     * (il peut être partagé avec des lecteurs).
+     *
+     * @param position Position à modifier
+     * @param presente true pour ajouter la position, false pour la retirer
+     * @return Nouveau bitmap dans la représentation la plus compacte, ou ce bitmap s'il est inchangé
+     */
+    public Bitmap avec(int position, boolean presente) {
+        if (get(position) == presente) {
+            return this;
+        }
+        if (mots != null) {
+            long[] copie = mots.clone();
+            copie[position >>> 6] ^= 1L << position;
+            return new Bitmap(taille, copie, null).compresser();
+        }
+        int i = Arrays.binarySearch(positions, position);
+        int[] copie;
+        if (presente) {
+            // Insertion à sa place pour garder les positions triées
+            i = -i - 1;
+            copie = new int[positions.length + 1];
+            System.arraycopy(positions, 0, copie, 0, i);
+            copie[i] = position;
+            System.arraycopy(positions, i, copie, i + 1, positions.length - i);
+        } else {
+            copie = new int[positions.length - 1];
+            System.arraycopy(positions, 0, copie, 0, i);
+            System.arraycopy(positions, i + 1, copie, i, positions.length - i - 1);
+        }
+        return new Bitmap(taille, null, copie).compresserSiDense();
+    }
+
+    /**
+     * Passe dans la représentation la plus compacte (creuse si moins d'une position sur 32 est présente).
+     *
+     * @return Ce bitmap
+     */
+    public Bitmap compresser() {
+        if (mots != null && cardinality() < (taille >>> 5)) {
+            int[] presentes = new int[cardinality()];
+            int[] n = {0};
+            forEach(p -> presentes[n[0]++] = p);
+            positions = presentes;
+            mots = null;
+        }
+        return this;
+    }
+
+    private void densifier() {
+        long[] dense = new long[(taille + 63) >>> 6];
+        for (int p : positions) {
+            dense[p >>> 6] |= 1L << p;
+        }
+        mots = dense;
+        positions = null;
+    }
+
+    /**
+     * @return true si le bitmap est dans la représentation creuse
+     */
+    public boolean isCreux() {
+        return positions != null;
+    }
+
+    /**
+     * @return Intersection de ce bitmap et d'un autre (nouvelle instance)
+     */
+    public Bitmap and(Bitmap autre) {
+        if (mots != null && autre.mots != null) {
+            long[] resultat = new long[mots.length];
+            for (int i = 0; i < mots.length; i++) {
+                resultat[i] = mots[i] & autre.mots[i];
+            }
+            return new Bitmap(taille, resultat, null).compresser();
+        }
+        // Au moins un bitmap creux: on parcourt ses positions et on teste l'autre
+        Bitmap creux = positions != null ? this : autre;
+        Bitmap oppose = creux == this ? autre : this;
+        int[] resultat = new int[creux.positions.length];
+        int n = 0;
+        for (int p : creux.positions) {
+            if (oppose.get(p)) {
+                resultat[n++] = p;
+            }
+        }
+        return new Bitmap(taille, null, Arrays.copyOf(resultat, n));
+    }
+
+    /**
+     * @return Union de ce bitmap et d'un autre (nouvelle instance)
+     */
+    public Bitmap or(Bitmap autre) {
+        if (positions != null && autre.positions != null) {
+            // Fusion de deux tableaux triés
+            int[] a = positions;
+            int[] b = autre.positions;
+            int[] resultat = new int[a.length + b.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a.length || j < b.length) {
+                int suivant = j >= b.length || (i < a.length && a[i] <= b[j]) ? a[i] : b[j];
+                if (i < a.length && a[i] == suivant) {
+                    i++;
+                }
+                if (j < b.length && b[j] == suivant) {
+                    j++;
+                }
+                resultat[n++] = suivant;
+            }
+            return new Bitmap(taille, null, Arrays.copyOf(resultat, n)).compresserSiDense();
+        }
+        long[] resultat = new long[(taille + 63) >>> 6];
+        for (Bitmap bitmap : new Bitmap[]{this, autre}) {
+            if (bitmap.mots != null) {
+                for (int i = 0; i < resultat.length; i++) {
+                    resultat[i] |= bitmap.mots[i];
+                }
+            } else {
+                for (int p : bitmap.positions) {
+                    resultat[p >>> 6] |= 1L << p;
+                }
+            }
+        }
+        return new Bitmap(taille, resultat, null).compresser();
+    }
+
+    /**
+     * Repasse en représentation dense un bitmap creux devenu trop rempli.
+     */
+    private Bitmap compresserSiDense() {
+        if (positions != null && positions.length >= (taille >>> 5)) {
+            densifier();
+        }
+        return this;
+    }
+
+    /**
+     * Taille de l'intersection avec un autre bitmap, sans créer de bitmap intermédiaire.
+     *
+     * @param autre Autre bitmap
+     * @return Nombre de positions présentes dans les deux bitmaps
+     */
+    public int andCardinality(Bitmap autre) {
+        if (mots != null && autre.mots != null) {
+            int total = 0;
+            for (int i = 0; i < mots.length; i++) {
+                total += Long.bitCount(mots[i] & autre.mots[i]);
+            }
+            return total;
+        }
+        Bitmap creux = positions != null ? this : autre;
+        Bitmap oppose = creux == this ? autre : this;
+        int total = 0;
+        for (int p : creux.positions) {
+            if (oppose.get(p)) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return Nombre de positions présentes
+     */
+    public int cardinality() {
+        if (positions != null) {
+            return positions.length;
+        }
+        int total = 0;
+        for (long mot : mots) {
+            total += Long.bitCount(mot);
+        }
+        return total;
+    }
+
+    /**
+     * Parcourt les positions présentes par ordre croissant.
+     *
+     * @param consommateur Appelé avec chaque position
+     */
+    public void forEach(IntConsumer consommateur) {
+        if (positions != null) {
+            for (int p : positions) {
+                consommateur.accept(p);
+            }
+            return;
+        }
+        for (int i = 0; i < mots.length; i++) {
+            long mot = mots[i];
+            while (mot != 0) {
+                consommateur.accept((i << 6) + Long.numberOfTrailingZeros(mot));
+                mot &= mot - 1;
+            }
+        }
+    }
+
+    /**
+     * @return Mémoire occupée par les données du bitmap, en octets
+     */
+    public long getOctets() {
+        return positions != null ? 4L * positions.length : 8L * mots.length;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+}
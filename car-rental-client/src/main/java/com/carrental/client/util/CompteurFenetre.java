@@ -0,0 +1,130 @@
+package com.carrental.client.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Compteur d'événements sur une fenêtre glissante, sans verrou.
+ *
+ * Les événements sont comptés dans un anneau de cases d'une seconde; chaque case est un
+ * LongAdder (compteur réparti en cellules par thread), de sorte que des threads qui
+ * incrémentent en même temps ne se disputent pas la même variable. Le nombre d'événements
+ * des n dernières secondes est la somme des n cases les plus récentes.
+ *
+ * Une case est réutilisée quand l'anneau a fait un tour: le premier thread qui la trouve
+ * périmée la marque (compareAndSet), la remet à zéro puis la date. Les autres threads
+ * n'attendent que pendant cette remise à zéro, une fois par case et par tour.
+ */
+public final class CompteurFenetre {
+
+    /** Date d'une case en cours de remise à zéro */
+    private static final long REMISE_A_ZERO = Long.MIN_VALUE;
+
+    /** Nombre de cases (durée maximale de la fenêtre, en secondes) */
+    private final int nbCases;
+
+    /** Seconde comptée par chaque case */
+    private final AtomicLongArray secondes;
+
+    /** Événements de chaque case */
+    private final LongAdder[] cases;
+
+    /** Total des événements depuis la création */
+    private final LongAdder total = new LongAdder();
+
+    /** Horloge en millisecondes */
+    private final LongSupplier horloge;
+
+    /**
+     * Crée un compteur sur l'horloge système.
+     *
+     * @param dureeSecondes Durée maximale de la fenêtre, en secondes
+     */
+    public CompteurFenetre(int dureeSecondes) {
+        this(dureeSecondes, System::currentTimeMillis);
+    }
+
+    /**
+     * Crée un compteur sur une horloge donnée.
+     *
+     * @param dureeSecondes Durée maximale de la fenêtre, en secondes
+     * @param horloge Horloge en millisecondes
+     */
+    public CompteurFenetre(int dureeSecondes, LongSupplier horloge) {
+        if (dureeSecondes <= 0) {
+            throw new IllegalArgumentException("La durée de la fenêtre doit être positive");
+        }
+        this.nbCases = dureeSecondes;
+        this.secondes = new AtomicLongArray(dureeSecondes);
+        this.cases = new LongAdder[dureeSecondes];
+        for (int i = 0; i < dureeSecondes; i++) {
+            secondes.set(i, -1);
+            cases[i] = new LongAdder();
+        }
+        this.horloge = horloge;
+    }
+
+    /**
+     * Compte un événement.
+     */
+    public void incrementer() {
+        long seconde = horloge.getAsLong() / 1000;
+        int i = (int) (seconde % nbCases);
+        long dateCase = secondes.get(i);
+        while (dateCase != seconde) {
+            if (dateCase == REMISE_A_ZERO) {
+                // Un autre thread remet la case à zéro
+                Thread.onSpinWait();
+            } else if (dateCase > seconde) {
+                // Case déjà réutilisée pour une seconde plus récente: l'événement tardif n'est compté que dans le total
+                total.increment();
+                return;
+            } else if (secondes.compareAndSet(i, dateCase, REMISE_A_ZERO)) {
+                cases[i].reset();
+                secondes.set(i, seconde);
+            }
+            dateCase = secondes.get(i);
+        }
+        cases[i].increment();
+        total.increment();
+    }
+
+    /**
+     * @return Nombre d'événements depuis la création du compteur
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Nombre d'événements des dernières secondes (seconde en cours comprise).
+     *
+     * @param dureeSecondes Durée de la fenêtre, en secondes (au plus la durée maximale du compteur)
+     * @return Nombre d'événements dans la fenêtre
+     */
+    public long somme(int dureeSecondes) {
+        if (dureeSecondes <= 0 || dureeSecondes > nbCases) {
+            throw new IllegalArgumentException("Durée de fenêtre invalide: " + dureeSecondes);
+        }
+        long seconde = horloge.getAsLong() / 1000;
+        long somme = 0;
+        for (long s = seconde - dureeSecondes + 1; s <= seconde; s++) {
+            int i = (int) (s % nbCases);
+            if (secondes.get(i) == s) {
+                somme += cases[i].sum();
+            }
+        }
+        return somme;
+    }
+
+    /**
+     * Débit moyen sur les dernières secondes.
+     *
+     * @param dureeSecondes Durée de la fenêtre, en secondes
+     * @return Événements par seconde
+     */
+    public double debit(int dureeSecondes) {
+        return (double) somme(dureeSecondes) / dureeSecondes;
+    }
+}
@@ -0,0 +1,194 @@
+package com.carrental.client.util;
+
+import java.util.Arrays;
+
+/**
+ * Index immuable d'intervalles de jours [debut, fin) pour une voiture.
+ *
+ * Les intervalles sont triés par début et chaque position conserve la plus grande fin
+ * rencontrée jusque-là (arbre d'intervalles "aplati" dans des tableaux primitifs).
+ * Savoir si une période chevauche une réservation se fait alors par une seule
+ * recherche dichotomique: parmi les intervalles qui commencent avant la fin de la
+ * période, il y a chevauchement si et seulement si la plus grande fin dépasse son début.
+ *
+ * Les mises à jour créent une nouvelle instance (copie des tableaux): le nombre
+ * d'intervalles par voiture reste faible, et les lecteurs n'ont jamais besoin de verrou.
+ */
+public final class IntervalIndex {
+
+    /** Index vide */
+    public static final IntervalIndex EMPTY = new IntervalIndex(new int[0], new int[0]);
+
+    /** Débuts des intervalles (jours depuis l'epoch), triés */
+    private final int[] debuts;
+
+    /** Fins (exclues) des intervalles, dans le même ordre que les débuts */
+    private final int[] fins;
+
+    /** maxFins[i] = plus grande fin parmi les intervalles 0..i */
+    private final int[] maxFins;
+
+    private IntervalIndex(int[] debuts, int[] fins) {
+        this.debuts = debuts;
+        this.fins = fins;
+        this.maxFins = new int[debuts.length];
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < fins.length; i++) {
+            max = Math.max(max, fins[i]);
+            maxFins[i] = max;
+        }
+    }
+
+    /**
+     * Construit un index à partir d'intervalles non triés.
+     *
+     * @param debuts Débuts des intervalles
+     * @param fins Fins (exclues) des intervalles
+     * @param n Nombre d'intervalles à prendre dans les tableaux
+     * @return Index trié
+     */
+    public static IntervalIndex of(int[] debuts, int[] fins, int n) {
+        if (n == 0) {
+            return EMPTY;
+        }
+        long[] paires = new long[n];
+        for (int i = 0; i < n; i++) {
+            paires[i] = ((long) debuts[i] << 32) | (fins[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(paires);
+        int[] d = new int[n];
+        int[] f = new int[n];
+        for (int i = 0; i < n; i++) {
+            d[i] = (int) (paires[i] >> 32);
+            f[i] = (int) paires[i];
+        }
+        return new IntervalIndex(d, f);
+    }
+
+    /**
+     * Vérifie si la période [debut, fin) chevauche au moins un intervalle.
+     *
+     * @param debut Premier jour de la période
+     * @param fin Jour suivant le dernier jour de la période
+     * @return true s'il existe un chevauchement
+     */
+    public boolean overlaps(int debut, int fin) {
+        int i = dernierDebutAvant(fin);
+        return i >= 0 && maxFins[i] > debut;
+    }
+
+    /**
+     * Parcourt les intervalles qui chevauchent la période [debut, fin).
+     *
+     * @param debut Premier jour de la période
+     * @param fin Jour suivant le dernier jour de la période
+     * @param visiteur Appelé avec le début et la fin de chaque intervalle chevauchant
+     */
+    public void forEachOverlap(int debut, int fin, IntervalVisitor visiteur) {
+        for (int i = dernierDebutAvant(fin); i >= 0 && maxFins[i] > debut; i--) {
+            if (fins[i] > debut) {
+                visiteur.visit(debuts[i], fins[i]);
+            }
+        }
+    }
+
+    /**
+     * Vérifie si l'index contient exactement l'intervalle [debut, fin).
+     *
+     * @param debut Début de l'intervalle
+     * @param fin Fin (exclue) de l'intervalle
+     * @return true si cet intervalle est présent
+     */
+    public boolean contains(int debut, int fin) {
+        for (int i = dernierDebutAvant(debut + 1); i >= 0 && debuts[i] == debut; i--) {
+            if (fins[i] == fin) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retourne un nouvel index contenant en plus l'intervalle donné.
+     *
+     * @param debut Début de l'intervalle
+     * @param fin Fin (exclue) de l'intervalle
+     * @return Nouvel index
+     */
+    public IntervalIndex with(int debut, int fin) {
+        int n = debuts.length;
+        int pos = dernierDebutAvant(debut + 1) + 1;
+        int[] d = new int[n + 1];
+        int[] f = new int[n + 1];
+        System.arraycopy(debuts, 0, d, 0, pos);
+        System.arraycopy(fins, 0, f, 0, pos);
+        d[pos] = debut;
+        f[pos] = fin;
+        System.arraycopy(debuts, pos, d, pos + 1, n - pos);
+        System.arraycopy(fins, pos, f, pos + 1, n - pos);
+        return new IntervalIndex(d, f);
+    }
+
+    /**
+     * Retourne un nouvel index où la fin d'un intervalle existant est remplacée
+     * (par exemple lorsqu'une voiture est rendue avant la date prévue).
+     * Si la nouvelle fin ne dépasse pas le début, l'intervalle est supprimé.
+     *
+     * @param debut Début de l'intervalle à modifier
+     * @param ancienneFin Fin actuelle de l'intervalle à modifier
+     * @param nouvelleFin Nouvelle fin
+     * @return Nouvel index, ou cet index si l'intervalle est introuvable
+     */
+    public IntervalIndex withFin(int debut, int ancienneFin, int nouvelleFin) {
+        for (int i = dernierDebutAvant(debut + 1); i >= 0 && debuts[i] == debut; i--) {
+            if (fins[i] == ancienneFin) {
+                int n = debuts.length;
+                if (nouvelleFin <= debut) {
+                    int[] d = new int[n - 1];
+                    int[] f = new int[n - 1];
+                    System.arraycopy(debuts, 0, d, 0, i);
+                    System.arraycopy(fins, 0, f, 0, i);
+                    System.arraycopy(debuts, i + 1, d, i, n - i - 1);
+                    System.arraycopy(fins, i + 1, f, i, n - i - 1);
+                    return new IntervalIndex(d, f);
+                }
+                int[] f = fins.clone();
+                f[i] = nouvelleFin;
+                return new IntervalIndex(debuts, f);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return Nombre d'intervalles de l'index
+     */
+    public int size() {
+        return debuts.length;
+    }
+
+    /**
+     * Indice du dernier intervalle dont le début est strictement inférieur à la borne, ou -1.
+     */
+    private int dernierDebutAvant(int borne) {
+        int lo = 0;
+        int hi = debuts.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (debuts[mid] < borne) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo - 1;
+    }
+
+    /**
+     * Visiteur d'intervalles (évite la création d'objets lors du parcours).
+     */
+    @FunctionalInterface
+    public interface IntervalVisitor {
+        void visit(int debut, int fin);
+    }
+}
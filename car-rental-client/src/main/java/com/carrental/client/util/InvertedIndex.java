@@ -0,0 +1,204 @@
+package com.carrental.client.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire: pour chaque mot (token), la liste des documents qui le contiennent.
+ *
+ * Les tokens sont conservés triés, ce qui permet la recherche par préfixe (tous les tokens
+ * commençant par "ren" forment un intervalle contigu). Chaque document peut être ajouté,
+ * remplacé ou retiré individuellement, sans reconstruire l'index.
+ *
+ * Une requête à plusieurs termes retourne les documents contenant tous les termes
+ * (exactement ou par préfixe), avec un score qui favorise les correspondances exactes
+ * et les champs de poids élevé.
+ */
+public final class InvertedIndex {
+
+    /** Séparateurs de tokens: tout ce qui n'est ni lettre ni chiffre */
+    private static final Pattern SEPARATEURS = Pattern.compile("[^a-z0-9]+");
+
+    /** Marques diacritiques retirées lors de la normalisation */
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+
+    /** token -> (document -> poids) */
+    private final TreeMap<String, Map<String, Integer>> postings = new TreeMap<>();
+
+    /** document -> (token -> poids), pour pouvoir retirer un document */
+    private final Map<String, Map<String, Integer>> tokensParDocument = new HashMap<>();
+
+    /** Lectures concurrentes, écritures exclusives */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Ajoute ou remplace un document.
+     *
+     * @param document Identifiant du document
+     * @param tokens Tokens du document avec leur poids
+     */
+    public void put(String document, Map<String, Integer> tokens) {
+        lock.writeLock().lock();
+        try {
+            retirer(document);
+            Map<String, Integer> copie = new HashMap<>(tokens);
+            tokensParDocument.put(document, copie);
+            copie.forEach((token, poids) -> postings.computeIfAbsent(token, t -> new HashMap<>()).put(document, poids));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un document de l'index.
+     *
+     * @param document Identifiant du document
+     */
+    public void remove(String document) {
+        lock.writeLock().lock();
+        try {
+            retirer(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vide l'index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            tokensParDocument.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void retirer(String document) {
+        Map<String, Integer> anciens = tokensParDocument.remove(document);
+        if (anciens == null) {
+            return;
+        }
+        for (String token : anciens.keySet()) {
+            Map<String, Integer> docs = postings.get(token);
+            if (docs != null) {
+                docs.remove(document);
+                if (docs.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recherche les documents contenant tous les termes (exactement ou par préfixe).
+     *
+     * @param termes Termes normalisés de la requête
+     * @return Score de chaque document correspondant (plus élevé = plus pertinent)
+     */
+    public Map<String, Double> search(List<String> termes) {
+        if (termes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = null;
+            for (String terme : termes) {
+                Map<String, Double> scoresTerme = scoresPourTerme(terme);
+                if (scores == null) {
+                    scores = scoresTerme;
+                } else {
+                    // Intersection: le document doit contenir tous les termes
+                    Map<String, Double> intersection = new HashMap<>();
+                    for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                        Double score = scoresTerme.get(entry.getKey());
+                        if (score != null) {
+                            intersection.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = intersection;
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Meilleur score de chaque document pour un terme: correspondance exacte
+     * pleinement comptée, correspondance par préfixe pondérée par la part du token couverte.
+     */
+    private Map<String, Double> scoresPourTerme(String terme) {
+        Map<String, Double> scores = new HashMap<>();
+        NavigableMap<String, Map<String, Integer>> candidats = postings.subMap(terme, true, terme + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<String, Integer>> entry : candidats.entrySet()) {
+            String token = entry.getKey();
+            double qualite = token.length() == terme.length()
+                    ? 1.0
+                    : 0.5 + 0.5 * terme.length() / token.length();
+            for (Map.Entry<String, Integer> doc : entry.getValue().entrySet()) {
+                scores.merge(doc.getKey(), qualite * doc.getValue(), Math::max);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Normalise un texte et le découpe en tokens (minuscules, sans accents).
+     *
+     * @param texte Texte à découper
+     * @return Tokens non vides, dans l'ordre du texte
+     */
+    public static List<String> tokenize(String texte) {
+        List<String> tokens = new ArrayList<>();
+        if (texte == null) {
+            return tokens;
+        }
+        String normalise = DIACRITIQUES.matcher(Normalizer.normalize(texte, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : SEPARATEURS.split(normalise)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Normalise un texte comme tokenize, en gardant les tokens dans une seule chaîne
+     * séparés par un espace (ex: "Citroën  C3" donne "citroen c3").
+     *
+     * @param texte Texte à normaliser
+     * @return Texte normalisé, vide si le texte ne contient ni lettre ni chiffre
+     */
+    public static String normaliser(String texte) {
+        return String.join(" ", tokenize(texte));
+    }
+
+    /**
+     * @return Nombre de tokens distincts dans l'index
+     */
+    public int getNbTokens() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
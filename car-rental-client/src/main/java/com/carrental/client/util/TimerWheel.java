@@ -0,0 +1,176 @@
+package com.carrental.client.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Roue temporelle (hashed timer wheel) pour un grand nombre d'échéances courtes.
+ *
+ * Les échéances sont rangées dans un anneau de cases; un seul thread avance d'une case
+ * à chaque "tick" et exécute les tâches arrivées à échéance. Programmer ou annuler une
+ * échéance coûte O(1), quel que soit le nombre d'échéances en attente.
+ * La précision est celle du tick: une tâche s'exécute au plus un tick après son échéance.
+ *
+ * Les tâches s'exécutent sur le thread de la roue et doivent donc rester brèves.
+ */
+public final class TimerWheel implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TimerWheel.class);
+
+    /** Durée d'un tick en nanosecondes */
+    private final long tickNanos;
+
+    /** Masque pour passer d'un numéro de tick à une case (taille = puissance de deux) */
+    private final int mask;
+
+    /** Cases de la roue; accédées uniquement par le thread de la roue */
+    private final ArrayDeque<Timeout>[] cases;
+
+    /** Échéances programmées, pas encore rangées dans une case */
+    private final ConcurrentLinkedQueue<Timeout> enAttente = new ConcurrentLinkedQueue<>();
+
+    /** Instant de référence (tick 0) */
+    private final long debut;
+
+    /** Dernier tick traité; écrit uniquement par le thread de la roue */
+    private long tickCourant;
+
+    /** Thread qui fait avancer la roue */
+    private final ScheduledExecutorService ticker;
+
+    /**
+     * Crée et démarre une roue temporelle.
+     *
+     * @param nom Nom du thread de la roue
+     * @param tick Durée d'un tick
+     * @param unite Unité de la durée du tick
+     * @param nbCases Nombre de cases (arrondi à la puissance de deux supérieure)
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(String nom, long tick, TimeUnit unite, int nbCases) {
+        int taille = 1;
+        while (taille < Math.max(2, nbCases)) {
+            taille <<= 1;
+        }
+        this.tickNanos = Math.max(1, unite.toNanos(tick));
+        this.mask = taille - 1;
+        this.cases = new ArrayDeque[taille];
+        for (int i = 0; i < taille; i++) {
+            cases[i] = new ArrayDeque<>();
+        }
+        this.debut = System.nanoTime();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, nom);
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::avancer, tick, tick, unite);
+    }
+
+    /**
+     * Programme une tâche après un délai.
+     *
+     * @param tache Tâche à exécuter à l'échéance
+     * @param delai Délai avant exécution
+     * @param unite Unité du délai
+     * @return Poignée permettant d'annuler l'échéance
+     */
+    public Timeout schedule(Runnable tache, long delai, TimeUnit unite) {
+        long echeance = System.nanoTime() - debut + unite.toNanos(delai);
+        Timeout timeout = new Timeout(tache, (echeance + tickNanos - 1) / tickNanos);
+        enAttente.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Avance la roue jusqu'au tick correspondant à l'heure actuelle.
+     */
+    private void avancer() {
+        long cible = (System.nanoTime() - debut) / tickNanos;
+        while (tickCourant < cible) {
+            tickCourant++;
+            ranger();
+            ArrayDeque<Timeout> file = cases[(int) (tickCourant & mask)];
+            Iterator<Timeout> it = file.iterator();
+            while (it.hasNext()) {
+                Timeout timeout = it.next();
+                if (timeout.annule) {
+                    it.remove();
+                } else if (timeout.tick <= tickCourant) {
+                    it.remove();
+                    executer(timeout);
+                }
+                // Sinon l'échéance tombe dans un tour ultérieur de la roue
+            }
+        }
+    }
+
+    /**
+     * Range dans leur case les échéances programmées depuis le dernier tick.
+     */
+    private void ranger() {
+        Timeout timeout;
+        while ((timeout = enAttente.poll()) != null) {
+            if (timeout.annule) {
+                continue;
+            }
+            if (timeout.tick <= tickCourant) {
+                executer(timeout);
+            } else {
+                cases[(int) (timeout.tick & mask)].add(timeout);
+            }
+        }
+    }
+
+    private static void executer(Timeout timeout) {
+        try {
+            timeout.tache.run();
+        } catch (RuntimeException e) {
+            // Une tâche en erreur ne doit pas arrêter la roue
+            log.error("Erreur dans une tâche de la roue temporelle", e);
+        }
+    }
+
+    /**
+     * Arrête le thread de la roue; les échéances restantes sont abandonnées.
+     */
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Échéance programmée dans la roue.
+     */
+    public static final class Timeout {
+
+        private final Runnable tache;
+
+        private final long tick;
+
+        private volatile boolean annule;
+
+        Timeout(Runnable tache, long tick) {
+            this.tache = tache;
+            this.tick = tick;
+        }
+
+        /**
+         * Annule l'échéance; la tâche ne sera pas exécutée si elle ne l'a pas déjà été.
+         */
+        public void cancel() {
+            annule = true;
+        }
+
+        public boolean isCancelled() {
+            return annule;
+        }
+    }
+}
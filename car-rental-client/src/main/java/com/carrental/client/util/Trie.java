@@ -0,0 +1,278 @@
+package com.carrental.client.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arbre de préfixes (trie) immuable pour l'autocomplétion.
+ *
+ * Chaque clé est associée à une valeur et à un poids (popularité). Chaque nœud conserve
+ * les k clés les plus lourdes de son sous-arbre: une suggestion par préfixe coûte donc
+ * le parcours du préfixe, sans explorer les mots qui le prolongent.
+ *
+ * La recherche tolère optionnellement une faute de frappe (distance d'édition 1:
+ * caractère en trop, oublié, remplacé, ou deux caractères inversés).
+ *
+ * @param <T> Type des valeurs associées aux clés
+ */
+public final class Trie<T> {
+
+    /** Racine de l'arbre */
+    private final Noeud racine;
+
+    /** Valeur de chaque clé, par identifiant de clé */
+    private final Object[] valeurs;
+
+    /** Poids de chaque clé, par identifiant de clé */
+    private final int[] poids;
+
+    /** Nombre maximal de suggestions conservées par nœud */
+    private final int k;
+
+    private static final class Noeud {
+        /** Caractères des enfants, triés (recherche dichotomique) */
+        char[] cles = new char[0];
+        Noeud[] enfants = new Noeud[0];
+        /** Identifiant de la clé se terminant sur ce nœud, -1 si aucune */
+        int cle = -1;
+        /** Identifiants des k clés les plus lourdes du sous-arbre, par poids décroissant */
+        int[] meilleurs;
+
+        Noeud enfant(char c) {
+            int i = Arrays.binarySearch(cles, c);
+            return i >= 0 ? enfants[i] : null;
+        }
+
+        Noeud enfantOuNouveau(char c) {
+            int i = Arrays.binarySearch(cles, c);
+            if (i >= 0) {
+                return enfants[i];
+            }
+            int position = -i - 1;
+            char[] nouvellesCles = new char[cles.length + 1];
+            Noeud[] nouveauxEnfants = new Noeud[enfants.length + 1];
+            System.arraycopy(cles, 0, nouvellesCles, 0, position);
+            System.arraycopy(enfants, 0, nouveauxEnfants, 0, position);
+            nouvellesCles[position] = c;
+            nouveauxEnfants[position] = new Noeud();
+            System.arraycopy(cles, position, nouvellesCles, position + 1, cles.length - position);
+            System.arraycopy(enfants, position, nouveauxEnfants, position + 1, enfants.length - position);
+            cles = nouvellesCles;
+            enfants = nouveauxEnfants;
+            return nouveauxEnfants[position];
+        }
+    }
+
+    /**
+     * Constructeur de Trie: accumule les clés puis construit l'arbre immuable.
+     *
+     * @param <T> Type des valeurs
+     */
+    public static final class Builder<T> {
+        private final Map<String, Integer> poids = new HashMap<>();
+        private final Map<String, T> valeurs = new HashMap<>();
+
+        /**
+         * Ajoute une clé. Si la clé existe déjà, les poids s'additionnent
+         * et la première valeur est conservée.
+         *
+         * @param cle Clé normalisée (ignorée si vide)
+         * @param valeur Valeur retournée par les suggestions
+         * @param poids Poids (popularité) de la clé
+         * @return Ce constructeur
+         */
+        public Builder<T> add(String cle, T valeur, int poids) {
+            if (cle == null || cle.isEmpty()) {
+                return this;
+            }
+            this.poids.merge(cle, poids, Integer::sum);
+            this.valeurs.putIfAbsent(cle, valeur);
+            return this;
+        }
+
+        /**
+         * @param k Nombre maximal de suggestions par préfixe
+         * @return Trie contenant toutes les clés ajoutées
+         */
+        public Trie<T> build(int k) {
+            return new Trie<>(this, k);
+        }
+    }
+
+    private Trie(Builder<T> builder, int k) {
+        this.k = k;
+        List<String> cles = new ArrayList<>(builder.poids.keySet());
+        cles.sort(null);
+        this.valeurs = new Object[cles.size()];
+        this.poids = new int[cles.size()];
+        this.racine = new Noeud();
+        for (int id = 0; id < cles.size(); id++) {
+            String cle = cles.get(id);
+            valeurs[id] = builder.valeurs.get(cle);
+            poids[id] = builder.poids.get(cle);
+            Noeud noeud = racine;
+            for (int i = 0; i < cle.length(); i++) {
+                noeud = noeud.enfantOuNouveau(cle.charAt(i));
+            }
+            noeud.cle = id;
+        }
+        calculerMeilleurs(racine);
+    }
+
+    /**
+     * Calcule récursivement les k meilleures clés de chaque sous-arbre.
+     */
+    private void calculerMeilleurs(Noeud noeud) {
+        int nbCandidats = noeud.cle >= 0 ? 1 : 0;
+        for (Noeud enfant : noeud.enfants) {
+            calculerMeilleurs(enfant);
+            nbCandidats += enfant.meilleurs.length;
+        }
+        int[] candidats = new int[nbCandidats];
+        int n = 0;
+        if (noeud.cle >= 0) {
+            candidats[n++] = noeud.cle;
+        }
+        for (Noeud enfant : noeud.enfants) {
+            System.arraycopy(enfant.meilleurs, 0, candidats, n, enfant.meilleurs.length);
+            n += enfant.meilleurs.length;
+        }
+        noeud.meilleurs = Arrays.stream(candidats)
+                .boxed()
+                .sorted((a, b) -> poids[a] != poids[b] ? Integer.compare(poids[b], poids[a]) : Integer.compare(a, b))
+                .limit(k)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Suggère les clés commençant par un préfixe, les plus lourdes d'abord.
+     * Avec la tolérance, les clés à une faute de frappe près sont aussi suggérées,
+     * après les correspondances exactes.
+     *
+     * @param prefixe Préfixe normalisé
+     * @param tolerance true pour accepter une faute de frappe
+     * @param limite Nombre maximal de suggestions (plafonné à k)
+     * @return Valeurs suggérées, sans doublon
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> suggerer(String prefixe, boolean tolerance, int limite) {
+        Collecteur collecteur = new Collecteur(Math.min(limite, k));
+        visiter(racine, prefixe, 0, 0, tolerance ? 1 : 0, collecteur);
+        List<T> resultat = new ArrayList<>(collecteur.nb);
+        for (int i = 0; i < collecteur.nb; i++) {
+            resultat.add((T) valeurs[collecteur.ids[i]]);
+        }
+        return resultat;
+    }
+
+    /**
+     * Parcours du préfixe avec au plus maxFautes modifications.
+     */
+    private void visiter(Noeud noeud, String prefixe, int i, int fautes, int maxFautes, Collecteur collecteur) {
+        if (i == prefixe.length()) {
+            collecteur.retenir(noeud, fautes);
+            return;
+        }
+        char c = prefixe.charAt(i);
+        Noeud suivant = noeud.enfant(c);
+        if (suivant != null) {
+            visiter(suivant, prefixe, i + 1, fautes, maxFautes, collecteur);
+        }
+        if (fautes >= maxFautes) {
+            return;
+        }
+        // Caractère en trop dans la saisie
+        visiter(noeud, prefixe, i + 1, fautes + 1, maxFautes, collecteur);
+        for (int j = 0; j < noeud.enfants.length; j++) {
+            Noeud enfant = noeud.enfants[j];
+            if (noeud.cles[j] != c) {
+                // Caractère remplacé
+                visiter(enfant, prefixe, i + 1, fautes + 1, maxFautes, collecteur);
+                // Caractère oublié dans la saisie
+                visiter(enfant, prefixe, i, fautes + 1, maxFautes, collecteur);
+            }
+        }
+        // Deux caractères inversés
+        if (i + 1 < prefixe.length()) {
+            Noeud premier = noeud.enfant(prefixe.charAt(i + 1));
+            Noeud second = premier != null ? premier.enfant(c) : null;
+            if (second != null) {
+                visiter(second, prefixe, i + 2, fautes + 1, maxFautes, collecteur);
+            }
+        }
+    }
+
+    /**
+     * Meilleures suggestions trouvées pendant un parcours, triées par
+     * nombre de fautes croissant puis par poids décroissant.
+     */
+    private final class Collecteur {
+        final int[] ids;
+        final int[] fautes;
+        int nb;
+
+        Collecteur(int limite) {
+            this.ids = new int[limite];
+            this.fautes = new int[limite];
+        }
+
+        void retenir(Noeud noeud, int nbFautes) {
+            for (int id : noeud.meilleurs) {
+                // Les meilleurs d'un nœud sont triés: inutile de continuer dès que la liste est pleine et meilleure
+                if (nb == ids.length && !avant(id, nbFautes, ids[nb - 1], fautes[nb - 1])) {
+                    return;
+                }
+                proposer(id, nbFautes);
+            }
+        }
+
+        private void proposer(int id, int nbFautes) {
+            for (int i = 0; i < nb; i++) {
+                if (valeurs[ids[i]] == valeurs[id]) {
+                    if (fautes[i] <= nbFautes && (fautes[i] < nbFautes || poids[ids[i]] >= poids[id])) {
+                        return;
+                    }
+                    // Même valeur déjà retenue avec un moins bon classement: on la retire
+                    System.arraycopy(ids, i + 1, ids, i, nb - i - 1);
+                    System.arraycopy(fautes, i + 1, fautes, i, nb - i - 1);
+                    nb--;
+                    break;
+                }
+            }
+            int position = nb;
+            while (position > 0 && avant(id, nbFautes, ids[position - 1], fautes[position - 1])) {
+                position--;
+            }
+            if (position >= ids.length) {
+                return;
+            }
+            int aDecaler = Math.min(nb, ids.length - 1) - position;
+            System.arraycopy(ids, position, ids, position + 1, aDecaler);
+            System.arraycopy(fautes, position, fautes, position + 1, aDecaler);
+            ids[position] = id;
+            fautes[position] = nbFautes;
+            nb = Math.min(nb + 1, ids.length);
+        }
+
+        private boolean avant(int id, int nbFautes, int autreId, int autresFautes) {
+            if (nbFautes != autresFautes) {
+                return nbFautes < autresFautes;
+            }
+            if (poids[id] != poids[autreId]) {
+                return poids[id] > poids[autreId];
+            }
+            return id < autreId;
+        }
+    }
+
+    /**
+     * @return Nombre de clés dans l'arbre
+     */
+    public int size() {
+        return valeurs.length;
+    }
+}
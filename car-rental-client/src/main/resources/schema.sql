@@ -1,4 +1,5 @@
 -- Suppression des tables existantes (si elles existent)
+DROP TABLE voiture_hold CASCADE CONSTRAINTS;
 DROP TABLE location CASCADE CONSTRAINTS;
 DROP TABLE voiture CASCADE CONSTRAINTS;
 DROP TABLE personne CASCADE CONSTRAINTS;
@@ -29,7 +30,8 @@ CREATE TABLE voiture (
     nbplace NUMBER NOT NULL,
     disp VARCHAR2(20) NOT NULL, -- DISPONIBLE, LOUEE, PANNE
     nbloc NUMBER DEFAULT 0,
-    prix NUMBER NOT NULL
+    prix NUMBER NOT NULL,
+    image_path VARCHAR2(255) DEFAULT 'default.jpg'
 );
 
 -- Création de la table location
@@ -45,6 +47,15 @@ CREATE TABLE location (
     FOREIGN KEY (mat) REFERENCES voiture(mat)
 );
 
+-- Création de la table voiture_hold (blocages temporaires pendant la saisie du formulaire de location)
+CREATE TABLE voiture_hold (
+    mat VARCHAR2(20) PRIMARY KEY,
+    id_personne NUMBER NOT NULL,
+    expire_le TIMESTAMP NOT NULL,
+    FOREIGN KEY (mat) REFERENCES voiture(mat),
+    FOREIGN KEY (id_personne) REFERENCES personne(id)
+);
+
 -- Création des séquences
 CREATE SEQUENCE seq_personne
     START WITH 1
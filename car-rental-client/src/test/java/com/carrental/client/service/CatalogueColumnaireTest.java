@@ -0,0 +1,111 @@
+package com.carrental.client.service;
+
+import com.carrental.client.model.Voiture;
+import com.carrental.client.util.Bitmap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests des mises à jour incrémentales de CatalogueColumnaire, comparées à une reconstruction complète.
+ */
+class CatalogueColumnaireTest {
+
+    private static final double[] BORNES = {50, 80, 120};
+
+    private static final String[] MARQUES = {"Peugeot", "Renault", "Tesla"};
+
+    private static final int[] PLACES = {2, 5, 7};
+
+    @Test
+    void avecCorrespondAUneReconstruction() {
+        Random random = new Random(42);
+        Map<String, Voiture> voitures = new TreeMap<>();
+        for (int i = 0; i < 300; i++) {
+            Voiture voiture = voiture(random, "AA-" + (100 + i) + "-BB");
+            voitures.put(voiture.getMat(), voiture);
+        }
+        CatalogueColumnaire copie = CatalogueColumnaire.of(voitures.values(), BORNES);
+        CatalogueColumnaire attendue = copie;
+
+        List<String> mats = new ArrayList<>(voitures.keySet());
+        for (int i = 0; i < 500; i++) {
+            String mat = mats.get(random.nextInt(mats.size()));
+            Voiture modifiee = voiture(random, mat);
+            voitures.put(mat, modifiee);
+
+            CatalogueColumnaire apres = copie.avec(modifiee);
+            // La copie précédente, encore lue par des requêtes, n'est pas modifiée
+            verifier(attendue, copie);
+            attendue = CatalogueColumnaire.of(voitures.values(), BORNES);
+            verifier(attendue, apres);
+            copie = apres;
+        }
+    }
+
+    @Test
+    void avecDemandeUneReconstruction() {
+        List<Voiture> voitures = List.of(
+                new Voiture("AA-100-BB", "Renault", "Clio", 5, "DISPONIBLE", 0, 40),
+                new Voiture("AA-200-BB", "Tesla", "Model 3", 5, "LOUEE", 0, 130));
+        CatalogueColumnaire copie = CatalogueColumnaire.of(voitures, BORNES);
+
+        // Voiture inconnue, passée en panne, nouvelle marque, nouveau nombre de places
+        assertNull(copie.avec(new Voiture("AA-300-BB", "Renault", "Clio", 5, "DISPONIBLE", 0, 40)));
+        assertNull(copie.avec(new Voiture("AA-100-BB", "Renault", "Clio", 5, "PANNE", 0, 40)));
+        assertNull(copie.avec(new Voiture("AA-100-BB", "Peugeot", "208", 5, "DISPONIBLE", 0, 40)));
+        assertNull(copie.avec(new Voiture("AA-100-BB", "Renault", "Clio", 7, "DISPONIBLE", 0, 40)));
+
+        // Seul le compteur de locations change: aucune colonne de la copie
+        assertSame(copie, copie.avec(new Voiture("AA-100-BB", "Renault", "Clio", 5, "DISPONIBLE", 12, 40)));
+        assertFalse(copie.contient("AA-300-BB"));
+    }
+
+    private static Voiture voiture(Random random, String mat) {
+        return new Voiture(mat, MARQUES[random.nextInt(MARQUES.length)], "Modèle", PLACES[random.nextInt(PLACES.length)],
+                random.nextBoolean() ? "DISPONIBLE" : "LOUEE", random.nextInt(10), 20 + random.nextInt(140));
+    }
+
+    private static void verifier(CatalogueColumnaire attendue, CatalogueColumnaire copie) {
+        assertEquals(attendue.getTaille(), copie.getTaille());
+        for (int ligne = 0; ligne < copie.getTaille(); ligne++) {
+            assertEquals(attendue.getMat(ligne), copie.getMat(ligne));
+            assertEquals(attendue.getCodeMarque(ligne), copie.getCodeMarque(ligne));
+            assertEquals(attendue.getCodeDisp(ligne), copie.getCodeDisp(ligne));
+            assertEquals(attendue.getNbplace(ligne), copie.getNbplace(ligne));
+            assertEquals(attendue.getPrix(ligne), copie.getPrix(ligne));
+        }
+        assertArrayEquals(attendue.getMarques(), copie.getMarques());
+        assertArrayEquals(attendue.getDisps(), copie.getDisps());
+        assertArrayEquals(attendue.getValeursPlaces(), copie.getValeursPlaces());
+        for (int code = 0; code < copie.getMarques().length; code++) {
+            assertArrayEquals(positions(attendue.getParMarque(code)), positions(copie.getParMarque(code)));
+        }
+        for (int code = 0; code < copie.getDisps().length; code++) {
+            assertArrayEquals(positions(attendue.getParDisp(code)), positions(copie.getParDisp(code)));
+        }
+        for (int i = 0; i < copie.getValeursPlaces().length; i++) {
+            assertArrayEquals(positions(attendue.getParPlaces(i)), positions(copie.getParPlaces(i)));
+        }
+        for (int t = 0; t <= BORNES.length; t++) {
+            assertArrayEquals(positions(attendue.getParTranchePrix(t)), positions(copie.getParTranchePrix(t)));
+        }
+    }
+
+    private static int[] positions(Bitmap bitmap) {
+        int[] positions = new int[bitmap.cardinality()];
+        int[] n = {0};
+        bitmap.forEach(p -> positions[n[0]++] = p);
+        return positions;
+    }
+}
@@ -0,0 +1,120 @@
+package com.carrental.client.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests du seau GCRA (LoginThrottleService.BucketTable), sur une horloge fictive.
+ */
+class LoginThrottleServiceTest {
+
+    /** Recharge d'un jeton toutes les 1000 ns */
+    private static final long INTERVALLE = 1000;
+
+    @Test
+    void capaciteRespecteePuisRecharge() {
+        LoginThrottleService.BucketTable table = new LoginThrottleService.BucketTable(3, INTERVALLE, 100);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(table.tryAcquire("a", 0));
+        }
+        assertFalse(table.tryAcquire("a", 0));
+        assertFalse(table.tryAcquire("a", INTERVALLE - 1));
+        // Un jeton rechargé
+        assertTrue(table.tryAcquire("a", INTERVALLE));
+        assertFalse(table.tryAcquire("a", INTERVALLE));
+        // Les clés sont indépendantes
+        assertTrue(table.tryAcquire("b", 0));
+        // Seau de nouveau plein après une longue pause, sans dépasser la capacité
+        long tard = 1_000_000;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(table.tryAcquire("a", tard));
+        }
+        assertFalse(table.tryAcquire("a", tard));
+    }
+
+    @Test
+    void tableSatureeEvinceLeSeauLePlusProcheDEtrePlein() {
+        LoginThrottleService.BucketTable table = new LoginThrottleService.BucketTable(2, INTERVALLE, 2);
+        assertTrue(table.tryAcquire("a", 0));
+        assertTrue(table.tryAcquire("a", 0));
+        assertTrue(table.tryAcquire("b", 0));
+        // Table pleine: "c" prend la place de "b" (plein dès INTERVALLE, avant "a")
+        assertTrue(table.tryAcquire("c", 0));
+        assertEquals(2, table.size());
+        // "a" reste limité
+        assertFalse(table.tryAcquire("a", 0));
+        // Un nouvel utilisateur n'est jamais rejeté à cause d'une table pleine
+        for (int i = 0; i < 10; i++) {
+            assertTrue(table.tryAcquire("nouveau" + i, 0));
+        }
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void purgeNeRemetPasAZeroUnSeauActif() {
+        LoginThrottleService.BucketTable table = new LoginThrottleService.BucketTable(2, INTERVALLE, 100);
+        assertTrue(table.tryAcquire("a", 0));
+        assertTrue(table.tryAcquire("a", 0));
+        table.purger(0);
+        assertEquals(1, table.size());
+        assertFalse(table.tryAcquire("a", 0));
+
+        // Seau plein purgé: la clé repart d'un nouveau seau
+        table.purger(2 * INTERVALLE);
+        assertEquals(0, table.size());
+        assertTrue(table.tryAcquire("a", 2 * INTERVALLE));
+        assertTrue(table.tryAcquire("a", 2 * INTERVALLE));
+        assertFalse(table.tryAcquire("a", 2 * INTERVALLE));
+    }
+
+    @Test
+    void tentativesConcurrentesEtPurgeNeDepassentPasLaCapacite() throws InterruptedException {
+        int capacite = 50;
+        LoginThrottleService.BucketTable table = new LoginThrottleService.BucketTable(capacite, INTERVALLE, 100);
+        AtomicInteger admises = new AtomicInteger();
+        int nbThreads = 8;
+        CountDownLatch depart = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(nbThreads + 1);
+        try {
+            for (int t = 0; t < nbThreads; t++) {
+                threads.execute(() -> {
+                    await(depart);
+                    for (int i = 0; i < 1000; i++) {
+                        if (table.tryAcquire("a", 0)) {
+                            admises.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            // Purges concurrentes: le seau n'est jamais plein à l'instant 0 une fois entamé
+            threads.execute(() -> {
+                await(depart);
+                for (int i = 0; i < 1000; i++) {
+                    table.purger(0);
+                }
+            });
+            depart.countDown();
+        } finally {
+            threads.shutdown();
+            assertTrue(threads.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        assertEquals(capacite, admises.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
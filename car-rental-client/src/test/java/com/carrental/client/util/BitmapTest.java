@@ -0,0 +1,200 @@
+package com.carrental.client.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de Bitmap, comparé à java.util.BitSet dans les deux représentations (dense et creuse).
+ */
+class BitmapTest {
+
+    /** Tailles autour des frontières de mots de 64 bits */
+    private static final int[] TAILLES = {1, 31, 63, 64, 65, 127, 130, 1000, 4096};
+
+    /** Densités: vide, très creux (représentation creuse), moyen, plein */
+    private static final double[] DENSITES = {0, 0.005, 0.02, 0.3, 1};
+
+    @Test
+    void operationsCorrespondentABitSet() {
+        Random random = new Random(42);
+        for (int taille : TAILLES) {
+            for (double densiteA : DENSITES) {
+                for (double densiteB : DENSITES) {
+                    BitSet attenduA = aleatoire(random, taille, densiteA);
+                    BitSet attenduB = aleatoire(random, taille, densiteB);
+                    for (boolean compresser : new boolean[]{false, true}) {
+                        Bitmap a = versBitmap(attenduA, taille, compresser);
+                        Bitmap b = versBitmap(attenduB, taille, compresser);
+                        verifier(attenduA, a);
+
+                        BitSet et = (BitSet) attenduA.clone();
+                        et.and(attenduB);
+                        verifier(et, a.and(b));
+                        verifier(et, b.and(a));
+                        assertEquals(et.cardinality(), a.andCardinality(b));
+                        assertEquals(et.cardinality(), b.andCardinality(a));
+
+                        BitSet ou = (BitSet) attenduA.clone();
+                        ou.or(attenduB);
+                        verifier(ou, a.or(b));
+                        verifier(ou, b.or(a));
+                    }
+                    // Représentations mélangées
+                    Bitmap dense = versBitmap(attenduA, taille, false);
+                    Bitmap creux = versBitmap(attenduB, taille, true);
+                    BitSet et = (BitSet) attenduA.clone();
+                    et.and(attenduB);
+                    verifier(et, dense.and(creux));
+                    verifier(et, creux.and(dense));
+                    BitSet ou = (BitSet) attenduA.clone();
+                    ou.or(attenduB);
+                    verifier(ou, dense.or(creux));
+                    verifier(ou, creux.or(dense));
+                }
+            }
+        }
+    }
+
+    @Test
+    void avecNeModifiePasLOriginal() {
+        Random random = new Random(7);
+        for (int taille : TAILLES) {
+            for (double densite : DENSITES) {
+                for (boolean compresser : new boolean[]{false, true}) {
+                    BitSet attendu = aleatoire(random, taille, densite);
+                    Bitmap bitmap = versBitmap(attendu, taille, compresser);
+                    for (int i = 0; i < 50; i++) {
+                        int position = random.nextInt(taille);
+                        boolean presente = random.nextBoolean();
+                        BitSet avant = (BitSet) attendu.clone();
+                        Bitmap modifie = bitmap.avec(position, presente);
+                        verifier(avant, bitmap);
+                        attendu.set(position, presente);
+                        verifier(attendu, modifie);
+                        if (modifie != bitmap) {
+                            // Même représentation qu'un bitmap construit puis compressé
+                            assertEquals(versBitmap(attendu, taille, true).isCreux(), modifie.isCreux());
+                        }
+                        bitmap = modifie;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void pleinNeDepassePasLaTaille() {
+        for (int taille : TAILLES) {
+            Bitmap plein = Bitmap.plein(taille);
+            BitSet attendu = new BitSet();
+            attendu.set(0, taille);
+            verifier(attendu, plein);
+            // Le dernier mot partiel ne doit pas compter de positions au-delà de la taille
+            verifier(attendu, plein.or(new Bitmap(taille)));
+            assertEquals(taille, plein.andCardinality(Bitmap.plein(taille)));
+        }
+    }
+
+    @Test
+    void bitmapVideCreux() {
+        Bitmap vide = new Bitmap(1000).compresser();
+        assertTrue(vide.isCreux());
+        assertEquals(0, vide.cardinality());
+        assertEquals(0, vide.getOctets());
+        assertFalse(vide.get(0));
+        vide.forEach(p -> {
+            throw new AssertionError("position inattendue " + p);
+        });
+
+        Bitmap plein = Bitmap.plein(1000);
+        assertEquals(0, vide.and(plein).cardinality());
+        assertEquals(0, plein.andCardinality(vide));
+        verifier(versBitSet(plein), vide.or(plein));
+        assertTrue(vide.or(new Bitmap(1000).compresser()).isCreux());
+
+        // Un set sur un bitmap creux repasse en dense
+        vide.set(999);
+        assertFalse(vide.isCreux());
+        assertTrue(vide.get(999));
+        assertEquals(1, vide.cardinality());
+    }
+
+    @Test
+    void seuilDeCompression() {
+        int taille = 1024;
+        int seuil = taille >>> 5;
+
+        // cardinality == taille >>> 5: reste dense
+        Bitmap auSeuil = premieres(taille, seuil).compresser();
+        assertFalse(auSeuil.isCreux());
+        assertEquals(seuil, auSeuil.cardinality());
+
+        // Juste en dessous: creux
+        Bitmap sousLeSeuil = premieres(taille, seuil - 1).compresser();
+        assertTrue(sousLeSeuil.isCreux());
+        assertEquals(seuil - 1, sousLeSeuil.cardinality());
+
+        // Union de deux bitmaps creux qui atteint le seuil: repasse en dense
+        Bitmap a = new Bitmap(taille);
+        Bitmap b = new Bitmap(taille);
+        for (int i = 0; i < seuil; i++) {
+            (i % 2 == 0 ? a : b).set(i * 7);
+        }
+        a.compresser();
+        b.compresser();
+        assertTrue(a.isCreux());
+        assertTrue(b.isCreux());
+        Bitmap union = a.or(b);
+        assertFalse(union.isCreux());
+        assertEquals(seuil, union.cardinality());
+    }
+
+    private static Bitmap premieres(int taille, int n) {
+        Bitmap bitmap = new Bitmap(taille);
+        for (int i = 0; i < n; i++) {
+            bitmap.set(i);
+        }
+        return bitmap;
+    }
+
+    private static BitSet aleatoire(Random random, int taille, double densite) {
+        BitSet bits = new BitSet(taille);
+        for (int i = 0; i < taille; i++) {
+            if (random.nextDouble() < densite) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static Bitmap versBitmap(BitSet bits, int taille, boolean compresser) {
+        Bitmap bitmap = new Bitmap(taille);
+        bits.stream().forEach(bitmap::set);
+        return compresser ? bitmap.compresser() : bitmap;
+    }
+
+    private static BitSet versBitSet(Bitmap bitmap) {
+        BitSet bits = new BitSet(bitmap.getTaille());
+        bitmap.forEach(bits::set);
+        return bits;
+    }
+
+    private static void verifier(BitSet attendu, Bitmap bitmap) {
+        assertEquals(attendu.cardinality(), bitmap.cardinality());
+        for (int i = 0; i < bitmap.getTaille(); i++) {
+            assertEquals(attendu.get(i), bitmap.get(i), "position " + i);
+        }
+        // forEach: positions présentes, par ordre croissant
+        int[] positions = new int[bitmap.cardinality()];
+        int[] n = {0};
+        bitmap.forEach(p -> positions[n[0]++] = p);
+        assertArrayEquals(attendu.stream().toArray(), positions);
+    }
+}
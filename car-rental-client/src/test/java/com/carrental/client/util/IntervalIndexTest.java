@@ -0,0 +1,100 @@
+package com.carrental.client.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests d'IntervalIndex, comparé à un parcours linéaire d'une liste d'intervalles.
+ */
+class IntervalIndexTest {
+
+    @Test
+    void requetesCorrespondentAUnParcoursLineaire() {
+        Random random = new Random(7);
+        for (int essai = 0; essai < 200; essai++) {
+            int n = random.nextInt(12);
+            int[] debuts = new int[n];
+            int[] fins = new int[n];
+            List<int[]> liste = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                debuts[i] = random.nextInt(60);
+                fins[i] = debuts[i] + 1 + random.nextInt(15);
+                liste.add(new int[]{debuts[i], fins[i]});
+            }
+            IntervalIndex index = IntervalIndex.of(debuts, fins, n);
+            verifier(liste, index, random);
+
+            // Ajout puis raccourcissement / suppression d'un intervalle
+            int debut = random.nextInt(60);
+            int fin = debut + 1 + random.nextInt(15);
+            index = index.with(debut, fin);
+            liste.add(new int[]{debut, fin});
+            verifier(liste, index, random);
+
+            int[] cible = liste.get(random.nextInt(liste.size()));
+            int nouvelleFin = cible[0] + random.nextInt(cible[1] - cible[0] + 1) - 1;
+            index = index.withFin(cible[0], cible[1], nouvelleFin);
+            liste.remove(cible);
+            if (nouvelleFin > cible[0]) {
+                liste.add(new int[]{cible[0], nouvelleFin});
+            }
+            verifier(liste, index, random);
+        }
+    }
+
+    @Test
+    void bornesExclues() {
+        IntervalIndex index = IntervalIndex.EMPTY.with(10, 15);
+        assertFalse(index.overlaps(5, 10));
+        assertFalse(index.overlaps(15, 20));
+        assertTrue(index.overlaps(14, 15));
+        assertTrue(index.overlaps(0, 100));
+        assertTrue(index.contains(10, 15));
+        assertFalse(index.contains(10, 14));
+    }
+
+    @Test
+    void withFinIntrouvableRetourneLeMemeIndex() {
+        IntervalIndex index = IntervalIndex.EMPTY.with(10, 15);
+        assertSame(index, index.withFin(10, 16, 12));
+        assertSame(index, index.withFin(11, 15, 12));
+        assertEquals(0, index.withFin(10, 15, 10).size());
+        assertSame(IntervalIndex.EMPTY, IntervalIndex.of(new int[0], new int[0], 0));
+    }
+
+    private static void verifier(List<int[]> liste, IntervalIndex index, Random random) {
+        assertEquals(liste.size(), index.size());
+        for (int requete = 0; requete < 50; requete++) {
+            int debut = random.nextInt(80) - 5;
+            int fin = debut + 1 + random.nextInt(20);
+
+            List<String> attendus = new ArrayList<>();
+            for (int[] intervalle : liste) {
+                if (intervalle[0] < fin && intervalle[1] > debut) {
+                    attendus.add(intervalle[0] + "-" + intervalle[1]);
+                }
+            }
+            assertEquals(!attendus.isEmpty(), index.overlaps(debut, fin));
+
+            List<String> visites = new ArrayList<>();
+            index.forEachOverlap(debut, fin, (d, f) -> visites.add(d + "-" + f));
+            attendus.sort(null);
+            visites.sort(null);
+            assertEquals(attendus, visites);
+
+            boolean present = liste.stream().anyMatch(i -> i[0] == debut && i[1] == fin);
+            assertEquals(present, index.contains(debut, fin));
+        }
+        for (int[] intervalle : liste) {
+            assertTrue(index.contains(intervalle[0], intervalle[1]));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.carrental.client.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de TimerWheel sur une roue courte (8 cases de 5 ms), avec des délais
+ * qui couvrent plusieurs tours de roue.
+ */
+class TimerWheelTest {
+
+    @Test
+    void tachesExecuteesApresLeurEcheance() throws InterruptedException {
+        Random random = new Random(11);
+        int nb = 200;
+        CountDownLatch executees = new CountDownLatch(nb);
+        ConcurrentHashMap<Integer, Long> retards = new ConcurrentHashMap<>();
+        try (TimerWheel roue = new TimerWheel("test-roue", 5, TimeUnit.MILLISECONDS, 8)) {
+            for (int i = 0; i < nb; i++) {
+                int id = i;
+                // Jusqu'à 200 ms: plus de cinq tours d'une roue de 40 ms
+                long delaiMillis = random.nextInt(200);
+                long echeance = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delaiMillis);
+                roue.schedule(() -> {
+                    retards.put(id, System.nanoTime() - echeance);
+                    executees.countDown();
+                }, delaiMillis, TimeUnit.MILLISECONDS);
+            }
+            assertTrue(executees.await(10, TimeUnit.SECONDS), "tâches non exécutées: " + executees.getCount());
+        }
+        assertEquals(nb, retards.size());
+        retards.forEach((id, retard) -> assertTrue(retard >= 0, "tâche " + id + " exécutée " + (-retard) + " ns trop tôt"));
+    }
+
+    @Test
+    void tachesAnnuleesJamaisExecutees() throws InterruptedException {
+        AtomicInteger annuleesExecutees = new AtomicInteger();
+        CountDownLatch temoin = new CountDownLatch(1);
+        try (TimerWheel roue = new TimerWheel("test-roue", 5, TimeUnit.MILLISECONDS, 8)) {
+            List<TimerWheel.Timeout> timeouts = new ArrayList<>();
+            for (int delai = 0; delai < 100; delai += 7) {
+                timeouts.add(roue.schedule(annuleesExecutees::incrementAndGet, delai, TimeUnit.MILLISECONDS));
+            }
+            timeouts.forEach(TimerWheel.Timeout::cancel);
+            timeouts.forEach(t -> assertTrue(t.isCancelled()));
+            // Une tâche non annulée programmée après toutes les autres
+            roue.schedule(temoin::countDown, 150, TimeUnit.MILLISECONDS);
+            assertTrue(temoin.await(10, TimeUnit.SECONDS));
+        }
+        assertEquals(0, annuleesExecutees.get());
+    }
+
+    @Test
+    void uneTacheEnErreurNArretePasLaRoue() throws InterruptedException {
+        CountDownLatch suivante = new CountDownLatch(1);
+        try (TimerWheel roue = new TimerWheel("test-roue", 5, TimeUnit.MILLISECONDS, 8)) {
+            roue.schedule(() -> {
+                throw new IllegalStateException("erreur volontaire");
+            }, 5, TimeUnit.MILLISECONDS);
+            TimerWheel.Timeout timeout = roue.schedule(suivante::countDown, 50, TimeUnit.MILLISECONDS);
+            assertTrue(suivante.await(10, TimeUnit.SECONDS));
+            assertFalse(timeout.isCancelled());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.carrental.client.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests de Trie, comparé à un calcul exhaustif de la distance d'édition
+ * (insertion, suppression, remplacement, inversion de deux caractères voisins)
+ * entre la saisie et chaque préfixe de chaque clé.
+ */
+class TrieTest {
+
+    @Test
+    void suggestionsCorrespondentAUnCalculExhaustif() {
+        Random random = new Random(3);
+        for (int essai = 0; essai < 100; essai++) {
+            Map<String, Integer> poids = new HashMap<>();
+            int nbCles = 1 + random.nextInt(30);
+            for (int i = 0; i < nbCles; i++) {
+                poids.merge(mot(random, 1 + random.nextInt(5)), 1 + random.nextInt(5), Integer::sum);
+            }
+            Trie.Builder<String> builder = new Trie.Builder<>();
+            poids.forEach((cle, p) -> builder.add(cle, cle, p));
+            int k = 1 + random.nextInt(6);
+            Trie<String> trie = builder.build(k);
+            assertEquals(poids.size(), trie.size());
+
+            for (int requete = 0; requete < 30; requete++) {
+                String saisie = mot(random, random.nextInt(5));
+                int limite = 1 + random.nextInt(8);
+                for (boolean tolerance : new boolean[]{false, true}) {
+                    assertEquals(attendu(poids, saisie, tolerance ? 1 : 0, Math.min(limite, k)),
+                            trie.suggerer(saisie, tolerance, limite),
+                            "saisie '" + saisie + "', tolérance " + tolerance + ", clés " + poids.keySet());
+                }
+            }
+        }
+    }
+
+    @Test
+    void poidsDesClesIdentiquesAdditionnes() {
+        Trie<String> trie = new Trie.Builder<String>()
+                .add("clio", "Clio", 1)
+                .add("clio", "autre", 5)
+                .add("civic", "Civic", 4)
+                .add("", "vide", 100)
+                .build(5);
+        assertEquals(2, trie.size());
+        assertEquals(List.of("Clio", "Civic"), trie.suggerer("c", false, 5));
+        assertEquals(List.of("Civic"), trie.suggerer("civci", true, 5));
+    }
+
+    /**
+     * Résultat attendu: clés dont un préfixe est à au plus maxFautes de la saisie, classées
+     * par nombre de fautes, poids décroissant puis ordre alphabétique.
+     */
+    private static List<String> attendu(Map<String, Integer> poids, String saisie, int maxFautes, int limite) {
+        Map<String, Integer> fautes = new HashMap<>();
+        for (String cle : poids.keySet()) {
+            int min = Integer.MAX_VALUE;
+            for (int longueur = 0; longueur <= cle.length(); longueur++) {
+                min = Math.min(min, distance(saisie, cle.substring(0, longueur)));
+            }
+            if (min <= maxFautes) {
+                fautes.put(cle, min);
+            }
+        }
+        return fautes.keySet().stream()
+                .sorted(Comparator.<String>comparingInt(fautes::get)
+                        .thenComparing(cle -> -poids.get(cle))
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(limite)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Distance d'édition avec inversion de deux caractères voisins (optimal string alignment).
+     */
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cout = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cout);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    /** Mot sur un petit alphabet, pour multiplier les préfixes communs et les fautes proches */
+    private static String mot(Random random, int longueur) {
+        StringBuilder mot = new StringBuilder(longueur);
+        for (int i = 0; i < longueur; i++) {
+            mot.append((char) ('a' + random.nextInt(3)));
+        }
+        return mot.toString();
+    }
+}